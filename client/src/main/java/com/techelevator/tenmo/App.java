@@ -1,5 +1,6 @@
 package com.techelevator.tenmo;
 
+import com.techelevator.tenmo.model.ApprovalOutcome;
 import com.techelevator.tenmo.model.AuthenticatedUser;
 import com.techelevator.tenmo.model.Transfer;
 import com.techelevator.tenmo.model.User;
@@ -7,9 +8,12 @@ import com.techelevator.tenmo.model.UserCredentials;
 import com.techelevator.tenmo.services.AccountService;
 import com.techelevator.tenmo.services.AuthenticationService;
 import com.techelevator.tenmo.services.ConsoleService;
+import com.techelevator.tenmo.services.HttpTransport;
+import com.techelevator.tenmo.services.TransferHistoryCache;
 import com.techelevator.tenmo.services.TransferService;
 
 import java.math.BigDecimal;
+import java.nio.file.Paths;
 
 public class App {
 
@@ -23,9 +27,10 @@ public class App {
     private static final String API_BASE_URL = "http://localhost:8080/";
 
     private final ConsoleService consoleService = new ConsoleService();
-    private final AuthenticationService authenticationService = new AuthenticationService(API_BASE_URL);
-    private final AccountService accountService = new AccountService(API_BASE_URL);
-    private final TransferService transferService = new TransferService(API_BASE_URL);
+    private final HttpTransport transport = HttpTransport.fromSystemProperties();
+    private final AuthenticationService authenticationService = new AuthenticationService(API_BASE_URL, transport);
+    private final AccountService accountService = new AccountService(API_BASE_URL, transport);
+    private final TransferService transferService = new TransferService(API_BASE_URL, transport);
 
     private AuthenticatedUser currentUser;
 
@@ -40,6 +45,7 @@ public class App {
         if (currentUser != null) {
             mainMenu();
         }
+        transport.shutdown();
     }
 
     // login validation
@@ -80,6 +86,8 @@ public class App {
         } else {
             accountService.setAuthToken(currentUser.getToken());
             transferService.setAuthToken(currentUser.getToken());
+            transferService.setHistoryCache(new TransferHistoryCache(
+                    Paths.get("cache", currentUser.getUser().getId() + "-transfers.jsonl")));
         }
     }
 
@@ -151,42 +159,55 @@ public class App {
         }
         int id = consoleService.promptForInt("Please enter transfer ID to approve/reject (0 to cancel): ");
         boolean isValid = false;
-        BigDecimal amountToCompare = new BigDecimal("0.00");
         for (Transfer pendingRequest : pendingRequests) {
             if (id == pendingRequest.getTransferId()){
                 isValid = true;
-                amountToCompare = amountToCompare.add(pendingRequest.getAmount());
                 break;
             }
         }
         if (isValid){
             consoleService.pendingRequestsOptions();
             int option = consoleService.promptForInt("Please choose an option: ");
-            if (option == 1 && amountToCompare.compareTo(accountService.getBalance()) > 0) {
-                System.out.println("Insufficient funds, request will be rejected.");
-            } updateRequest(id, option);
+            updateRequest(id, option);
         } else if (id != 0){
             System.out.println("Invalid selection");
         }
     }
 
-    //allows user to approve or reject request. logic for if transfer can be approved is on server-side
+    //allows user to approve or reject request. logic for if transfer can be approved is on server-side,
+    //including the funds check, so the outcome tells us what actually happened
     private void updateRequest(int id, int option){
         Transfer transfer = new Transfer();
         transfer.setTransferId(id);
         if (option != 0){
             if (option == 1){
                 transfer.setTransferStatusId(TRANSFER_STATUS_ID_APPROVED);
-                transferService.updatePendingTransfer(transfer);
+                printApprovalOutcome(transferService.updatePendingTransfer(transfer));
             } else if (option == 2){
                 transfer.setTransferStatusId(TRANSFER_STATUS_ID_REJECTED);
-                transferService.updatePendingTransfer(transfer);
+                printApprovalOutcome(transferService.updatePendingTransfer(transfer));
             } else {
                 System.out.println("Invalid option");
             }
         }
     }
 
+    private void printApprovalOutcome(ApprovalOutcome outcome) {
+        if (outcome == null) {
+            consoleService.printErrorMessage();
+        } else if (outcome == ApprovalOutcome.APPROVED) {
+            System.out.println("Request approved.");
+        } else if (outcome == ApprovalOutcome.REJECTED) {
+            System.out.println("Request rejected.");
+        } else if (outcome == ApprovalOutcome.INSUFFICIENT_FUNDS) {
+            System.out.println("Insufficient funds, request was rejected.");
+        } else if (outcome == ApprovalOutcome.ALREADY_RESOLVED) {
+            System.out.println("This request was already approved or rejected.");
+        } else {
+            System.out.println("Invalid transfer ID");
+        }
+    }
+
     //standard outbound transfer
     private void sendBucks() {
         listAllUsers();
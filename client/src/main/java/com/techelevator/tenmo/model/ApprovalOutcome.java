@@ -0,0 +1,9 @@
+package com.techelevator.tenmo.model;
+
+public enum ApprovalOutcome {
+    APPROVED,
+    REJECTED,
+    INSUFFICIENT_FUNDS,
+    ALREADY_RESOLVED,
+    NOT_FOUND
+}
@@ -0,0 +1,30 @@
+package com.techelevator.tenmo.model;
+
+public class PendingDecision {
+
+    private int transferId;
+    private int transferStatusId;
+
+    public PendingDecision() { }
+
+    public PendingDecision(int transferId, int transferStatusId) {
+        this.transferId = transferId;
+        this.transferStatusId = transferStatusId;
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public int getTransferStatusId() {
+        return transferStatusId;
+    }
+
+    public void setTransferStatusId(int transferStatusId) {
+        this.transferStatusId = transferStatusId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.techelevator.tenmo.model;
+
+public class PendingDecisionResult {
+
+    private int transferId;
+    private ApprovalOutcome outcome;
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public ApprovalOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(ApprovalOutcome outcome) {
+        this.outcome = outcome;
+    }
+}
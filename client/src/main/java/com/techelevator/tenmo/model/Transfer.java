@@ -1,9 +1,15 @@
 package com.techelevator.tenmo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.math.BigDecimal;
 
+// fixed field order and no nulls, so list responses stay small and lay out the same in JSON and Smile
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"transferId", "transferTypeId", "transferStatusId", "accountFrom", "accountTo", "amount",
+        "transferTypeDesc", "transferStatusDesc", "accountFromUsername", "accountToUsername", "username"})
 public class Transfer {
 
     private int transferId;
@@ -0,0 +1,217 @@
+package com.techelevator.tenmo.sdk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.AuthenticatedUser;
+import com.techelevator.tenmo.model.PendingDecision;
+import com.techelevator.tenmo.model.PendingDecisionResult;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.User;
+import com.techelevator.tenmo.model.UserCredentials;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Non-blocking client for the TEnmo API, meant for scripts and jobs rather than the console app.
+ * Every call returns immediately with a future; at most {@code maxInFlight} calls are on the wire at
+ * once and the rest wait in the dispatcher queue. Clients built from the same OkHttpClient share its
+ * connection pool.
+ */
+public class TenmoAsyncClient {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final OkHttpClient httpClient;
+    private final String baseUrl;
+    private final String authorization;
+
+    public TenmoAsyncClient(OkHttpClient sharedClient, String baseUrl, String authToken, int maxInFlight) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxInFlight);
+        dispatcher.setMaxRequestsPerHost(maxInFlight);
+        this.httpClient = sharedClient.newBuilder().dispatcher(dispatcher).build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.authorization = "Bearer " + authToken;
+    }
+
+    public TenmoAsyncClient(String baseUrl, String authToken, int maxInFlight) {
+        this(new OkHttpClient(), baseUrl, authToken, maxInFlight);
+    }
+
+    /**
+     * Logs in and returns a client carrying the resulting token.
+     */
+    public static CompletableFuture<TenmoAsyncClient> login(OkHttpClient sharedClient, String baseUrl,
+                                                           UserCredentials credentials, int maxInFlight) {
+        TenmoAsyncClient anonymous = new TenmoAsyncClient(sharedClient, baseUrl, "", 1);
+        Request request = new Request.Builder()
+                .url(anonymous.baseUrl + "login")
+                .post(anonymous.jsonBody(credentials))
+                .build();
+        return anonymous.call(request, MAPPER.constructType(AuthenticatedUser.class))
+                // the login client is used once; let its dispatcher threads go instead of idling out
+                .whenComplete((user, failure) -> anonymous.httpClient.dispatcher().executorService().shutdown())
+                .thenApply(user -> new TenmoAsyncClient(sharedClient, baseUrl,
+                        ((AuthenticatedUser) user).getToken(), maxInFlight));
+    }
+
+    public CompletableFuture<BigDecimal> getBalance() {
+        return get("account/balance", MAPPER.constructType(BigDecimal.class));
+    }
+
+    public CompletableFuture<List<User>> findAllUsers() {
+        return get("account/users", MAPPER.getTypeFactory().constructCollectionType(List.class, User.class));
+    }
+
+    public CompletableFuture<List<Transfer>> viewTransfers() {
+        return viewTransfers(0);
+    }
+
+    /**
+     * History entries with an ID greater than {@code sinceTransferId}.
+     */
+    public CompletableFuture<List<Transfer>> viewTransfers(int sinceTransferId) {
+        return get("transfer/history?since=" + sinceTransferId,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, Transfer.class));
+    }
+
+    public CompletableFuture<List<Transfer>> viewPendingRequests() {
+        return get("transfer/pending", MAPPER.getTypeFactory().constructCollectionType(List.class, Transfer.class));
+    }
+
+    public CompletableFuture<Transfer> viewTransferDetails(int transferId) {
+        return get("transfer/details/" + transferId, MAPPER.constructType(Transfer.class));
+    }
+
+    public CompletableFuture<Void> sendTransfer(Transfer transfer) {
+        return send("transfer/send", "POST", transfer, null);
+    }
+
+    public CompletableFuture<Void> requestTransfer(Transfer transfer) {
+        return send("transfer/request", "POST", transfer, null);
+    }
+
+    public CompletableFuture<ApprovalOutcome> updatePendingTransfer(Transfer transfer) {
+        return send("transfer/update", "PUT", transfer, MAPPER.constructType(ApprovalOutcome.class));
+    }
+
+    /**
+     * Approves or rejects many pending requests in one call and transaction. Approvals are applied in
+     * transfer ID order; results come back in the order given.
+     */
+    public CompletableFuture<List<PendingDecisionResult>> updatePendingTransfers(List<PendingDecision> decisions) {
+        return send("transfer/pending/bulk", "PUT", decisions,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, PendingDecisionResult.class));
+    }
+
+    /**
+     * Sends every transfer, keeping no more than the client's in-flight limit on the wire. The returned
+     * future completes once all calls have finished; it fails if any of them failed.
+     */
+    public CompletableFuture<Void> sendTransfers(List<Transfer> transfers) {
+        return allOf(transfers, this::sendTransfer);
+    }
+
+    public CompletableFuture<Void> requestTransfers(List<Transfer> transfers) {
+        return allOf(transfers, this::requestTransfer);
+    }
+
+    /**
+     * Stops the dispatcher threads. Pooled connections stay with the shared OkHttpClient.
+     */
+    public void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+    }
+
+    private CompletableFuture<Void> allOf(List<Transfer> transfers,
+                                          Function<Transfer, CompletableFuture<Void>> call) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            futures.add(call.apply(transfer));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> get(String path, JavaType type) {
+        Request request = new Request.Builder()
+                .url(baseUrl + path)
+                .header("Authorization", authorization)
+                .get()
+                .build();
+        return (CompletableFuture<T>) call(request, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> send(String path, String method, Object body, JavaType type) {
+        Request request;
+        try {
+            request = new Request.Builder()
+                    .url(baseUrl + path)
+                    .header("Authorization", authorization)
+                    .method(method, jsonBody(body))
+                    .build();
+        } catch (TenmoClientException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return (CompletableFuture<T>) call(request, type);
+    }
+
+    private CompletableFuture<Object> call(Request request, JavaType type) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(new TenmoClientException(request.method() + " " + request.url()
+                        + " failed: " + e.getMessage(), e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        future.completeExceptionally(new TenmoClientException(response.code(),
+                                request.method() + " " + request.url() + " returned " + response.code()));
+                    } else if (type == null || body == null) {
+                        future.complete(null);
+                    } else {
+                        future.complete(MAPPER.readValue(body.byteStream(), type));
+                    }
+                } catch (IOException e) {
+                    future.completeExceptionally(new TenmoClientException("Could not read response from "
+                            + request.url(), e));
+                }
+            }
+        });
+        return future;
+    }
+
+    private RequestBody jsonBody(Object value) {
+        try {
+            return RequestBody.create(JSON, MAPPER.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new TenmoClientException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
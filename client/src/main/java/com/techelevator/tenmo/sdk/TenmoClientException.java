@@ -0,0 +1,27 @@
+package com.techelevator.tenmo.sdk;
+
+/**
+ * Raised (as the cause of a failed future) when the server answers with a non-2xx status or the call
+ * cannot be completed.
+ */
+public class TenmoClientException extends RuntimeException {
+
+    private final int statusCode;
+
+    public TenmoClientException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public TenmoClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    /**
+     * @return the HTTP status returned by the server, or 0 if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
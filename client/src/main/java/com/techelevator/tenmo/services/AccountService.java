@@ -16,15 +16,24 @@ import java.math.BigDecimal;
 public class AccountService {
 
     private final String baseUrl;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private String authToken = null;
+    private final RestTemplate restTemplate;
+    private HttpEntity<Void> authEntity;
+    private final ConditionalGetCache responseCache = new ConditionalGetCache();
 
     public void setAuthToken(String authToken){
-        this.authToken = authToken;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(authToken);
+        this.authEntity = new HttpEntity<>(HttpHeaders.readOnlyHttpHeaders(headers));
+        responseCache.clear();
     }
 
     public AccountService(String url){
+        this(url, HttpTransport.getDefault());
+    }
+
+    public AccountService(String url, HttpTransport transport){
         this.baseUrl = url;
+        this.restTemplate = transport.getRestTemplate();
     }
 
     public BigDecimal getBalance(){
@@ -42,9 +51,10 @@ public class AccountService {
     public User[] findAll(){
         User[] users = null;
         try {
-            ResponseEntity<User[]> response = restTemplate.exchange(baseUrl + "account/users", HttpMethod.GET,
-                    makeEntity(), User[].class);
-            users = response.getBody();
+            String url = baseUrl + "account/users";
+            ResponseEntity<User[]> response = restTemplate.exchange(url, HttpMethod.GET,
+                    responseCache.withValidator(url, makeEntity()), User[].class);
+            users = responseCache.bodyOf(url, response);
         } catch (RestClientResponseException | ResourceAccessException e) {
             BasicLogger.log(e.getMessage());
         }
@@ -63,9 +73,7 @@ public class AccountService {
     }
 
     public HttpEntity<Void> makeEntity(){
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(authToken);
-        return new HttpEntity<>(headers);
+        return authEntity;
     }
 
 }
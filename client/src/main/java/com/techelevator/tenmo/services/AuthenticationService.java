@@ -15,11 +15,18 @@ import com.techelevator.tenmo.model.UserCredentials;
 
 public class AuthenticationService {
 
+    private static final HttpHeaders JSON_HEADERS = jsonHeaders();
+
     private final String baseUrl;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     public AuthenticationService(String url) {
+        this(url, HttpTransport.getDefault());
+    }
+
+    public AuthenticationService(String url, HttpTransport transport) {
         this.baseUrl = url;
+        this.restTemplate = transport.getRestTemplate();
     }
 
     public AuthenticatedUser login(UserCredentials credentials) {
@@ -48,8 +55,12 @@ public class AuthenticationService {
     }
 
     private HttpEntity<UserCredentials> createCredentialsEntity(UserCredentials credentials) {
+        return new HttpEntity<>(credentials, JSON_HEADERS);
+    }
+
+    private static HttpHeaders jsonHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        return new HttpEntity<>(credentials, headers);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
     }
 }
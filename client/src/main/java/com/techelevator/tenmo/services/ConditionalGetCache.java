@@ -0,0 +1,63 @@
+package com.techelevator.tenmo.services;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the ETag and body of the last response for each URL, so a repeated GET can send
+ * If-None-Match and reuse the body it already has when the server answers 304 Not Modified.
+ */
+public class ConditionalGetCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the given entity, plus If-None-Match if a tag is held for this URL
+     */
+    public HttpEntity<Void> withValidator(String url, HttpEntity<Void> entity) {
+        Entry entry = entries.get(url);
+        if (entry == null) {
+            return entity;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(entity.getHeaders());
+        headers.setIfNoneMatch(entry.etag);
+        return new HttpEntity<>(headers);
+    }
+
+    /**
+     * @return the cached body on 304, otherwise the response body (remembering it if it came with an ETag)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T bodyOf(String url, ResponseEntity<T> response) {
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            Entry entry = entries.get(url);
+            return entry == null ? null : (T) entry.body;
+        }
+        String etag = response.getHeaders().getETag();
+        if (etag != null && response.getBody() != null) {
+            entries.put(url, new Entry(etag, response.getBody()));
+        } else {
+            entries.remove(url);
+        }
+        return response.getBody();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        final String etag;
+        final Object body;
+
+        Entry(String etag, Object body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.techelevator.tenmo.services;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP transport for the client services. Holds one pooled, keep-alive OkHttp client and the
+ * RestTemplate built on top of it, so every service talks to the server over the same connections.
+ * Every call gets a trace ID from {@link TraceInterceptor}; calls slower than tenmo.http.traceSlowMs
+ * (default 1000) are logged with it.
+ */
+public class HttpTransport {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 16;
+    public static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(5);
+    public static final long DEFAULT_TRACE_SLOW_MILLIS = 1000;
+
+    private static HttpTransport defaultTransport;
+
+    private final OkHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    public HttpTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE, false);
+    }
+
+    public HttpTransport(Duration connectTimeout, Duration readTimeout, int maxIdleConnections,
+                         Duration keepAlive, boolean http2) {
+        this(connectTimeout, readTimeout, maxIdleConnections, keepAlive, http2, false);
+    }
+
+    /**
+     * @param http2 use HTTP/2 with prior knowledge (h2c). Only enable this when the server is known to speak it.
+     * @param smile ask the server for Smile (binary JSON) responses instead of JSON. Request bodies stay JSON.
+     */
+    public HttpTransport(Duration connectTimeout, Duration readTimeout, int maxIdleConnections,
+                         Duration keepAlive, boolean http2, boolean smile) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .retryOnConnectionFailure(true)
+                .addInterceptor(new TraceInterceptor(Long.getLong("tenmo.http.traceSlowMs", DEFAULT_TRACE_SLOW_MILLIS)));
+        if (http2) {
+            builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        } else {
+            builder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        }
+        this.httpClient = builder.build();
+        this.restTemplate = new RestTemplate(new OkHttp3ClientHttpRequestFactory(httpClient));
+        if (smile) {
+            // first in line, so it leads the Accept header and reads Smile responses
+            restTemplate.getMessageConverters().add(0, new MappingJackson2SmileHttpMessageConverter());
+        }
+    }
+
+    /**
+     * Builds a transport from the tenmo.http.* system properties, falling back to the defaults above.
+     */
+    public static HttpTransport fromSystemProperties() {
+        return new HttpTransport(
+                Duration.ofMillis(Long.getLong("tenmo.http.connectTimeoutMs", DEFAULT_CONNECT_TIMEOUT.toMillis())),
+                Duration.ofMillis(Long.getLong("tenmo.http.readTimeoutMs", DEFAULT_READ_TIMEOUT.toMillis())),
+                Integer.getInteger("tenmo.http.maxIdleConnections", DEFAULT_MAX_IDLE_CONNECTIONS),
+                Duration.ofMillis(Long.getLong("tenmo.http.keepAliveMs", DEFAULT_KEEP_ALIVE.toMillis())),
+                Boolean.getBoolean("tenmo.http.http2"),
+                Boolean.getBoolean("tenmo.http.smile"));
+    }
+
+    /**
+     * Transport shared by services that are created without one.
+     */
+    public static synchronized HttpTransport getDefault() {
+        if (defaultTransport == null) {
+            defaultTransport = fromSystemProperties();
+        }
+        return defaultTransport;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
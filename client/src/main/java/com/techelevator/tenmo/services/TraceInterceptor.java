@@ -0,0 +1,49 @@
+package com.techelevator.tenmo.services;
+
+import com.techelevator.util.BasicLogger;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gives every request a trace ID in the X-Trace-Id header, which the server carries through its filters,
+ * controllers, DAOs and SQL and shows at /debug/traces. Calls that take at least slowMillis from sending the
+ * request to receiving the response headers are logged with their trace ID, so a slow call seen here can be
+ * looked up on the server. A request that already carries a trace ID keeps it.
+ */
+public class TraceInterceptor implements Interceptor {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final long slowMillis;
+
+    public TraceInterceptor(long slowMillis) {
+        this.slowMillis = slowMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String traceId = request.header(TRACE_ID_HEADER);
+        if (traceId == null) {
+            traceId = newTraceId();
+            request = request.newBuilder().header(TRACE_ID_HEADER, traceId).build();
+        }
+        long start = System.nanoTime();
+        Response response = chain.proceed(request);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (millis >= slowMillis) {
+            BasicLogger.log("slow call: trace " + traceId + " " + request.method() + " " + request.url().encodedPath()
+                    + " answered " + response.code() + " in " + millis + " ms");
+        }
+        return response;
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,105 @@
+package com.techelevator.tenmo.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.util.BasicLogger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+
+/**
+ * On-disk copy of a user's transfer history: one JSON transfer per line, appended as new transfers
+ * arrive. History rows never change once written, so the client only has to ask the server for
+ * transfers from {@link #getSyncFromTransferId()} on.
+ *
+ * Transfer IDs are handed out when a transfer is inserted, not when it commits, so a transfer can become
+ * visible after one with a higher ID was already fetched. Syncing therefore starts {@link #SYNC_OVERLAP} IDs
+ * below the last cached one and lets {@link #merge} drop the rows it already has.
+ */
+public class TransferHistoryCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // how far back each sync reaches, in transfer IDs handed out by all users; wide enough to cover the
+    // transactions (and group-committed batches of sends) that can be in flight at once
+    public static final int SYNC_OVERLAP = 1000;
+
+    private final Path file;
+    private final TreeMap<Integer, Transfer> transfers = new TreeMap<>();
+    private boolean loaded = false;
+
+    public TransferHistoryCache(Path file) {
+        this.file = file;
+    }
+
+    public synchronized int getLastTransferId() {
+        load();
+        return transfers.isEmpty() ? 0 : transfers.lastKey();
+    }
+
+    /**
+     * @return the transfer ID to ask the server for transfers after
+     */
+    public synchronized int getSyncFromTransferId() {
+        return Math.max(0, getLastTransferId() - SYNC_OVERLAP);
+    }
+
+    /**
+     * Adds transfers fetched from the server, appending the ones not seen before to the cache file,
+     * and returns the full history in transfer ID order.
+     */
+    public synchronized Transfer[] merge(Transfer[] newer) {
+        load();
+        if (newer != null && newer.length > 0) {
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Transfer transfer : newer) {
+                        if (transfers.putIfAbsent(transfer.getTransferId(), transfer) == null) {
+                            writer.write(MAPPER.writeValueAsString(transfer));
+                            writer.newLine();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // the in-memory copy is still good; the next run just fetches these rows again
+                BasicLogger.log("Could not write transfer cache " + file + ": " + e.getMessage());
+            }
+        }
+        return transfers.values().toArray(new Transfer[0]);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    Transfer transfer = MAPPER.readValue(line, Transfer.class);
+                    transfers.put(transfer.getTransferId(), transfer);
+                } catch (IOException e) {
+                    // a torn last line from an interrupted write; that transfer is fetched again
+                    BasicLogger.log("Skipping unreadable line in " + file);
+                }
+            }
+        } catch (IOException e) {
+            BasicLogger.log("Could not read transfer cache " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.techelevator.tenmo.services;
 
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecision;
+import com.techelevator.tenmo.model.PendingDecisionResult;
 import com.techelevator.tenmo.model.Transfer;
 import com.techelevator.util.BasicLogger;
 import org.springframework.http.*;
@@ -7,18 +10,36 @@ import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 public class TransferService {
 
     private final String baseUrl;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private String authToken = null;
+    private final RestTemplate restTemplate;
+    private HttpEntity<Void> authEntity;
+    private HttpHeaders transferHeaders;
+    private TransferHistoryCache historyCache;
+    private final ConditionalGetCache responseCache = new ConditionalGetCache();
 
     public void setAuthToken(String authToken){
-        this.authToken = authToken;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(authToken);
+        this.authEntity = new HttpEntity<>(HttpHeaders.readOnlyHttpHeaders(headers));
+
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        jsonHeaders.setBearerAuth(authToken);
+        this.transferHeaders = HttpHeaders.readOnlyHttpHeaders(jsonHeaders);
+        responseCache.clear();
     }
 
     public TransferService(String url){
+        this(url, HttpTransport.getDefault());
+    }
+
+    public TransferService(String url, HttpTransport transport){
         this.baseUrl = url;
+        this.restTemplate = transport.getRestTemplate();
     }
 
     public boolean sendTransfer(Transfer transfer) {
@@ -43,23 +64,51 @@ public class TransferService {
         return successful;
     }
 
-    public boolean updatePendingTransfer(Transfer transfer){
-        boolean successful = false;
+    //returns null if the server could not be reached or refused the update
+    public ApprovalOutcome updatePendingTransfer(Transfer transfer){
+        ApprovalOutcome outcome = null;
         try {
-            restTemplate.put(baseUrl + "/transfer/update", makeTransferEntity(transfer), Transfer.class);
-            successful = true;
+            ResponseEntity<ApprovalOutcome> response = restTemplate.exchange(baseUrl + "/transfer/update",
+                    HttpMethod.PUT, makeTransferEntity(transfer), ApprovalOutcome.class);
+            outcome = response.getBody();
         } catch (RestClientResponseException | ResourceAccessException e) {
             BasicLogger.log(e.getMessage());
         }
-        return successful;
+        return outcome;
     }
 
+    //approves or rejects many requests in one call; returns null if the server could not be reached or refused the call
+    public PendingDecisionResult[] updatePendingTransfers(List<PendingDecision> decisions){
+        PendingDecisionResult[] results = null;
+        try {
+            ResponseEntity<PendingDecisionResult[]> response = restTemplate.exchange(baseUrl + "/transfer/pending/bulk",
+                    HttpMethod.PUT, new HttpEntity<>(decisions, transferHeaders), PendingDecisionResult[].class);
+            results = response.getBody();
+        } catch (RestClientResponseException | ResourceAccessException e) {
+            BasicLogger.log(e.getMessage());
+        }
+        return results;
+    }
+
+    public void setHistoryCache(TransferHistoryCache historyCache){
+        this.historyCache = historyCache;
+    }
+
+    //with a history cache only the transfers around and after the last cached one are downloaded; either way an
+    //unchanged list comes back as 304 and the body from the last call is reused
     public Transfer[] viewTransfer(){
         Transfer[] transferHistory = null;
         try {
-            ResponseEntity<Transfer[]> response = restTemplate.exchange(baseUrl + "/transfer/history", HttpMethod.GET,
-                    makeEntity(), Transfer[].class);
-            transferHistory = response.getBody();
+            String url = baseUrl + "/transfer/history";
+            if (historyCache != null) {
+                url += "?since=" + historyCache.getSyncFromTransferId();
+            }
+            ResponseEntity<Transfer[]> response = restTemplate.exchange(url, HttpMethod.GET,
+                    responseCache.withValidator(url, makeEntity()), Transfer[].class);
+            transferHistory = responseCache.bodyOf(url, response);
+            if (historyCache != null) {
+                transferHistory = historyCache.merge(transferHistory);
+            }
         } catch (RestClientResponseException | ResourceAccessException e) {
             BasicLogger.log(e.getMessage());
         }
@@ -69,9 +118,10 @@ public class TransferService {
     public Transfer[] viewPendingRequests(){
         Transfer[] pendingRequests = null;
         try {
-            ResponseEntity<Transfer[]> response = restTemplate.exchange(baseUrl + "/transfer/pending", HttpMethod.GET,
-                    makeEntity(), Transfer[].class);
-            pendingRequests = response.getBody();
+            String url = baseUrl + "/transfer/pending";
+            ResponseEntity<Transfer[]> response = restTemplate.exchange(url, HttpMethod.GET,
+                    responseCache.withValidator(url, makeEntity()), Transfer[].class);
+            pendingRequests = responseCache.bodyOf(url, response);
         } catch (RestClientResponseException | ResourceAccessException e) {
             BasicLogger.log(e.getMessage());
         }
@@ -91,15 +141,10 @@ public class TransferService {
     }
 
     public HttpEntity<Void> makeEntity(){
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(authToken);
-        return new HttpEntity<>(headers);
+        return authEntity;
     }
 
     public HttpEntity<Transfer> makeTransferEntity(Transfer transfer){
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(authToken);
-        return new HttpEntity<>(transfer,headers);
+        return new HttpEntity<>(transfer, transferHeaders);
     }
 }
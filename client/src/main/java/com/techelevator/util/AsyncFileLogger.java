@@ -0,0 +1,328 @@
+package com.techelevator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * File logger that keeps callers off the disk. {@link #log(String)} only stamps the message with the
+ * current time and publishes it into a bounded lock-free ring buffer; a single background thread
+ * formats the lines and writes them to a FileChannel in batches.
+ *
+ * Files are named logs/yyyy-MM-dd.log and roll over when the date changes or when a file reaches the
+ * size limit (the next file becomes yyyy-MM-dd.1.log and so on). When the buffer is full, callers
+ * either wait for room ({@link OverflowPolicy#BLOCK}) or the message is counted and dropped
+ * ({@link OverflowPolicy#DROP}); dropped counts are written to the log once there is room again.
+ *
+ * A line that cannot be written (the file cannot be opened, a write fails) is counted as dropped, and the
+ * file is opened again for the next line. Should the writer thread die anyway, the logger stops accepting
+ * messages, so callers get false instead of waiting for room that never comes.
+ */
+public class AsyncFileLogger implements AutoCloseable {
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ISO_DATE;
+    private static final DateTimeFormatter LINE_TIME = DateTimeFormatter.ISO_DATE_TIME;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final OverflowPolicy overflowPolicy;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // ring buffer: a slot is free for position p when sequences[p & mask] == p and holds a message
+    // for position p when it equals p + 1
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final String[] messages;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean writerParked = false;
+    private volatile boolean running = true;
+    private volatile boolean writerDied = false;
+
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private int fileIndex;
+    private long fileBytes;
+    private int bufferedLines;
+    private boolean writeFailed;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param capacity ring buffer size, rounded up to a power of two
+     */
+    public AsyncFileLogger(Path directory, int capacity, long maxFileBytes, OverflowPolicy overflowPolicy) {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.overflowPolicy = overflowPolicy;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[size];
+        this.messages = new String[size];
+        try {
+            openFile(LocalDate.now(zone), 0);
+        } catch (IOException e) {
+            throw new BasicLoggerException(e.getMessage());
+        }
+        this.writer = new Thread(this::drainLoop, "async-file-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a message. Returns false if it was dropped because the buffer was full, the logger is closed or its
+     * writer thread has died.
+     */
+    public boolean log(String message) {
+        long now = System.currentTimeMillis();
+        long position;
+        int index;
+        while (true) {
+            if (!running) {
+                if (writerDied) {
+                    dropped.incrementAndGet();
+                }
+                return false;
+            }
+            position = tail.get();
+            index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(1_000L);
+            }
+        }
+        timestamps[index] = now;
+        messages[index] = message;
+        sequences.lazySet(index, position + 1);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every message queued before this call has been handed to the file channel.
+     */
+    public void flush() {
+        long target = tail.get();
+        while (head < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000L);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting messages, writes whatever is still queued and closes the file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        long reportedDrops = 0;
+        boolean stopped = false;
+        try {
+            while (true) {
+                try {
+                    boolean stopping = !running;
+                    int written = drainBatch();
+                    long drops = dropped.get();
+                    // the report is not a message: if it cannot be written it is not counted, just tried again
+                    if (drops != reportedDrops
+                            && writeLine(System.currentTimeMillis(), (drops - reportedDrops) + " log messages dropped", false)) {
+                        reportedDrops = drops;
+                        written++;
+                    }
+                    if (written > 0) {
+                        flushBuffer();
+                    }
+                    if (written == 0 && stopping) {
+                        stopped = true;
+                        break;
+                    } else if (writeFailed) {
+                        // the file is unusable for now; retry at the idle pace instead of spinning on it
+                        writeFailed = false;
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    } else if (written == 0) {
+                        writerParked = true;
+                        // re-check after announcing the park so a message published in between is not missed
+                        if (!hasNext()) {
+                            LockSupport.parkNanos(IDLE_PARK_NANOS);
+                        }
+                        writerParked = false;
+                    }
+                } catch (RuntimeException e) {
+                    // lose what was buffered, not the writer
+                    dropped.addAndGet(Math.max(1, bufferedLines));
+                    writeBuffer.clear();
+                    bufferedLines = 0;
+                    writerParked = false;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            // an Error got through; refuse further messages rather than let BLOCK callers wait forever
+            writerDied = !stopped;
+            running = false;
+            closeFile();
+        }
+    }
+
+    private boolean hasNext() {
+        long position = head;
+        return sequences.get((int) (position & mask)) == position + 1;
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        long position = head;
+        while (count <= mask) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            long timestamp = timestamps[index];
+            String message = messages[index];
+            messages[index] = null;
+            sequences.lazySet(index, position + mask + 1);
+            position++;
+            head = position;
+            if (!writeLine(timestamp, message, true)) {
+                dropped.incrementAndGet();
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param countable whether the line counts as a dropped message if a later flush of the buffer fails
+     * @return false if the line could not be written, which the caller accounts for
+     */
+    private boolean writeLine(long timestamp, String message, boolean countable) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone);
+        line.setLength(0);
+        LINE_TIME.formatTo(time, line);
+        line.append(' ').append(message).append(System.lineSeparator());
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            LocalDate date = time.toLocalDate();
+            if (!date.equals(fileDate)) {
+                flushBuffer();
+                openFile(date, 0);
+            } else if (fileBytes + writeBuffer.position() + bytes.length > maxFileBytes && fileBytes + writeBuffer.position() > 0) {
+                flushBuffer();
+                openFile(date, fileIndex + 1);
+            }
+            if (bytes.length > writeBuffer.remaining()) {
+                flushBuffer();
+            }
+            if (channel == null) {
+                // the last open failed; the date check above retries it on the next line
+                writeFailed = true;
+                return false;
+            }
+            if (bytes.length > writeBuffer.capacity()) {
+                fileBytes += channel.write(ByteBuffer.wrap(bytes));
+            } else {
+                writeBuffer.put(bytes);
+                if (countable) {
+                    bufferedLines++;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            // nothing sensible to report to; the line is lost
+            writeFailed = true;
+            return false;
+        }
+    }
+
+    private void flushBuffer() {
+        writeBuffer.flip();
+        try {
+            if (channel == null) {
+                throw new IOException("no log file open");
+            }
+            while (writeBuffer.hasRemaining()) {
+                fileBytes += channel.write(writeBuffer);
+            }
+        } catch (IOException e) {
+            writeFailed = true;
+            dropped.addAndGet(bufferedLines);
+        }
+        writeBuffer.clear();
+        bufferedLines = 0;
+    }
+
+    private void openFile(LocalDate date, int index) throws IOException {
+        closeFile();
+        // stays null if the open fails, so the next line tries again
+        fileDate = null;
+        Files.createDirectories(directory);
+        String name = date.format(FILE_DATE) + (index == 0 ? "" : "." + index) + ".log";
+        channel = FileChannel.open(directory.resolve(name),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileDate = date;
+        fileIndex = index;
+        fileBytes = channel.size();
+        if (fileBytes >= maxFileBytes) {
+            openFile(date, index + 1);
+        }
+    }
+
+    private void closeFile() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already closing
+            }
+            channel = null;
+        }
+    }
+}
@@ -1,28 +1,33 @@
 package com.techelevator.util;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintWriter;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Paths;
 
+/**
+ * Application log. Messages go through an {@link AsyncFileLogger} so callers never wait on the disk;
+ * the log is drained and closed by a shutdown hook when the JVM exits.
+ *
+ * Tunable with system properties: tenmo.log.dir (default logs), tenmo.log.bufferSize (8192 messages),
+ * tenmo.log.maxFileBytes (10 MB) and tenmo.log.overflow (BLOCK or DROP).
+ */
 public class BasicLogger {
 
-	private static PrintWriter pw = null;
-	
+	private static AsyncFileLogger logger = null;
+
 	public static void log(String message) {
-		try {
-			if (pw == null) {
-				String logFilename = "logs/" + LocalDate.now().format(DateTimeFormatter.ISO_DATE) + ".log";
-				pw = new PrintWriter(new FileOutputStream(logFilename, true));
-			}
-			pw.println(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME) + " " + message);
-			pw.flush();
-		}
-		catch (FileNotFoundException e) {
-			throw new BasicLoggerException(e.getMessage());
+		getLogger().log(message);
+	}
+
+	private static synchronized AsyncFileLogger getLogger() {
+		if (logger == null) {
+			AsyncFileLogger newLogger = new AsyncFileLogger(
+					Paths.get(System.getProperty("tenmo.log.dir", "logs")),
+					Integer.getInteger("tenmo.log.bufferSize", 8192),
+					Long.getLong("tenmo.log.maxFileBytes", 10L * 1024 * 1024),
+					AsyncFileLogger.OverflowPolicy.valueOf(System.getProperty("tenmo.log.overflow", "BLOCK")));
+			Runtime.getRuntime().addShutdownHook(new Thread(newLogger::close, "basic-logger-shutdown"));
+			logger = newLogger;
 		}
+		return logger;
 	}
 
 }
@@ -0,0 +1,77 @@
+package com.techelevator.tenmo.services;
+
+import com.techelevator.tenmo.model.AuthenticatedUser;
+import com.techelevator.tenmo.model.UserCredentials;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the default RestTemplate against the pooled HttpTransport for sequential and concurrent
+ * balance calls. Needs a running server and an existing user:
+ *
+ *   HttpTransportBenchmark [baseUrl] [username] [password] [calls] [threads]
+ */
+public class HttpTransportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/";
+        String username = args.length > 1 ? args[1] : "user";
+        String password = args.length > 2 ? args[2] : "password";
+        int calls = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+        HttpTransport transport = new HttpTransport();
+        AuthenticatedUser user = new AuthenticationService(baseUrl, transport)
+                .login(new UserCredentials(username, password));
+        if (user == null) {
+            System.out.println("Login failed for " + username);
+            return;
+        }
+
+        AccountService pooled = new AccountService(baseUrl, transport);
+        pooled.setAuthToken(user.getToken());
+        RestTemplate simple = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(user.getToken());
+
+        Runnable simpleCall = () -> simple.exchange(baseUrl + "account/balance", HttpMethod.GET,
+                new HttpEntity<>(headers), BigDecimal.class);
+        Runnable pooledCall = pooled::getBalance;
+
+        // warm up both paths before measuring
+        run("warmup simple", simpleCall, calls / 10, 1);
+        run("warmup pooled", pooledCall, calls / 10, 1);
+
+        run("simple sequential", simpleCall, calls, 1);
+        run("pooled sequential", pooledCall, calls, 1);
+        run("simple concurrent", simpleCall, calls, threads);
+        run("pooled concurrent", pooledCall, calls, threads);
+
+        transport.shutdown();
+    }
+
+    private static void run(String name, Runnable call, int calls, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(executor.submit(call));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        System.out.printf("%-20s %6d calls %3d threads %8.1f ms %10.1f calls/s %8.1f us/call%n", name, calls, threads,
+                elapsed / 1e6, calls / (elapsed / 1e9), elapsed / 1e3 / calls);
+    }
+}
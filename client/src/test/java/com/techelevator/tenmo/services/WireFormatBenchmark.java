@@ -0,0 +1,63 @@
+package com.techelevator.tenmo.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.techelevator.tenmo.model.Transfer;
+
+import java.math.BigDecimal;
+
+/**
+ * Compares payload size and serialize/deserialize time of JSON and Smile for a transfer history list
+ * shaped like a /transfer/history response. Runs offline:
+ *
+ *   WireFormatBenchmark [transfers] [iterations]
+ */
+public class WireFormatBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        Transfer[] history = new Transfer[count];
+        for (int i = 0; i < count; i++) {
+            Transfer transfer = new Transfer();
+            transfer.setTransferId(3001 + i);
+            transfer.setTransferTypeId(i % 2 + 1);
+            transfer.setAmount(new BigDecimal(10 + i % 500).movePointLeft(1).setScale(2));
+            transfer.setAccountFromUsername("user" + (i % 50));
+            transfer.setAccountToUsername("user" + ((i + 7) % 50));
+            history[i] = transfer;
+        }
+
+        ObjectMapper json = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ObjectMapper smile = new ObjectMapper(new SmileFactory())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        run("JSON ", json, history, iterations);
+        run("Smile", smile, history, iterations);
+        // second round after both are warmed up
+        run("JSON ", json, history, iterations);
+        run("Smile", smile, history, iterations);
+    }
+
+    private static void run(String label, ObjectMapper mapper, Transfer[] history, int iterations) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(history);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes = mapper.writeValueAsBytes(history);
+        }
+        long serialize = System.nanoTime() - start;
+        start = System.nanoTime();
+        Transfer[] read = null;
+        for (int i = 0; i < iterations; i++) {
+            read = mapper.readValue(bytes, Transfer[].class);
+        }
+        long deserialize = System.nanoTime() - start;
+        if (read.length != history.length) {
+            throw new IllegalStateException("round trip lost transfers");
+        }
+        System.out.printf("%s %,8d bytes   write %6.1f us   read %6.1f us%n", label, bytes.length,
+                serialize / 1000.0 / iterations, deserialize / 1000.0 / iterations);
+    }
+}
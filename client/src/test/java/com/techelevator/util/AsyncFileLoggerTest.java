@@ -0,0 +1,123 @@
+package com.techelevator.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AsyncFileLoggerTest {
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("async-logger-test");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void every_message_from_concurrent_writers_is_written_once() throws Exception {
+        AsyncFileLogger logger = new AsyncFileLogger(directory, 64, Long.MAX_VALUE, AsyncFileLogger.OverflowPolicy.BLOCK);
+        int threads = 8;
+        int perThread = 2000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    logger.log("message " + thread + "-" + i);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        logger.close();
+
+        List<String> lines = readAllLines();
+        Set<String> messages = new HashSet<>();
+        for (String line : lines) {
+            messages.add(line.substring(line.indexOf(' ') + 1));
+        }
+        Assert.assertEquals(threads * perThread, lines.size());
+        Assert.assertEquals(threads * perThread, messages.size());
+    }
+
+    @Test
+    public void rolls_to_a_new_file_when_size_limit_is_reached() throws Exception {
+        AsyncFileLogger logger = new AsyncFileLogger(directory, 16, 200, AsyncFileLogger.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 20; i++) {
+            logger.log("a message that is long enough to fill the file quickly " + i);
+        }
+        logger.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertTrue("expected more than one log file", files.count() > 1);
+        }
+        Assert.assertEquals(20, readAllLines().size());
+    }
+
+    @Test
+    public void lines_are_counted_as_dropped_while_the_next_file_cannot_be_opened() throws Exception {
+        // a directory where the rolled-over file would go makes opening it fail
+        Path blocked = Files.createDirectory(directory.resolve(LocalDate.now().format(DateTimeFormatter.ISO_DATE) + ".1.log"));
+        AsyncFileLogger logger = new AsyncFileLogger(directory, 16, 200, AsyncFileLogger.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(logger.log("a message that is long enough to fill the file quickly " + i));
+        }
+        logger.flush();
+        Assert.assertTrue("expected lines to be dropped", logger.getDroppedCount() > 0);
+
+        Files.delete(blocked);
+        Assert.assertTrue(logger.log("written once the file can be opened again"));
+        logger.close();
+        Assert.assertTrue(readAllLines().stream().anyMatch(line -> line.endsWith("written once the file can be opened again")));
+    }
+
+    @Test
+    public void drop_policy_never_blocks_and_counts_dropped_messages() {
+        AsyncFileLogger logger = new AsyncFileLogger(directory, 2, Long.MAX_VALUE, AsyncFileLogger.OverflowPolicy.DROP);
+        int accepted = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (logger.log("message " + i)) {
+                accepted++;
+            }
+        }
+        logger.close();
+        Assert.assertEquals(10000, accepted + logger.getDroppedCount());
+    }
+
+    private List<String> readAllLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                lines.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,71 @@
+package com.techelevator.util;
+
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the previous BasicLogger approach (format on the caller, println and flush per line, here
+ * synchronized so it is at least correct) with AsyncFileLogger.
+ *
+ *   BasicLoggerBenchmark [messagesPerThread] [threads]
+ */
+public class BasicLoggerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        Path directory = Files.createTempDirectory("logger-benchmark");
+
+        PrintWriter pw = new PrintWriter(new FileOutputStream(directory.resolve("sync.log").toFile(), true));
+        Runnable sync = () -> {
+            for (int i = 0; i < perThread; i++) {
+                String line = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME) + " message " + i;
+                synchronized (pw) {
+                    pw.println(line);
+                    pw.flush();
+                }
+            }
+        };
+        long syncNanos = run(sync, threads);
+        pw.close();
+
+        AsyncFileLogger logger = new AsyncFileLogger(directory.resolve("async"), 8192, Long.MAX_VALUE,
+                AsyncFileLogger.OverflowPolicy.BLOCK);
+        Runnable async = () -> {
+            for (int i = 0; i < perThread; i++) {
+                logger.log("message " + i);
+            }
+        };
+        long start = System.nanoTime();
+        long asyncCallerNanos = run(async, threads);
+        logger.close();
+        long asyncTotalNanos = System.nanoTime() - start;
+
+        int total = perThread * threads;
+        System.out.printf("%-30s %10.1f ms %8.0f ns/msg%n", "sync println+flush", syncNanos / 1e6, (double) syncNanos / total);
+        System.out.printf("%-30s %10.1f ms %8.0f ns/msg%n", "async (caller time)", asyncCallerNanos / 1e6, (double) asyncCallerNanos / total);
+        System.out.printf("%-30s %10.1f ms %8.0f ns/msg%n", "async (until on disk)", asyncTotalNanos / 1e6, (double) asyncTotalNanos / total);
+        System.out.println("dropped: " + logger.getDroppedCount() + ", output in " + directory);
+    }
+
+    private static long run(Runnable task, int threads) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(task));
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+}
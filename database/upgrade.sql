@@ -0,0 +1,36 @@
+-- Brings an existing TEnmo database up to the current schema.sql without dropping data.
+BEGIN TRANSACTION;
+
+CREATE SEQUENCE IF NOT EXISTS seq_transfer_event_id
+  INCREMENT BY 1
+  START WITH 1
+  NO MAXVALUE;
+
+CREATE TABLE IF NOT EXISTS transfer_event (
+	event_id bigint NOT NULL DEFAULT nextval('seq_transfer_event_id'),
+	transfer_id int NOT NULL,
+	event_type varchar(10) NOT NULL,
+	account_from int NOT NULL,
+	account_to int NOT NULL,
+	amount decimal(13, 2) NOT NULL,
+	created_at timestamp NOT NULL DEFAULT now(),
+	CONSTRAINT PK_transfer_event PRIMARY KEY (event_id),
+	CONSTRAINT CK_transfer_event_type CHECK (event_type IN ('REQUESTED', 'SENT', 'APPROVED', 'REJECTED'))
+);
+
+-- transfers that existed before these columns were added get the upgrade time as their creation time
+ALTER TABLE transfer ADD COLUMN IF NOT EXISTS created_at timestamp NOT NULL DEFAULT now();
+ALTER TABLE transfer ADD COLUMN IF NOT EXISTS resolved_at timestamp;
+
+-- fails if two existing usernames differ only in case; rename one of them first
+CREATE UNIQUE INDEX IF NOT EXISTS UQ_username_lower ON tenmo_user (lower(username));
+ALTER TABLE tenmo_user DROP CONSTRAINT IF EXISTS UQ_username;
+
+-- one account per user; login reads the account ID through this index to sign it into the token
+CREATE UNIQUE INDEX IF NOT EXISTS UQ_account_user_id ON account (user_id);
+
+-- fails if an account is already overdrawn; settle it first
+ALTER TABLE account DROP CONSTRAINT IF EXISTS CK_account_balance_not_negative;
+ALTER TABLE account ADD CONSTRAINT CK_account_balance_not_negative CHECK (balance >= 0);
+
+COMMIT;
@@ -0,0 +1,246 @@
+package com.techelevator.tenmo.loadgen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Loads generated users, accounts and transfers into an existing TEnmo schema through parallel COPY streams,
+ * one connection per stream. New users get IDs after the highest existing one, the username
+ * {@code <prefix><user_id>} and the password "password". Balances start at the app's 1,000.00 plus everything
+ * the user's completed transfers moved, floored at zero, and are written last.
+ *
+ * Each stream commits on its own, so an interrupted load leaves partial data: load into a fresh database.
+ */
+public class CopyLoader {
+
+    /** BCrypt hash of "password" */
+    static final String PASSWORD_HASH = "$2a$10$TMumkD4lub0SYLFeAM/35OMOjdSujbfsk.Y0PuEN/Sgm7HMFxMpMW";
+
+    private static final long OPENING_BALANCE_CENTS = 100_000;
+    private static final int FLUSH_CHARS = 256 * 1024;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int threads;
+
+    public CopyLoader(String url, String username, String password, int threads) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.threads = threads;
+    }
+
+    public void load(int users, long transfers, int days, double theta, long seed, String prefix) throws Exception {
+        int firstUserId;
+        int firstAccountId;
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            firstUserId = nextId(statement, "SELECT COALESCE(MAX(user_id), 1000) + 1 FROM tenmo_user");
+            firstAccountId = nextId(statement, "SELECT COALESCE(MAX(account_id), 2000) + 1 FROM account");
+        }
+        System.out.printf("Loading %,d users from user_id %d and %,d transfers over %d days with %d streams%n",
+                users, firstUserId, transfers, days, threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            run(executor, users, (from, to, out) -> {
+                for (int i = from; i < to; i++) {
+                    out.append(firstUserId + i).append(',').append(prefix).append(firstUserId + i).append(',')
+                            .append(PASSWORD_HASH).append('\n');
+                    out.flushIfFull();
+                }
+            }, "COPY tenmo_user (user_id, username, password_hash) FROM STDIN WITH (FORMAT csv)");
+            report("users", users, start);
+
+            start = System.nanoTime();
+            run(executor, users, (from, to, out) -> {
+                for (int i = from; i < to; i++) {
+                    out.append(firstAccountId + i).append(',').append(firstUserId + i).append(",0\n");
+                    out.flushIfFull();
+                }
+            }, "COPY account (account_id, user_id, balance) FROM STDIN WITH (FORMAT csv)");
+            report("accounts", users, start);
+
+            start = System.nanoTime();
+            AtomicLongArray deltas = new AtomicLongArray(users);
+            TransferGenerator generator = new TransferGenerator(users, new ZipfianGenerator(users, theta),
+                    LocalDateTime.now(), days, deltas);
+            int partitions = threads;
+            List<Future<?>> streams = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                long from = transfers * p / partitions;
+                long to = transfers * (p + 1) / partitions;
+                TransferGenerator.Partition partition = generator.new Partition(seed * 31 + p);
+                streams.add(executor.submit(() -> copy("COPY transfer (transfer_type_id, transfer_status_id, account_from, " +
+                        "account_to, amount, created_at, resolved_at) FROM STDIN WITH (FORMAT csv)", out -> {
+                    TransferGenerator.Row row = new TransferGenerator.Row();
+                    for (long i = from; i < to; i++) {
+                        partition.next(row);
+                        out.append(row.type).append(',').append(row.status).append(',')
+                                .append(firstAccountId + row.from).append(',').append(firstAccountId + row.to).append(',')
+                                .appendCents(row.amountCents).append(',')
+                                .append(new Timestamp(row.createdMillis).toString()).append(',');
+                        if (row.resolvedMillis != 0) {
+                            out.append(new Timestamp(row.resolvedMillis).toString());
+                        }
+                        out.append('\n');
+                        out.flushIfFull();
+                    }
+                })));
+            }
+            awaitAll(streams);
+            report("transfers", transfers, start);
+
+            start = System.nanoTime();
+            writeBalances(firstAccountId, deltas);
+            report("balances", users, start);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void writeBalances(int firstAccountId, AtomicLongArray deltas) throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE loadgen_balance (account_id int PRIMARY KEY, balance decimal(13, 2))");
+            CopyWriter out = new CopyWriter(connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY loadgen_balance (account_id, balance) FROM STDIN WITH (FORMAT csv)"));
+            for (int i = 0; i < deltas.length(); i++) {
+                out.append(firstAccountId + i).append(',')
+                        .appendCents(Math.max(0, OPENING_BALANCE_CENTS + deltas.get(i))).append('\n');
+                out.flushIfFull();
+            }
+            out.finish();
+            statement.executeUpdate("UPDATE account SET balance = b.balance FROM loadgen_balance b " +
+                    "WHERE account.account_id = b.account_id");
+            statement.execute("SELECT setval('seq_user_id', (SELECT MAX(user_id) FROM tenmo_user))");
+            statement.execute("SELECT setval('seq_account_id', (SELECT MAX(account_id) FROM account))");
+            statement.execute("ANALYZE tenmo_user, account, transfer");
+        }
+    }
+
+    private interface RangeWriter {
+        void write(int from, int to, CopyWriter out) throws SQLException;
+    }
+
+    private interface StreamWriter {
+        void write(CopyWriter out) throws SQLException;
+    }
+
+    private void run(ExecutorService executor, int rows, RangeWriter writer, String sql) throws Exception {
+        List<Future<?>> streams = new ArrayList<>();
+        for (int p = 0; p < threads; p++) {
+            int from = (int) ((long) rows * p / threads);
+            int to = (int) ((long) rows * (p + 1) / threads);
+            streams.add(executor.submit(() -> copy(sql, out -> writer.write(from, to, out))));
+        }
+        awaitAll(streams);
+    }
+
+    private Void copy(String sql, StreamWriter writer) throws SQLException {
+        try (Connection connection = connect()) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyWriter out = new CopyWriter(copyManager.copyIn(sql));
+            writer.write(out);
+            out.finish();
+        }
+        return null;
+    }
+
+    private static void awaitAll(List<Future<?>> streams) throws Exception {
+        try {
+            for (Future<?> stream : streams) {
+                stream.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    private static int nextId(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void report(String what, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("  %-10s %,12d rows in %6.1f s (%,.0f rows/s)%n", what, rows, seconds, rows / seconds);
+    }
+
+    /**
+     * Buffers CSV text and hands it to the COPY stream in large chunks.
+     */
+    private static class CopyWriter {
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_CHARS + 1024);
+
+        CopyWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        CopyWriter append(String value) {
+            buffer.append(value);
+            return this;
+        }
+
+        CopyWriter append(long value) {
+            buffer.append(value);
+            return this;
+        }
+
+        CopyWriter append(char value) {
+            buffer.append(value);
+            return this;
+        }
+
+        CopyWriter appendCents(long cents) {
+            buffer.append(cents / 100).append('.');
+            long fraction = cents % 100;
+            if (fraction < 10) {
+                buffer.append('0');
+            }
+            buffer.append(fraction);
+            return this;
+        }
+
+        void flushIfFull() throws SQLException {
+            if (buffer.length() >= FLUSH_CHARS) {
+                flush();
+            }
+        }
+
+        void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.techelevator.tenmo.loadgen;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-operation latencies and outcomes for one virtual user; merged into a total at the end of a run.
+ */
+class LatencyRecorder {
+
+    private final Map<TrafficMix.Operation, Series> series = new EnumMap<>(TrafficMix.Operation.class);
+
+    void record(TrafficMix.Operation operation, long nanos, int status) {
+        Series s = series.computeIfAbsent(operation, op -> new Series());
+        if (s.count == s.nanos.length) {
+            s.nanos = Arrays.copyOf(s.nanos, s.count * 2);
+        }
+        s.nanos[s.count++] = nanos;
+        if (status == 429) {
+            s.throttled++;
+        } else if (status < 200 || status >= 300) {
+            s.errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (Map.Entry<TrafficMix.Operation, Series> entry : other.series.entrySet()) {
+            Series s = series.computeIfAbsent(entry.getKey(), op -> new Series());
+            Series add = entry.getValue();
+            s.nanos = Arrays.copyOf(s.nanos, Math.max(s.nanos.length, s.count + add.count));
+            System.arraycopy(add.nanos, 0, s.nanos, s.count, add.count);
+            s.count += add.count;
+            s.errors += add.errors;
+            s.throttled += add.throttled;
+        }
+    }
+
+    void print(double seconds) {
+        System.out.printf("%-10s %10s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "calls", "errors", "429s", "per sec", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<TrafficMix.Operation, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            long[] sorted = Arrays.copyOf(s.nanos, s.count);
+            Arrays.sort(sorted);
+            System.out.printf("%-10s %,10d %,8d %,8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), s.count,
+                    s.errors, s.throttled, s.count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static class Series {
+        long[] nanos = new long[1024];
+        int count;
+        long errors;
+        long throttled;
+    }
+}
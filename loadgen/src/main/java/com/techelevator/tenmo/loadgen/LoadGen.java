@@ -0,0 +1,62 @@
+package com.techelevator.tenmo.loadgen;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line entry point.
+ *
+ *   load   --url=jdbc:postgresql://localhost:5432/tenmo --user=postgres --password=... [--users=100000]
+ *          [--transfers=1000000] [--days=90] [--theta=0.99] [--threads=8] [--seed=1] [--prefix=load]
+ *   replay --base=http://localhost:8080 --mix=mixes/default.json [--first-user-id=1001] [--users=100000]
+ *          [--virtual-users=16] [--seconds=60] [--theta=0.99] [--seed=1] [--prefix=load]
+ */
+public class LoadGen {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("load") || args[0].equals("replay"))) {
+            System.err.println("Usage: LoadGen load|replay --option=value ...");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Options look like --name=value, got " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        double theta = Double.parseDouble(options.getOrDefault("theta", "0.99"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String prefix = options.getOrDefault("prefix", "load");
+        int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+
+        if (args[0].equals("load")) {
+            CopyLoader loader = new CopyLoader(required(options, "url"), options.getOrDefault("user", "postgres"),
+                    options.getOrDefault("password", ""), Integer.parseInt(options.getOrDefault("threads", "8")));
+            long start = System.nanoTime();
+            loader.load(users, Long.parseLong(options.getOrDefault("transfers", "1000000")),
+                    Integer.parseInt(options.getOrDefault("days", "90")), theta, seed, prefix);
+            System.out.printf("Done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        } else {
+            TrafficReplayer replayer = new TrafficReplayer(options.getOrDefault("base", "http://localhost:8080"),
+                    TrafficMix.read(new File(required(options, "mix"))),
+                    Integer.parseInt(options.getOrDefault("first-user-id", "1001")), users, prefix, theta);
+            replayer.run(Integer.parseInt(options.getOrDefault("virtual-users", "16")),
+                    Integer.parseInt(options.getOrDefault("seconds", "60")), seed);
+        }
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            System.err.println("Missing --" + name + "=...");
+            System.exit(2);
+        }
+        return value;
+    }
+}
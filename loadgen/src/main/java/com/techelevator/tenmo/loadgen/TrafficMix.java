@@ -0,0 +1,66 @@
+package com.techelevator.tenmo.loadgen;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Relative frequency of each API operation, as measured from production request counts per route, plus the
+ * pause a virtual user takes between calls. Read from JSON, e.g. mixes/default.json.
+ */
+public class TrafficMix {
+
+    /**
+     * The operations a virtual user can perform; see {@link TrafficReplayer}.
+     */
+    public enum Operation {
+        LOGIN, BALANCE, HISTORY, USERS, PENDING, DETAILS, SEND, REQUEST, APPROVE
+    }
+
+    public static class Entry {
+        public Operation operation;
+        public double weight;
+    }
+
+    public long thinkTimeMillis;
+    public List<Entry> operations = new ArrayList<>();
+
+    private double[] cumulative;
+
+    public static TrafficMix read(File file) throws IOException {
+        TrafficMix mix = new ObjectMapper()
+                .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS, true)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readValue(file, TrafficMix.class);
+        mix.prepare();
+        return mix;
+    }
+
+    void prepare() {
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix has no operations");
+        }
+        cumulative = new double[operations.size()];
+        double total = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            total += operations.get(i).weight;
+            cumulative[i] = total;
+        }
+    }
+
+    public Operation pick(Random random) {
+        double point = random.nextDouble() * cumulative[cumulative.length - 1];
+        for (int i = 0; i < cumulative.length; i++) {
+            if (point < cumulative[i]) {
+                return operations.get(i).operation;
+            }
+        }
+        return operations.get(operations.size() - 1).operation;
+    }
+}
@@ -0,0 +1,200 @@
+package com.techelevator.tenmo.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives the REST API with a {@link TrafficMix}. Each virtual user logs in as one of the loaded users
+ * ({@code <prefix><user_id>} / "password") and then calls operations picked from the mix until the run ends;
+ * a LOGIN operation starts a new session as another user.
+ * Payees and payers are drawn with the same Zipfian skew as the loaded data. Rate-limited (429) calls are
+ * counted separately from errors; run the server with tenmo.rate-limit.enabled=false to measure raw capacity.
+ */
+public class TrafficReplayer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final TrafficMix mix;
+    private final int firstUserId;
+    private final int users;
+    private final String prefix;
+    private final ZipfianGenerator payees;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public TrafficReplayer(String baseUrl, TrafficMix mix, int firstUserId, int users, String prefix, double theta) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.mix = mix;
+        this.firstUserId = firstUserId;
+        this.users = users;
+        this.prefix = prefix;
+        this.payees = new ZipfianGenerator(users, theta);
+    }
+
+    public void run(int virtualUsers, int seconds, long seed) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+        List<Future<LatencyRecorder>> results = new ArrayList<>();
+        for (int i = 0; i < virtualUsers; i++) {
+            Random random = new Random(seed * 31 + i);
+            results.add(executor.submit(() -> new VirtualUser(random).run(deadline)));
+        }
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> result : results) {
+            total.merge(result.get());
+        }
+        executor.shutdown();
+        total.print(seconds);
+    }
+
+    private class VirtualUser {
+        private final Random random;
+        private final LatencyRecorder recorder = new LatencyRecorder();
+        private int userId;
+        private String token;
+        private int lastTransferId;
+
+        VirtualUser(Random random) {
+            this.random = random;
+        }
+
+        LatencyRecorder run(long deadline) throws Exception {
+            int loggedIn = login();
+            if (loggedIn != 200) {
+                throw new IllegalStateException("Login as " + prefix + userId + " failed: " + loggedIn);
+            }
+            while (System.nanoTime() < deadline) {
+                TrafficMix.Operation operation = mix.pick(random);
+                long start = System.nanoTime();
+                int status = perform(operation);
+                recorder.record(operation, System.nanoTime() - start, status);
+                if (mix.thinkTimeMillis > 0) {
+                    Thread.sleep(mix.thinkTimeMillis);
+                }
+            }
+            return recorder;
+        }
+
+        private int perform(TrafficMix.Operation operation) throws IOException, InterruptedException {
+            switch (operation) {
+                case LOGIN:
+                    return login();
+                case BALANCE:
+                    return get("/account/balance").statusCode();
+                case USERS:
+                    return get("/account/users").statusCode();
+                case HISTORY: {
+                    HttpResponse<String> response = get("/transfer/history");
+                    if (response.statusCode() == 200) {
+                        for (JsonNode transfer : MAPPER.readTree(response.body())) {
+                            lastTransferId = Math.max(lastTransferId, transfer.get("transferId").asInt());
+                        }
+                    }
+                    return response.statusCode();
+                }
+                case DETAILS:
+                    return lastTransferId == 0 ? perform(TrafficMix.Operation.HISTORY)
+                            : get("/transfer/details/" + lastTransferId).statusCode();
+                case PENDING:
+                    return get("/transfer/pending").statusCode();
+                case SEND:
+                    return post("/transfer/send", transfer(userId, otherUser(), 2, 2)).statusCode();
+                case REQUEST:
+                    return post("/transfer/request", transfer(otherUser(), userId, 1, 1)).statusCode();
+                case APPROVE: {
+                    HttpResponse<String> pending = get("/transfer/pending");
+                    if (pending.statusCode() != 200) {
+                        return pending.statusCode();
+                    }
+                    JsonNode requests = MAPPER.readTree(pending.body());
+                    if (requests.size() == 0) {
+                        return pending.statusCode();
+                    }
+                    JsonNode request = requests.get(0);
+                    ObjectNode decision = MAPPER.createObjectNode()
+                            .put("transferId", request.get("transferId").asInt())
+                            .put("transferStatusId", random.nextDouble() < 0.8 ? 2 : 3)
+                            .put("amount", request.get("amount").decimalValue());
+                    return http.send(request("/transfer/update").PUT(json(decision)).build(),
+                            HttpResponse.BodyHandlers.discarding()).statusCode();
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        }
+
+        /**
+         * Starts a session as a newly drawn user.
+         */
+        private int login() throws IOException, InterruptedException {
+            userId = firstUserId + random.nextInt(users);
+            lastTransferId = 0;
+            token = null;
+            ObjectNode login = MAPPER.createObjectNode().put("username", prefix + userId).put("password", "password");
+            HttpResponse<String> response = http.send(request("/login").POST(json(login)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                token = MAPPER.readTree(response.body()).get("token").asText();
+            }
+            return response.statusCode();
+        }
+
+        private int otherUser() {
+            int other;
+            do {
+                other = firstUserId + (int) payees.next(random);
+            } while (other == userId);
+            return other;
+        }
+
+        private ObjectNode transfer(int from, int to, int typeId, int statusId) {
+            long cents = Math.max(1, Math.round(500 * Math.exp(random.nextGaussian() / 2)));
+            return MAPPER.createObjectNode()
+                    .put("accountFrom", from)
+                    .put("accountTo", to)
+                    .put("amount", BigDecimal.valueOf(cents, 2))
+                    .put("transferTypeId", typeId)
+                    .put("transferStatusId", statusId);
+        }
+
+        private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+            return http.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpResponse<Void> post(String path, ObjectNode body) throws IOException, InterruptedException {
+            return http.send(request(path).POST(json(body)).build(), HttpResponse.BodyHandlers.discarding());
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        private HttpRequest.BodyPublisher json(JsonNode body) throws IOException {
+            return HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body));
+        }
+    }
+}
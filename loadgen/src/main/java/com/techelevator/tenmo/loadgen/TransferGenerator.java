@@ -0,0 +1,116 @@
+package com.techelevator.tenmo.loadgen;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generates synthetic transfers between users 0 .. users-1 over the {@code days} days before {@code end}.
+ * Sends go from a uniformly chosen user to a Zipfian-chosen payee. Requests come in bursts: a Zipfian-chosen
+ * payee asks several random users for money within a few seconds, like someone splitting a bill; each is
+ * left pending, approved or rejected. Every completed transfer is added to {@code balanceDeltas} (in cents).
+ */
+public class TransferGenerator {
+
+    static final int TYPE_REQUEST = 1;
+    static final int TYPE_SEND = 2;
+    static final int STATUS_PENDING = 1;
+    static final int STATUS_APPROVED = 2;
+    static final int STATUS_REJECTED = 3;
+
+    private static final double BURST_PROBABILITY = 0.05;
+    private static final double MEAN_BURST_SIZE = 8;
+    private static final double MEAN_BURST_GAP_MILLIS = 2000;
+    private static final double MEAN_RESOLVE_MILLIS = 3_600_000;
+    private static final double MEDIAN_AMOUNT_CENTS = 2000;
+
+    private final int users;
+    private final ZipfianGenerator payees;
+    private final long startMillis;
+    private final long spanMillis;
+    private final AtomicLongArray balanceDeltas;
+
+    /**
+     * One generated row. Reused between calls to {@link #next}.
+     */
+    public static class Row {
+        public int type;
+        public int status;
+        public int from;
+        public int to;
+        public long amountCents;
+        public long createdMillis;
+        /** 0 for transfers that were never resolved (sends and pending requests) */
+        public long resolvedMillis;
+    }
+
+    public TransferGenerator(int users, ZipfianGenerator payees, LocalDateTime end, int days, AtomicLongArray balanceDeltas) {
+        if (users < 2) {
+            throw new IllegalArgumentException("Need at least two users");
+        }
+        this.users = users;
+        this.payees = payees;
+        this.spanMillis = ChronoUnit.MILLIS.between(end.minusDays(days), end);
+        this.startMillis = end.minusDays(days).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        this.balanceDeltas = balanceDeltas;
+    }
+
+    /**
+     * Per-partition generation state: the random source and the request burst in progress.
+     */
+    public class Partition {
+        private final Random random;
+        private int burstRemaining;
+        private int burstPayee;
+        private long burstMillis;
+
+        public Partition(long seed) {
+            this.random = new Random(seed);
+        }
+
+        public void next(Row row) {
+            if (burstRemaining == 0 && random.nextDouble() < BURST_PROBABILITY) {
+                burstRemaining = 1 + (int) (-Math.log(1 - random.nextDouble()) * (MEAN_BURST_SIZE - 1));
+                burstPayee = (int) payees.next(random);
+                burstMillis = startMillis + (long) (random.nextDouble() * spanMillis);
+            }
+            row.amountCents = amountCents();
+            if (burstRemaining > 0) {
+                burstRemaining--;
+                row.type = TYPE_REQUEST;
+                row.to = burstPayee;
+                row.from = otherThan(burstPayee);
+                burstMillis += (long) (-Math.log(1 - random.nextDouble()) * MEAN_BURST_GAP_MILLIS);
+                row.createdMillis = burstMillis;
+                double outcome = random.nextDouble();
+                row.status = outcome < 0.2 ? STATUS_PENDING : outcome < 0.8 ? STATUS_APPROVED : STATUS_REJECTED;
+                row.resolvedMillis = row.status == STATUS_PENDING ? 0
+                        : row.createdMillis + (long) (-Math.log(1 - random.nextDouble()) * MEAN_RESOLVE_MILLIS);
+            } else {
+                row.type = TYPE_SEND;
+                row.status = STATUS_APPROVED;
+                row.to = (int) payees.next(random);
+                row.from = otherThan(row.to);
+                row.createdMillis = startMillis + (long) (random.nextDouble() * spanMillis);
+                row.resolvedMillis = 0;
+            }
+            if (row.status == STATUS_APPROVED) {
+                balanceDeltas.addAndGet(row.from, -row.amountCents);
+                balanceDeltas.addAndGet(row.to, row.amountCents);
+            }
+        }
+
+        private int otherThan(int user) {
+            int other = random.nextInt(users - 1);
+            return other >= user ? other + 1 : other;
+        }
+
+        // log-normal around $20, between 1 cent and $50,000
+        private long amountCents() {
+            long cents = Math.round(MEDIAN_AMOUNT_CENTS * Math.exp(random.nextGaussian()));
+            return Math.max(1, Math.min(5_000_000, cents));
+        }
+    }
+}
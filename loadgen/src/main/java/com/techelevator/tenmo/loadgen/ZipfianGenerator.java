@@ -0,0 +1,66 @@
+package com.techelevator.tenmo.loadgen;
+
+import java.util.Random;
+
+/**
+ * Draws integers in [0, n) where the k-th most popular value is picked with probability proportional to
+ * 1 / k^theta (Gray et al., "Quickly Generating Billion-Record Synthetic Databases"). Ranks are spread over
+ * the range by a fixed bijection (a stride of about 0.618 n, coprime with n), so the popular values are
+ * neither the smallest ones nor next to each other.
+ */
+public class ZipfianGenerator {
+
+    private final long n;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final long spread;
+
+    public ZipfianGenerator(long n, double theta) {
+        if (n < 1 || theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Need n >= 1 and 0 < theta < 1");
+        }
+        this.n = n;
+        this.theta = theta;
+        this.alpha = 1 / (1 - theta);
+        this.zetaN = zeta(n, theta);
+        this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        long stride = Math.max(1, (long) (n * 0.6180339887));
+        while (gcd(stride, n) != 1) {
+            stride--;
+        }
+        this.spread = stride;
+    }
+
+    /**
+     * @return the popularity rank drawn, 0 being the most popular
+     */
+    public long nextRank(Random random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < 1 + Math.pow(0.5, theta)) {
+            return Math.min(1, n - 1);
+        }
+        return Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    public long next(Random random) {
+        return Math.floorMod(nextRank(random) * spread, n);
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
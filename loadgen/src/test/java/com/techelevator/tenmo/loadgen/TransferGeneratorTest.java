@@ -0,0 +1,56 @@
+package com.techelevator.tenmo.loadgen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TransferGeneratorTest {
+
+    @Test
+    public void zipfian_draws_are_in_range_and_skewed() {
+        ZipfianGenerator zipf = new ZipfianGenerator(1000, 0.99);
+        Random random = new Random(7);
+        int[] hits = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            hits[(int) zipf.next(random)]++;
+        }
+        int hottest = 0;
+        for (int hit : hits) {
+            hottest = Math.max(hottest, hit);
+        }
+        // uniform would give about 100 per value
+        Assert.assertTrue("expected a hot value, got " + hottest, hottest > 5_000);
+        Assert.assertTrue(zipf.nextRank(new Random(7)) < 1000);
+    }
+
+    @Test
+    public void generated_transfers_are_valid_and_balances_add_up() {
+        AtomicLongArray deltas = new AtomicLongArray(50);
+        LocalDateTime end = LocalDateTime.of(2026, 10, 19, 12, 0);
+        TransferGenerator generator = new TransferGenerator(50, new ZipfianGenerator(50, 0.9), end, 30, deltas);
+        TransferGenerator.Partition partition = generator.new Partition(42);
+        TransferGenerator.Row row = new TransferGenerator.Row();
+        int requests = 0;
+        for (int i = 0; i < 10_000; i++) {
+            partition.next(row);
+            Assert.assertNotEquals(row.from, row.to);
+            Assert.assertTrue(row.amountCents > 0);
+            if (row.type == TransferGenerator.TYPE_REQUEST) {
+                requests++;
+                Assert.assertEquals(row.status == TransferGenerator.STATUS_PENDING, row.resolvedMillis == 0);
+            } else {
+                Assert.assertEquals(TransferGenerator.STATUS_APPROVED, row.status);
+            }
+        }
+        Assert.assertTrue("expected some request bursts", requests > 500);
+
+        long total = 0;
+        for (int i = 0; i < deltas.length(); i++) {
+            total += deltas.get(i);
+        }
+        Assert.assertEquals("money is only moved, never created", 0, total);
+    }
+}
@@ -0,0 +1,42 @@
+#!/bin/bash
+# Builds target/cds: the server unpacked onto a plain class path (class-data sharing cannot archive classes
+# out of the nested jars of the Spring Boot jar) plus a class-data-sharing archive of the classes a prod
+# startup and its first requests load. Arguments are passed to the training run, e.g. datasource settings:
+#   ./cds.sh --spring.datasource.username=postgres --spring.datasource.password=...
+# then start the server with target/cds/run.sh [arguments].
+set -e
+BASEDIR=$(cd "$(dirname "$0")" && pwd)
+CDS=$BASEDIR/target/cds
+MAIN=com.techelevator.tenmo.TenmoApplication
+PORT=8080
+
+cd "$BASEDIR"
+mvn -B -q package -DskipTests
+rm -rf "$CDS" && mkdir -p "$CDS/unpacked"
+(cd "$CDS/unpacked" && jar xf "$BASEDIR"/target/m02-capstone-server-*.jar)
+jar cf "$CDS/app.jar" -C "$CDS/unpacked/BOOT-INF/classes" .
+CLASSPATH=$CDS/app.jar$(printf ":%s" "$CDS"/unpacked/BOOT-INF/lib/*.jar)
+echo "$CLASSPATH" > "$CDS/classpath"
+
+# training run: record every class loaded while starting and serving a login
+java -Xshare:off -XX:DumpLoadedClassList="$CDS/classes.lst" -cp "$CLASSPATH" $MAIN --spring.profiles.active=prod \
+    --server.port=$PORT "$@" > "$CDS/training.log" 2>&1 &
+PID=$!
+for i in $(seq 1 120); do
+    if curl -s -o /dev/null -XPOST "localhost:$PORT/login" -H 'Content-Type: application/json' \
+            -d '{"username":"cds-training","password":"x"}'; then
+        break
+    fi
+    sleep 0.5
+done
+kill $PID && wait $PID || true
+
+java -Xshare:dump -XX:SharedClassListFile="$CDS/classes.lst" -XX:SharedArchiveFile="$CDS/tenmo.jsa" \
+    -cp "$CLASSPATH" > "$CDS/dump.log" 2>&1
+
+cat > "$CDS/run.sh" <<RUN
+#!/bin/bash
+exec java -XX:SharedArchiveFile="$CDS/tenmo.jsa" -cp "$CLASSPATH" $MAIN --spring.profiles.active=prod "\$@"
+RUN
+chmod +x "$CDS/run.sh"
+echo "Archived $(wc -l < "$CDS/classes.lst") classes into $CDS/tenmo.jsa; start with $CDS/run.sh"
@@ -3,14 +3,17 @@ package com.techelevator.tenmo.controller;
 import com.techelevator.tenmo.dao.AccountDao;
 import com.techelevator.tenmo.dao.UserDao;
 import com.techelevator.tenmo.model.User;
+import com.techelevator.tenmo.security.TenmoPrincipal;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -21,21 +24,25 @@ public class AccountController {
     @Autowired
     private UserDao userDao;
     private AccountDao accountDao;
+    private ResourceVersions resourceVersions;
 
-    public AccountController(AccountDao accountDao){
+    public AccountController(AccountDao accountDao, ResourceVersions resourceVersions){
         this.accountDao = accountDao;
+        this.resourceVersions = resourceVersions;
     }
 
     @ApiOperation("Retrieves balance for current user")
     @RequestMapping(path = "/balance", method = RequestMethod.GET)
-    public BigDecimal getBalance(@ApiParam("user ID") Principal principal){
-        int userId = userDao.findIdByUsername(principal.getName());
-        return accountDao.getBalance(userId);
+    public BigDecimal getBalance(@ApiIgnore @AuthenticationPrincipal TenmoPrincipal principal){
+        return accountDao.getBalance(principal.getUserId());
     }
 
-    @ApiOperation("Retrieves list of all TEnmo users")
+    @ApiOperation("Retrieves list of all TEnmo users; answers 304 when the If-None-Match tag is current")
     @RequestMapping(path = "/users", method = RequestMethod.GET)
-    public List<User> findAll(){
+    public List<User> findAll(WebRequest request){
+        if (request.checkNotModified(resourceVersions.usersTag(request))) {
+            return null;
+        }
         return userDao.findAll();
     }
 
@@ -0,0 +1,43 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.model.RateLimitStatsDTO;
+import com.techelevator.tenmo.model.SlowQueryDTO;
+import com.techelevator.tenmo.security.ratelimit.RateLimiter;
+import com.techelevator.tenmo.slowquery.SlowQueryLog;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@PreAuthorize("hasRole('ADMIN')")
+@RequestMapping(path = "/admin")
+public class AdminController {
+
+    private RateLimiter rateLimiter;
+    private SlowQueryLog slowQueryLog;
+
+    public AdminController(RateLimiter rateLimiter, SlowQueryLog slowQueryLog){
+        this.rateLimiter = rateLimiter;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ApiOperation("Retrieves allowed and throttled request counts per rate-limited route")
+    @GetMapping(path = "/rate-limits")
+    public RateLimitStatsDTO getRateLimitStats(){
+        return rateLimiter.getStats();
+    }
+
+    @ApiOperation("Retrieves the DAO statements that ran over the slow-query threshold, grouped by normalized SQL, " +
+            "most total time first, with their captured EXPLAIN plans")
+    @GetMapping(path = "/slow-queries")
+    public List<SlowQueryDTO> getSlowQueries(@ApiParam("how many statements to return")
+                                             @RequestParam(defaultValue = "20") int limit){
+        return slowQueryLog.getSlowQueries(limit);
+    }
+}
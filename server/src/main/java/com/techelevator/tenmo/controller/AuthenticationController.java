@@ -19,6 +19,7 @@ import com.techelevator.tenmo.dao.UserDao;
 import com.techelevator.tenmo.model.LoginDTO;
 import com.techelevator.tenmo.model.RegisterUserDTO;
 import com.techelevator.tenmo.model.User;
+import com.techelevator.tenmo.security.AdminUsernames;
 import com.techelevator.tenmo.security.jwt.TokenProvider;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -31,11 +32,16 @@ public class AuthenticationController {
     private final TokenProvider tokenProvider;
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
     private UserDao userDao;
+    private ResourceVersions resourceVersions;
+    private AdminUsernames adminUsernames;
 
-    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder, UserDao userDao) {
+    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder,
+                                    UserDao userDao, ResourceVersions resourceVersions, AdminUsernames adminUsernames) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userDao = userDao;
+        this.resourceVersions = resourceVersions;
+        this.adminUsernames = adminUsernames;
     }
 
     @ApiOperation("Authenticates the user with the given username and password")
@@ -58,9 +64,14 @@ public class AuthenticationController {
     @ResponseStatus(HttpStatus.CREATED)
     @RequestMapping(value = "/register", method = RequestMethod.POST)
     public void register(@Valid @RequestBody @ApiParam("Registration info") RegisterUserDTO newUser) {
+        // otherwise anyone could claim a listed admin name that has not been registered yet
+        if (adminUsernames.isAdmin(newUser.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Username is reserved.");
+        }
         if (!userDao.create(newUser.getUsername(), newUser.getPassword())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User registration failed.");
         }
+        resourceVersions.usersChanged();
     }
 
     /**
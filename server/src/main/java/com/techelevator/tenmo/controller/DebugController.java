@@ -0,0 +1,36 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.tracing.Trace;
+import com.techelevator.tenmo.tracing.TraceCollector;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@PreAuthorize("hasRole('ADMIN')")
+@RequestMapping(path = "/debug")
+@ConditionalOnProperty(name = "tenmo.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class DebugController {
+
+    private TraceCollector traceCollector;
+
+    public DebugController(TraceCollector traceCollector){
+        this.traceCollector = traceCollector;
+    }
+
+    @ApiOperation("Retrieves the most recent kept request traces (slow, failed or sampled), newest first, " +
+            "with a span per filter, controller, DAO call and SQL statement")
+    @GetMapping(path = "/traces")
+    public List<Trace> getTraces(@ApiParam("only traces that took at least this long")
+                                 @RequestParam(defaultValue = "0") long minMillis,
+                                 @RequestParam(defaultValue = "50") int limit){
+        return traceCollector.getTraces(minMillis, limit);
+    }
+}
@@ -0,0 +1,50 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.events.TransferEventLog;
+import com.techelevator.tenmo.model.EventBatchDTO;
+import com.techelevator.tenmo.model.TransferEvent;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@PreAuthorize("hasRole('ADMIN')")
+@RequestMapping(path = "/events")
+@ConditionalOnProperty(name = "tenmo.events.enabled", havingValue = "true", matchIfMissing = true)
+public class EventController {
+
+    private static final int MAX_EVENTS = 5000;
+    private static final long MAX_WAIT_MILLIS = 30000;
+
+    private TransferEventLog eventLog;
+
+    public EventController(TransferEventLog eventLog){
+        this.eventLog = eventLog;
+    }
+
+    @ApiOperation("Reads transfer events from a log offset; waits up to waitMillis for new events when the " +
+            "consumer has caught up. Continue from the returned next offset")
+    @GetMapping
+    public EventBatchDTO readEvents(@ApiParam("first log offset to read") @RequestParam(defaultValue = "0") long from,
+                                    @ApiParam("most events to return") @RequestParam(defaultValue = "500") int limit,
+                                    @ApiParam("how long to wait for new events") @RequestParam(defaultValue = "0") long waitMillis){
+        if (from < 0 || limit < 1 || limit > MAX_EVENTS || waitMillis < 0 || waitMillis > MAX_WAIT_MILLIS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be at least 0, limit between 1 and "
+                    + MAX_EVENTS + " and waitMillis at most " + MAX_WAIT_MILLIS + ".");
+        }
+        if (waitMillis > 0) {
+            eventLog.awaitEnd(from, waitMillis);
+        }
+        List<TransferEvent> events = eventLog.read(from, limit);
+        return new EventBatchDTO(from, from + events.size(), eventLog.endOffset(), events);
+    }
+}
@@ -0,0 +1,107 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.model.ApprovalRatesDTO;
+import com.techelevator.tenmo.model.DailyVolumeDTO;
+import com.techelevator.tenmo.model.ReportDTO;
+import com.techelevator.tenmo.model.UserVolumeDTO;
+import com.techelevator.tenmo.reporting.ReportQueries;
+import com.techelevator.tenmo.reporting.ReportingSnapshot;
+import com.techelevator.tenmo.reporting.ReportingSnapshotLoader;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
+@PreAuthorize("hasRole('ADMIN')")
+@RequestMapping(path = "/reports")
+public class ReportController {
+
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_TOP_USERS = 1000;
+
+    private ReportingSnapshotLoader snapshotLoader;
+    private ReportQueries reportQueries;
+
+    public ReportController(ReportingSnapshotLoader snapshotLoader, ReportQueries reportQueries){
+        this.snapshotLoader = snapshotLoader;
+        this.reportQueries = reportQueries;
+    }
+
+    @ApiOperation("Retrieves the number and total of completed transfers per day, from the reporting snapshot")
+    @GetMapping(path = "/daily-volume")
+    public ReportDTO<List<DailyVolumeDTO>> getDailyVolume(
+            @ApiParam("first day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam("last day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        checkRange(from, to);
+        ReportingSnapshot snapshot = snapshot();
+        return new ReportDTO<>(snapshot.getAsOf(), reportQueries.dailyVolume(snapshot, from, to));
+    }
+
+    @ApiOperation("Retrieves the users who paid the most in completed transfers, from the reporting snapshot")
+    @GetMapping(path = "/top-senders")
+    public ReportDTO<List<UserVolumeDTO>> getTopSenders(
+            @ApiParam("first day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam("last day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @ApiParam("number of users") @RequestParam(defaultValue = "10") int limit){
+        checkRange(from, to);
+        checkLimit(limit);
+        ReportingSnapshot snapshot = snapshot();
+        return new ReportDTO<>(snapshot.getAsOf(), reportQueries.topSenders(snapshot, from, to, limit));
+    }
+
+    @ApiOperation("Retrieves the users who were paid the most in completed transfers, from the reporting snapshot")
+    @GetMapping(path = "/top-receivers")
+    public ReportDTO<List<UserVolumeDTO>> getTopReceivers(
+            @ApiParam("first day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam("last day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @ApiParam("number of users") @RequestParam(defaultValue = "10") int limit){
+        checkRange(from, to);
+        checkLimit(limit);
+        ReportingSnapshot snapshot = snapshot();
+        return new ReportDTO<>(snapshot.getAsOf(), reportQueries.topReceivers(snapshot, from, to, limit));
+    }
+
+    @ApiOperation("Retrieves how many requests were approved, rejected or are still pending, from the reporting snapshot")
+    @GetMapping(path = "/approval-rates")
+    public ReportDTO<ApprovalRatesDTO> getApprovalRates(
+            @ApiParam("first day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam("last day, yyyy-MM-dd") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        checkRange(from, to);
+        ReportingSnapshot snapshot = snapshot();
+        return new ReportDTO<>(snapshot.getAsOf(), reportQueries.approvalRates(snapshot, from, to));
+    }
+
+    private ReportingSnapshot snapshot() {
+        ReportingSnapshot snapshot = snapshotLoader.current();
+        if (snapshot.getAsOf() == 0) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reporting data is still loading.");
+        }
+        return snapshot;
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to, and the range at most "
+                    + MAX_DAYS + " days.");
+        }
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_TOP_USERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_TOP_USERS + ".");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.dao.TransferVersions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions behind the ETags of the list endpoints: an account's transfer history and pending requests, and
+ * the user list. Transfer versions come from {@link TransferVersions}, which the transfer DAOs bump for both
+ * accounts of every change once it has committed; the user list has a counter here that registration bumps.
+ * A GET whose If-None-Match carries the current tag gets 304 without touching the database.
+ *
+ * Each tag names its resource and, for history, the since value, because those return different bodies
+ * from the same version. The tag is read before the list is queried, so a write that lands in between makes
+ * the tag older than the body and the next call simply downloads again. Counters live in this process; the
+ * startup epoch in every tag keeps tags from an earlier run from matching after a restart.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong usersVersion = new AtomicLong();
+    private final TransferVersions transferVersions;
+
+    public ResourceVersions(TransferVersions transferVersions) {
+        this.transferVersions = transferVersions;
+    }
+
+    public String historyTag(int accountId, int since, WebRequest request) {
+        return tag("h" + transferVersions.version(accountId) + "." + since, request);
+    }
+
+    public String pendingTag(int accountId, WebRequest request) {
+        return tag("p" + transferVersions.version(accountId), request);
+    }
+
+    public String usersTag(WebRequest request) {
+        return tag("u" + usersVersion.get(), request);
+    }
+
+    public void usersChanged() {
+        usersVersion.incrementAndGet();
+    }
+
+    // weak, because Tomcat only compresses responses without a strong ETag; the format is part of the tag
+    // since JSON and Smile bodies of the same list differ
+    private String tag(String version, WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String format = accept != null && accept.contains("smile") ? "s" : "j";
+        return "W/\"" + epoch + "-" + version + format + "\"";
+    }
+}
@@ -0,0 +1,28 @@
+package com.techelevator.tenmo.controller;
+
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+/**
+ * Puts the reason of a {@link ResponseStatusException} in the error body's message, so a client learns why its
+ * request was refused (insufficient funds, sending to yourself). Messages of any other exception stay out of
+ * the body, as server.error.include-message leaves them, since those can carry SQL or internal state.
+ */
+@Component
+public class StatusReasonErrorAttributes extends DefaultErrorAttributes {
+
+    @Override
+    public Map<String, Object> getErrorAttributes(WebRequest webRequest, ErrorAttributeOptions options) {
+        Map<String, Object> attributes = super.getErrorAttributes(webRequest, options);
+        Throwable error = getError(webRequest);
+        if (error instanceof ResponseStatusException && ((ResponseStatusException) error).getReason() != null) {
+            attributes.put("message", ((ResponseStatusException) error).getReason());
+        }
+        return attributes;
+    }
+}
@@ -1,18 +1,25 @@
 package com.techelevator.tenmo.controller;
 
 import com.techelevator.tenmo.dao.TransferDao;
-import com.techelevator.tenmo.dao.UserDao;
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
 import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import com.techelevator.tenmo.security.TenmoPrincipal;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import springfox.documentation.annotations.ApiIgnore;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -20,24 +27,43 @@ import java.util.List;
 @RequestMapping(path = "/transfer")
 public class TransferController {
 
-    @Autowired
-    private UserDao userDao;
+    private static final int TRANSFER_STATUS_ID_APPROVED = 2;
+    private static final int TRANSFER_STATUS_ID_REJECTED = 3;
+    private static final int MAX_BULK_DECISIONS = 1000;
+
     private TransferDao transferDao;
+    private ResourceVersions resourceVersions;
 
-    public TransferController(TransferDao transferDao){
+    public TransferController(TransferDao transferDao, ResourceVersions resourceVersions){
         this.transferDao = transferDao;
+        this.resourceVersions = resourceVersions;
     }
 
-    @ApiOperation("Send transfer between users")
+    @ApiOperation("Send transfer between users; answers 409 when the balance does not cover it")
     @PostMapping(path = "/send")
     public void sendTransfer(@ApiParam("Transfer object") @Valid @RequestBody Transfer transfer){
-         transferDao.sendTransfer(transfer);
+        if (transfer.getAccountFrom() == transfer.getAccountTo()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot send money to yourself.");
+        }
+        WithdrawalOutcome outcome = transferDao.sendTransfer(transfer);
+        if (outcome == WithdrawalOutcome.INSUFFICIENT_FUNDS) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient funds.");
+        }
+        if (outcome != WithdrawalOutcome.WITHDRAWN) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sender or recipient.");
+        }
     }
 
-    @ApiOperation("Retrieves transfer history for current user")
+    @ApiOperation("Retrieves transfer history for current user, optionally only transfers newer than a given ID; " +
+            "answers 304 when the If-None-Match tag is current")
     @GetMapping(path = "/history")
-    public List<Transfer> viewTransfers(@ApiParam("username") Principal principal){
-       return transferDao.viewTransfers(principal.getName());
+    public List<Transfer> viewTransfers(@ApiIgnore @AuthenticationPrincipal TenmoPrincipal principal,
+                                       @ApiParam("last transfer ID already held by the caller")
+                                       @RequestParam(defaultValue = "0") int since, WebRequest request){
+       if (request.checkNotModified(resourceVersions.historyTag(principal.getAccountId(), since, request))) {
+           return null;
+       }
+       return transferDao.viewTransfers(principal.getAccountId(), since);
     }
 
     @ApiOperation("Retrieves transfer details by transfer ID")
@@ -49,19 +75,47 @@ public class TransferController {
     @ApiOperation("Creates transfer request")
     @PostMapping(path = "/request")
     public void requestTransfer(@ApiParam("Transfer object") @Valid @RequestBody Transfer transfer){
+        if (transfer.getAccountFrom() == transfer.getAccountTo()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot request money from yourself.");
+        }
         transferDao.requestTransfer(transfer);
     }
 
-    @ApiOperation("Retrieves pending transfer requests")
+    @ApiOperation("Retrieves pending transfer requests; answers 304 when the If-None-Match tag is current")
     @GetMapping(path = "/pending")
-    public List<Transfer> viewPendingRequests(@ApiParam("username") Principal principal){
-        return transferDao.viewPendingRequests(principal.getName());
+    public List<Transfer> viewPendingRequests(@ApiIgnore @AuthenticationPrincipal TenmoPrincipal principal, WebRequest request){
+        if (request.checkNotModified(resourceVersions.pendingTag(principal.getAccountId(), request))) {
+            return null;
+        }
+        return transferDao.viewPendingRequests(principal.getAccountId());
     }
 
-    @ApiOperation("Updates pending transfer when user accepts or rejects")
+    @ApiOperation("Approves (status 2) or rejects (status 3) a pending request and reports the outcome")
     @PutMapping(path = "/update")
-    public void updatePendingTransfer(@ApiParam("Transfer object") @Valid @RequestBody Transfer transfer){
-        transferDao.updatePendingTransfer(transfer);
+    public ApprovalOutcome updatePendingTransfer(@ApiIgnore @AuthenticationPrincipal TenmoPrincipal principal,
+                                                 @ApiParam("Transfer object") @Valid @RequestBody Transfer transfer){
+        if (transfer.getTransferStatusId() != TRANSFER_STATUS_ID_APPROVED
+                && transfer.getTransferStatusId() != TRANSFER_STATUS_ID_REJECTED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transfer status must be Approved or Rejected.");
+        }
+        return transferDao.updatePendingTransfer(principal.getAccountId(), transfer);
+    }
+
+    @ApiOperation("Approves or rejects many of the current user's pending requests in one transaction and reports the outcome of each")
+    @PutMapping(path = "/pending/bulk")
+    public List<PendingDecisionResultDTO> updatePendingTransfers(@ApiIgnore @AuthenticationPrincipal TenmoPrincipal principal,
+                                                                 @ApiParam("transfer IDs and decisions")
+                                                                 @Valid @RequestBody List<PendingDecisionDTO> decisions){
+        if (decisions.size() > MAX_BULK_DECISIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BULK_DECISIONS + " decisions per call.");
+        }
+        for (PendingDecisionDTO decision : decisions) {
+            if (decision.getTransferStatusId() != TRANSFER_STATUS_ID_APPROVED
+                    && decision.getTransferStatusId() != TRANSFER_STATUS_ID_REJECTED) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transfer status must be Approved or Rejected.");
+            }
+        }
+        return transferDao.updatePendingTransfers(principal.getAccountId(), decisions);
     }
 
 }
@@ -1,6 +1,7 @@
 package com.techelevator.tenmo.dao;
 
 import com.techelevator.tenmo.model.Account;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
 
 import java.math.BigDecimal;
 
@@ -12,6 +13,12 @@ public interface AccountDao {
 
     public boolean withdrawalBucks(int accountFrom, BigDecimal amount);
 
+    /**
+     * Takes the amount out of the user's account if, and only if, the balance covers it at the moment of the
+     * debit, so concurrent withdrawals can never overdraw it.
+     */
+    public WithdrawalOutcome withdraw(int accountFrom, BigDecimal amount);
+
     public boolean depositBucks(int accountTo, BigDecimal amount);
 
     public int getAccountIdByUserId(int userId);
@@ -0,0 +1,142 @@
+package com.techelevator.tenmo.dao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Read-through cache of account balances keyed by user ID. Every code path that changes a balance calls
+ * {@link #changed(int)}, which drops the entry once the change is visible: straight away outside a
+ * transaction, when the transaction completes inside one.
+ *
+ * Each user has a version stamp that is bumped on every invalidation. A read remembers the stamp before it
+ * queries the database and only stores its result if the stamp is unchanged afterwards, so a slow read that
+ * saw the old balance can never overwrite a newer invalidation.
+ *
+ * With tenmo.balance-cache.notify=true the invalidations are also published with Postgres NOTIFY on the
+ * writing transaction, and {@link BalanceChangeListener} applies the ones from other nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
+public class BalanceCache {
+
+    public static final String CHANNEL = "tenmo_balance";
+
+    private static final String SQL_NOTIFY = "SELECT pg_notify('" + CHANNEL + "', ?)";
+
+    /**
+     * A cache that holds nothing, for DAOs built outside Spring.
+     */
+    public static final BalanceCache NONE = new BalanceCache(null, false, false);
+
+    private final ConcurrentHashMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Entry> balances = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceChangeListener listener;
+
+    public BalanceCache(DataSource dataSource,
+                        @Value("${tenmo.balance-cache.enabled:true}") boolean enabled,
+                        @Value("${tenmo.balance-cache.notify:false}") boolean notify) {
+        this.enabled = enabled;
+        boolean crossNode = enabled && notify && dataSource != null;
+        this.jdbcTemplate = crossNode ? new JdbcTemplate(dataSource) : null;
+        this.listener = crossNode ? new BalanceChangeListener(dataSource, this) : null;
+    }
+
+    /**
+     * Returns the cached balance, or loads it with {@code loader} and caches it.
+     */
+    public BigDecimal get(int userId, IntFunction<BigDecimal> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        long version = version(userId).get();
+        Entry entry = balances.get(userId);
+        if (entry != null && entry.version == version) {
+            return entry.balance;
+        }
+        BigDecimal balance = loader.apply(userId);
+        Entry loaded = new Entry(version, balance);
+        balances.compute(userId, (id, current) -> {
+            if (version(id).get() != version) {
+                return current;
+            }
+            return current != null && current.version > version ? current : loaded;
+        });
+        return balance;
+    }
+
+    /**
+     * Records that the user's balance has been (or is about to be) changed by the current transaction.
+     */
+    public void changed(int userId) {
+        if (!enabled) {
+            return;
+        }
+        if (jdbcTemplate != null) {
+            // NOTIFY is only delivered if the writing transaction commits
+            jdbcTemplate.query(SQL_NOTIFY, rs -> null, Integer.toString(userId));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userId);
+                }
+            });
+        } else {
+            invalidate(userId);
+        }
+    }
+
+    public void invalidate(int userId) {
+        version(userId).incrementAndGet();
+        balances.remove(userId);
+    }
+
+    /**
+     * Drops every entry, for when invalidations may have been missed.
+     */
+    public void invalidateAll() {
+        for (AtomicLong version : versions.values()) {
+            version.incrementAndGet();
+        }
+        balances.clear();
+    }
+
+    public int size() {
+        return balances.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (listener != null) {
+            listener.close();
+        }
+    }
+
+    private AtomicLong version(int userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private static class Entry {
+        final long version;
+        final BigDecimal balance;
+
+        Entry(long version, BigDecimal balance) {
+            this.version = version;
+            this.balance = balance;
+        }
+    }
+}
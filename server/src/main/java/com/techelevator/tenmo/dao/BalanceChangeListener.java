@@ -0,0 +1,81 @@
+package com.techelevator.tenmo.dao;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens on the {@link BalanceCache#CHANNEL} Postgres channel and drops the balances other nodes report
+ * as changed. Holds one connection from the pool for as long as it runs. If the connection is lost,
+ * notifications may have been missed, so the whole cache is cleared before listening again.
+ */
+class BalanceChangeListener implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BalanceChangeListener.class);
+    private static final int POLL_MILLIS = 500;
+    private static final long RETRY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final DataSource dataSource;
+    private final BalanceCache cache;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    BalanceChangeListener(DataSource dataSource, BalanceCache cache) {
+        this.dataSource = dataSource;
+        this.cache = cache;
+        this.thread = new Thread(this, "balance-change-listener");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + BalanceCache.CHANNEL);
+                }
+                cache.invalidateAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            cache.invalidate(Integer.parseInt(notification.getParameter()));
+                        } catch (NumberFormatException e) {
+                            LOG.warn("Ignoring balance notification '{}'", notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.warn("Balance change listener lost its connection, retrying: {}", e.getMessage());
+                sleep();
+            }
+        }
+    }
+
+    void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AccountDao for deployments where a few accounts receive most of the transfers. Deposits are routed by
+ * user ID to one of a fixed set of single-threaded stripes, so every account has exactly one writer.
+ * A stripe collects the deposits that arrive within a short flush window, adds up the amounts per
+ * account and applies them as one UPDATE per account in a single JDBC batch; each caller waits for the
+ * batch that carried its deposit, so {@link #depositBucks} still only returns once the credit is stored, and
+ * gives up with a {@link QueryTimeoutException} after deposit-timeout-millis rather than hang on a stuck stripe.
+ * A deposit made inside a transaction is not coalesced: a stripe commits on its own connection, so it goes to
+ * {@link JdbcAccountDao} on the caller's connection instead and commits or rolls back with the rest of it.
+ * Everything else goes straight to {@link JdbcAccountDao}.
+ *
+ * Enabled with tenmo.account.coalescing.enabled=true, for the JDBC storage engine.
+ */
+@Primary
+@Component
+@ConditionalOnExpression("${tenmo.account.coalescing.enabled:false} and '${tenmo.storage:jdbc}' == 'jdbc'")
+public class CoalescingAccountDao implements AccountDao {
+
+    public static final long DEFAULT_DEPOSIT_TIMEOUT_MILLIS = 5000;
+
+    private static final String SQL_DEPOSIT = "UPDATE account SET balance = balance + ? WHERE user_id = ?";
+
+    private final AccountDao delegate;
+    private final JdbcBatchExecutor batchExecutor;
+    private final BalanceCache balanceCache;
+    private final long flushWindowMicros;
+    private final long depositTimeoutMillis;
+    private final Stripe[] stripes;
+
+    @Autowired
+    public CoalescingAccountDao(JdbcAccountDao delegate, DataSource dataSource, BalanceCache balanceCache,
+                                @Value("${tenmo.account.coalescing.stripes:8}") int stripes,
+                                @Value("${tenmo.account.coalescing.flush-window-micros:500}") long flushWindowMicros,
+                                @Value("${tenmo.account.coalescing.deposit-timeout-millis:5000}") long depositTimeoutMillis) {
+        this(delegate, new JdbcBatchExecutor(dataSource), balanceCache, stripes, flushWindowMicros, depositTimeoutMillis);
+    }
+
+    public CoalescingAccountDao(AccountDao delegate, JdbcBatchExecutor batchExecutor, int stripes, long flushWindowMicros) {
+        this(delegate, batchExecutor, BalanceCache.NONE, stripes, flushWindowMicros);
+    }
+
+    public CoalescingAccountDao(AccountDao delegate, JdbcBatchExecutor batchExecutor, BalanceCache balanceCache,
+                                int stripes, long flushWindowMicros) {
+        this(delegate, batchExecutor, balanceCache, stripes, flushWindowMicros, DEFAULT_DEPOSIT_TIMEOUT_MILLIS);
+    }
+
+    public CoalescingAccountDao(AccountDao delegate, JdbcBatchExecutor batchExecutor, BalanceCache balanceCache,
+                                int stripes, long flushWindowMicros, long depositTimeoutMillis) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("tenmo.account.coalescing.stripes must be at least 1, was " + stripes);
+        }
+        if (flushWindowMicros < 0) {
+            throw new IllegalArgumentException("tenmo.account.coalescing.flush-window-micros must not be negative, was "
+                    + flushWindowMicros);
+        }
+        if (depositTimeoutMillis < 1) {
+            throw new IllegalArgumentException("tenmo.account.coalescing.deposit-timeout-millis must be at least 1, was "
+                    + depositTimeoutMillis);
+        }
+        this.delegate = delegate;
+        this.batchExecutor = batchExecutor;
+        this.balanceCache = balanceCache;
+        this.flushWindowMicros = flushWindowMicros;
+        this.depositTimeoutMillis = depositTimeoutMillis;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(i);
+        }
+    }
+
+    @Override
+    public BigDecimal getBalance(int userId) {
+        return delegate.getBalance(userId);
+    }
+
+    @Override
+    public BigDecimal getBalanceByAccountId(int accountId) {
+        return delegate.getBalanceByAccountId(accountId);
+    }
+
+    @Override
+    public boolean withdrawalBucks(int accountFrom, BigDecimal amount) {
+        return delegate.withdrawalBucks(accountFrom, amount);
+    }
+
+    @Override
+    public WithdrawalOutcome withdraw(int accountFrom, BigDecimal amount) {
+        return delegate.withdraw(accountFrom, amount);
+    }
+
+    @Override
+    public boolean depositBucks(int accountTo, BigDecimal amount) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.depositBucks(accountTo, amount);
+        }
+        Deposit deposit = new Deposit(accountTo, amount);
+        stripes[Math.floorMod(accountTo, stripes.length)].submit(deposit);
+        try {
+            return deposit.result.get(depositTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // the stripe may still apply it; the caller only learns that it was not confirmed in time
+            throw new QueryTimeoutException("deposit to user " + accountTo + " not stored within "
+                    + depositTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("interrupted waiting for the deposit to user " + accountTo);
+        }
+    }
+
+    @Override
+    public int getAccountIdByUserId(int userId) {
+        return delegate.getAccountIdByUserId(userId);
+    }
+
+    @Override
+    public int getUserIdByAccountId(int account) {
+        return delegate.getUserIdByAccountId(account);
+    }
+
+    /**
+     * Writes out whatever is still queued and stops the stripe threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Stripe stripe : stripes) {
+            stripe.executor.shutdown();
+        }
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class Deposit {
+        final int userId;
+        final BigDecimal amount;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Deposit(int userId, BigDecimal amount) {
+            this.userId = userId;
+            this.amount = amount;
+        }
+    }
+
+    private class Stripe {
+        final ConcurrentLinkedQueue<Deposit> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean flushScheduled = new AtomicBoolean();
+        final ScheduledExecutorService executor;
+
+        Stripe(int index) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "account-deposits-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void submit(Deposit deposit) {
+            queue.add(deposit);
+            // the first deposit after a flush opens the next window; the rest ride along
+            if (flushScheduled.compareAndSet(false, true)) {
+                executor.schedule(this::flush, flushWindowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        void flush() {
+            flushScheduled.set(false);
+            List<Deposit> deposits = new ArrayList<>();
+            Deposit next;
+            while ((next = queue.poll()) != null) {
+                deposits.add(next);
+            }
+            if (deposits.isEmpty()) {
+                return;
+            }
+            Map<Integer, BigDecimal> totals = new LinkedHashMap<>();
+            for (Deposit deposit : deposits) {
+                totals.merge(deposit.userId, deposit.amount, BigDecimal::add);
+            }
+            List<Map.Entry<Integer, BigDecimal>> rows = new ArrayList<>(totals.entrySet());
+            try {
+                int[] counts = batchExecutor.execute(SQL_DEPOSIT, rows, (ps, row) -> {
+                    ps.setBigDecimal(1, row.getValue());
+                    ps.setInt(2, row.getKey());
+                });
+                Map<Integer, Boolean> applied = new HashMap<>();
+                for (int i = 0; i < counts.length; i++) {
+                    applied.put(rows.get(i).getKey(), counts[i] == 1 || counts[i] == Statement.SUCCESS_NO_INFO);
+                    balanceCache.changed(rows.get(i).getKey());
+                }
+                for (Deposit deposit : deposits) {
+                    deposit.result.complete(applied.get(deposit.userId));
+                }
+            } catch (RuntimeException e) {
+                for (Deposit deposit : deposits) {
+                    deposit.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.techelevator.tenmo.dao;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * Puts an interceptor around every call into an AccountDao, TransferDao or UserDao bean, for diagnostics that
+ * need to know which DAO method is running. Beans that already have a proxy (the transactional ones) get the
+ * interceptor added in front of their existing advice instead of a second proxy.
+ */
+public class DaoAdvisingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final ClassFilter DAOS = type -> AccountDao.class.isAssignableFrom(type)
+            || TransferDao.class.isAssignableFrom(type) || UserDao.class.isAssignableFrom(type);
+
+    public DaoAdvisingPostProcessor(MethodInterceptor interceptor) {
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(DAOS), interceptor);
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+}
@@ -0,0 +1,223 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TransferDao that commits concurrent sends together. A send is queued, and a single writer thread collects
+ * the sends that arrive within a short flush window (up to max-batch of them) and runs them in one
+ * transaction, so Postgres flushes its WAL once per batch instead of once per transfer. Each send runs
+ * between a savepoint and its release: one that throws is rolled back to its savepoint without touching the
+ * others, and once the batch has committed it is tried again on its own, so its caller sees exactly the
+ * result or exception it would have seen without batching. If the batch as a whole fails (a lost connection,
+ * a failed commit) nobody can tell what was stored, so every caller in it gets the exception rather than a
+ * retry that might apply their transfer twice. Callers wait for the commit that carried their send, so
+ * {@link #sendTransfer} still only returns once the transfer is stored.
+ *
+ * Everything, the sends included, goes through {@link JdbcTransferDao}, whose deposits never leave the batch's
+ * transaction because it always uses {@link JdbcAccountDao}.
+ *
+ * Enabled with tenmo.transfer.group-commit.enabled=true, for the JDBC storage engine.
+ */
+@Primary
+@Component
+@ConditionalOnExpression("${tenmo.transfer.group-commit.enabled:false} and '${tenmo.storage:jdbc}' == 'jdbc'")
+public class GroupCommitTransferDao implements TransferDao {
+
+    private final TransferDao delegate;
+    private final TransferDao sendDelegate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushWindowMicros;
+    private final int maxBatch;
+    private final ConcurrentLinkedQueue<Send> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transfer-group-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public GroupCommitTransferDao(JdbcTransferDao delegate, PlatformTransactionManager transactionManager,
+                                  @Value("${tenmo.transfer.group-commit.flush-window-micros:300}") long flushWindowMicros,
+                                  @Value("${tenmo.transfer.group-commit.max-batch:256}") int maxBatch) {
+        this(delegate, delegate, transactionManager, flushWindowMicros, maxBatch);
+    }
+
+    public GroupCommitTransferDao(TransferDao delegate, TransferDao sendDelegate,
+                                  PlatformTransactionManager transactionManager, long flushWindowMicros, int maxBatch) {
+        this.delegate = delegate;
+        this.sendDelegate = sendDelegate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushWindowMicros = flushWindowMicros;
+        this.maxBatch = maxBatch;
+    }
+
+    @Override
+    public WithdrawalOutcome sendTransfer(Transfer transfer) {
+        Send send = new Send(transfer);
+        queue.add(send);
+        // the first send after a flush opens the next window; the rest ride along
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, flushWindowMicros, TimeUnit.MICROSECONDS);
+        }
+        try {
+            return send.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(String username) {
+        return delegate.viewTransfers(username);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(String username, int sinceTransferId) {
+        return delegate.viewTransfers(username, sinceTransferId);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(int accountId, int sinceTransferId) {
+        return delegate.viewTransfers(accountId, sinceTransferId);
+    }
+
+    @Override
+    public String getUsernameByAccountId(int accountId) {
+        return delegate.getUsernameByAccountId(accountId);
+    }
+
+    @Override
+    public Transfer viewTransferDetails(int transferId) {
+        return delegate.viewTransferDetails(transferId);
+    }
+
+    @Override
+    public boolean requestTransfer(Transfer transfer) {
+        return delegate.requestTransfer(transfer);
+    }
+
+    @Override
+    public List<Transfer> viewPendingRequests(String username) {
+        return delegate.viewPendingRequests(username);
+    }
+
+    @Override
+    public List<Transfer> viewPendingRequests(int accountId) {
+        return delegate.viewPendingRequests(accountId);
+    }
+
+    @Override
+    public ApprovalOutcome updatePendingTransfer(int payerAccountId, Transfer transfer) {
+        return delegate.updatePendingTransfer(payerAccountId, transfer);
+    }
+
+    @Override
+    public List<PendingDecisionResultDTO> updatePendingTransfers(String username, List<PendingDecisionDTO> decisions) {
+        return delegate.updatePendingTransfers(username, decisions);
+    }
+
+    @Override
+    public List<PendingDecisionResultDTO> updatePendingTransfers(int accountId, List<PendingDecisionDTO> decisions) {
+        return delegate.updatePendingTransfers(accountId, decisions);
+    }
+
+    /**
+     * Writes out whatever is still queued and stops the writer thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Send> batch = new ArrayList<>();
+        Send next;
+        while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (!queue.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            // more than one batch was waiting; the rest is already late, so no new window
+            executor.execute(this::flush);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Send> retries = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Send send : batch) {
+                    Object savepoint = status.createSavepoint();
+                    try {
+                        send.stored = sendDelegate.sendTransfer(send.transfer);
+                        status.releaseSavepoint(savepoint);
+                    } catch (RuntimeException e) {
+                        status.rollbackToSavepoint(savepoint);
+                        send.failed = true;
+                    }
+                }
+            });
+            for (Send send : batch) {
+                if (send.failed) {
+                    retries.add(send);
+                } else {
+                    send.result.complete(send.stored);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (Send send : batch) {
+                send.result.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Send send : retries) {
+            try {
+                send.result.complete(sendDelegate.sendTransfer(send.transfer));
+            } catch (RuntimeException e) {
+                send.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Send {
+        final Transfer transfer;
+        final CompletableFuture<WithdrawalOutcome> result = new CompletableFuture<>();
+        WithdrawalOutcome stored;
+        boolean failed;
+
+        Send(Transfer transfer) {
+            this.transfer = transfer;
+        }
+    }
+}
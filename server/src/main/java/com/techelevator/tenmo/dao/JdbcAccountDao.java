@@ -1,78 +1,94 @@
 package com.techelevator.tenmo.dao;
 
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 
 @Component
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
 public class JdbcAccountDao implements AccountDao {
 
+    private static final String SQL_BALANCE_BY_USER_ID = "SELECT balance FROM account WHERE user_id = ?";
+    private static final String SQL_BALANCE_BY_ACCOUNT_ID = "SELECT balance FROM account WHERE account_id = ?";
+    // the balance check is part of the update, so two withdrawals can't both pass it and overdraw the account;
+    // CK_account_balance_not_negative backs it up for every other statement that moves money
+    private static final String SQL_WITHDRAWAL = "UPDATE account SET balance = balance - ? WHERE user_id = ? AND balance >= ?";
+    private static final String SQL_ACCOUNT_EXISTS = "SELECT EXISTS (SELECT 1 FROM account WHERE user_id = ?)";
+    private static final String SQL_DEPOSIT = "UPDATE account SET balance = balance + ? WHERE user_id = ?";
+    private static final String SQL_ACCOUNT_ID_BY_USER_ID = "SELECT account_id FROM account WHERE user_id = ?";
+    private static final String SQL_USER_ID_BY_ACCOUNT_ID = "SELECT user_id FROM account WHERE account_id = ?";
+
+    private static final ResultSetExtractor<BigDecimal> BALANCE =
+            rs -> rs.next() ? rs.getBigDecimal("balance") : new BigDecimal(0);
+    private static final ResultSetExtractor<Integer> ACCOUNT_ID =
+            rs -> rs.next() ? rs.getInt("account_id") : 0;
+    private static final ResultSetExtractor<Integer> USER_ID =
+            rs -> rs.next() ? rs.getInt("user_id") : 0;
 
     private JdbcTemplate jdbcTemplate;
+    private BalanceCache balanceCache;
 
     public JdbcAccountDao(DataSource dataSource) {
+        this(dataSource, BalanceCache.NONE);
+    }
+
+    @Autowired
+    public JdbcAccountDao(DataSource dataSource, BalanceCache balanceCache) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.balanceCache = balanceCache;
     }
 
     @Override
     public BigDecimal getBalance(int userId) {
-        BigDecimal balance = new BigDecimal(0);
-        String sql = "SELECT balance FROM account WHERE user_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql, userId);
-        if (rowSet.next()) {
-            balance = rowSet.getBigDecimal("balance");
-        }
-        return balance;
+        return balanceCache.get(userId, this::queryBalance);
     }
 
     @Override
     public BigDecimal getBalanceByAccountId(int accountId) {
-        BigDecimal balance = new BigDecimal(0);
-        String sql = "SELECT balance FROM account WHERE user_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql, accountId);
-        if (rowSet.next()) {
-            balance = rowSet.getBigDecimal("balance");
-        }
-        return balance;
+        // not cached: the cache is keyed by user ID, which is what every balance change invalidates
+        return jdbcTemplate.query(SQL_BALANCE_BY_ACCOUNT_ID, BALANCE, accountId);
     }
 
     @Override
     public boolean withdrawalBucks(int accountFrom, BigDecimal amount){
-        String sql = "UPDATE account SET balance = balance - ? WHERE user_id = ?";
-        if (getBalanceByAccountId(accountFrom).compareTo(amount) >= 0){
-            return jdbcTemplate.update(sql,amount,accountFrom) == 1;
+        return withdraw(accountFrom, amount) == WithdrawalOutcome.WITHDRAWN;
+    }
+
+    @Override
+    public WithdrawalOutcome withdraw(int accountFrom, BigDecimal amount) {
+        if (jdbcTemplate.update(SQL_WITHDRAWAL, amount, accountFrom, amount) == 1) {
+            balanceCache.changed(accountFrom);
+            return WithdrawalOutcome.WITHDRAWN;
         }
-        return false;
+        // only a refused withdrawal pays for a second round trip, to say why
+        return jdbcTemplate.queryForObject(SQL_ACCOUNT_EXISTS, Boolean.class, accountFrom)
+                ? WithdrawalOutcome.INSUFFICIENT_FUNDS : WithdrawalOutcome.NOT_FOUND;
     }
 
     @Override
     public boolean depositBucks(int accountTo, BigDecimal amount) {
-        String sql = "UPDATE account SET balance = balance + ? WHERE user_id = ?";
-        return jdbcTemplate.update(sql,amount,accountTo) == 1;
+        boolean deposited = jdbcTemplate.update(SQL_DEPOSIT, amount, accountTo) == 1;
+        balanceCache.changed(accountTo);
+        return deposited;
     }
 
     @Override
     public int getAccountIdByUserId(int userId) {
-        int accountId = 0;
-        String sql = "SELECT account_id FROM account WHERE user_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql,userId);
-        if (rowSet.next()) {
-            accountId = rowSet.getInt("account_id");
-        }
-        return accountId;
+        return jdbcTemplate.query(SQL_ACCOUNT_ID_BY_USER_ID, ACCOUNT_ID, userId);
     }
 
     @Override
     public int getUserIdByAccountId(int account) {
-        int accountId = 0;
-        String sql = "SELECT user_id FROM account WHERE account_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql,account);
-        if (rowSet.next()) {
-            accountId = rowSet.getInt("user_id");
-        }
-        return accountId;
+        return jdbcTemplate.query(SQL_USER_ID_BY_ACCOUNT_ID, USER_ID, account);
+    }
+
+    private BigDecimal queryBalance(int userId) {
+        return jdbcTemplate.query(SQL_BALANCE_BY_USER_ID, BALANCE, userId);
     }
 }
@@ -0,0 +1,58 @@
+package com.techelevator.tenmo.dao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Runs one parameterized statement for many rows using JDBC batches, so multi-row writes cost one
+ * prepared statement and a few round trips instead of one round trip per row.
+ */
+public class JdbcBatchExecutor {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public JdbcBatchExecutor(DataSource dataSource) {
+        this(new JdbcTemplate(dataSource), DEFAULT_BATCH_SIZE);
+    }
+
+    public JdbcBatchExecutor(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the update count for each row, in the order the rows were given
+     */
+    public <T> int[] execute(String sql, Collection<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        int[] counts = new int[rows.size()];
+        if (rows.isEmpty()) {
+            return counts;
+        }
+        int i = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(sql, rows, batchSize, setter)) {
+            for (int count : batch) {
+                counts[i++] = count;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the total number of rows affected, counting rows the driver reports as
+     * {@link Statement#SUCCESS_NO_INFO} as one
+     */
+    public <T> int executeAndCount(String sql, Collection<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        int total = 0;
+        for (int count : execute(sql, rows, setter)) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return total;
+    }
+}
@@ -1,20 +1,157 @@
 package com.techelevator.tenmo.dao;
 
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
 import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.TransferEventType;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Component
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
 public class JdbcTransferDao implements TransferDao {
 
+    // Every statement that changes a transfer also writes its event to the transfer_event outbox, so the
+    // event exists exactly when the change commits (see TransferEventRelay)
+    private static final String SQL_INSERT_TRANSFER = "WITH created AS (" +
+            "INSERT INTO transfer(account_from, account_to, amount, transfer_type_id, transfer_status_id) " +
+            "VALUES((SELECT account_id FROM account WHERE user_id = ?),(SELECT account_id FROM account WHERE user_id = ?),?,?,?) " +
+            "RETURNING transfer_id, account_from, account_to, amount" +
+            ") INSERT INTO transfer_event (transfer_id, event_type, account_from, account_to, amount) " +
+            "SELECT transfer_id, ?, account_from, account_to, amount FROM created " +
+            "RETURNING account_from, account_to";
+    // Claims the request only while it is still pending and the caller is its payer (the row lock makes a
+    // concurrent approval wait and then see it resolved), locks both accounts in ID order as the bulk path does
+    // (the debit waits for the lock count, so two approvals in opposite directions cannot deadlock), debits
+    // the payer only if the balance covers it, credits the requester only if the debit happened, and records
+    // Approved or Rejected accordingly - all in one statement.
+    private static final String SQL_RESOLVE_PENDING = "WITH pending AS (" +
+            "SELECT transfer_id, account_from, account_to, amount FROM transfer " +
+            "WHERE transfer_id = ? AND account_from = ? AND transfer_status_id = 1 FOR UPDATE" +
+            "), locked AS (" +
+            "SELECT account.account_id FROM account JOIN pending " +
+            "ON account.account_id IN (pending.account_from, pending.account_to) " +
+            "ORDER BY account.account_id FOR UPDATE OF account" +
+            "), debit AS (" +
+            "UPDATE account SET balance = account.balance - pending.amount FROM pending " +
+            "WHERE ? = 2 AND (SELECT count(*) FROM locked) > 0 " +
+            "AND account.account_id = pending.account_from AND account.balance >= pending.amount " +
+            "RETURNING pending.transfer_id, account.user_id" +
+            "), credit AS (" +
+            "UPDATE account SET balance = account.balance + pending.amount " +
+            "FROM pending JOIN debit ON debit.transfer_id = pending.transfer_id " +
+            "WHERE account.account_id = pending.account_to " +
+            "RETURNING account.user_id" +
+            "), resolved AS (" +
+            "UPDATE transfer SET transfer_status_id = CASE WHEN EXISTS (SELECT 1 FROM debit) THEN 2 ELSE 3 END, resolved_at = now() " +
+            "FROM pending WHERE transfer.transfer_id = pending.transfer_id " +
+            "RETURNING transfer.transfer_id" +
+            "), event AS (" +
+            "INSERT INTO transfer_event (transfer_id, event_type, account_from, account_to, amount) " +
+            "SELECT transfer_id, CASE WHEN EXISTS (SELECT 1 FROM debit) THEN 'APPROVED' ELSE 'REJECTED' END, " +
+            "account_from, account_to, amount FROM pending" +
+            ") SELECT EXISTS (SELECT 1 FROM transfer WHERE transfer_id = ? AND account_from = ?) AS found, " +
+            "EXISTS (SELECT 1 FROM resolved) AS resolved, " +
+            "EXISTS (SELECT 1 FROM debit) AS debited, " +
+            "(SELECT user_id FROM debit) AS payer_user_id, (SELECT user_id FROM credit) AS payee_user_id, " +
+            "(SELECT account_from FROM pending) AS account_from, (SELECT account_to FROM pending) AS account_to";
+    // Bulk approvals lock the caller's transfers, then every account involved, both in ID order
+    private static final String SQL_LOCK_PAYER_TRANSFERS = "SELECT transfer_id, transfer_type_id, transfer_status_id, " +
+            "account_from, account_to, amount FROM transfer " +
+            "WHERE transfer_id IN (:ids) AND account_from = :accountId ORDER BY transfer_id FOR UPDATE";
+    private static final String SQL_LOCK_ACCOUNTS = "SELECT account_id, user_id, balance FROM account " +
+            "WHERE account_id IN (:ids) ORDER BY account_id FOR UPDATE";
+    private static final String SQL_SET_STATUS = "UPDATE transfer SET transfer_status_id = ?, resolved_at = now() WHERE transfer_id = ?";
+    private static final String SQL_ADJUST_BALANCE = "UPDATE account SET balance = balance + ? WHERE account_id = ?";
+    private static final String SQL_INSERT_EVENT = "INSERT INTO transfer_event (transfer_id, event_type, account_from, account_to, amount) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_PENDING_REQUESTS = "SELECT transfer_id, username, amount FROM account " +
+            "JOIN transfer ON account.account_id = transfer.account_to " +
+            "JOIN tenmo_user ON account.user_id = tenmo_user.user_id " +
+            "WHERE transfer_status_id = ? AND account_from = ?";
+    private static final String SQL_HISTORY = "SELECT transfer_id, amount, t.transfer_type_id, d.username AS user_from, b.username AS user_to " +
+            "FROM transfer t " +
+            "JOIN account a ON a.account_id = t.account_to " +
+            "JOIN tenmo_user b ON a.user_id = b.user_id " +
+            "JOIN account c ON c.account_id = t.account_from " +
+            "JOIN tenmo_user d ON c.user_id = d.user_id " +
+            "WHERE (t.account_from = ? OR t.account_to = ?) " +
+            "AND transfer_id > ? " +
+            "ORDER BY transfer_id";
+    private static final String SQL_ACCOUNT_ID_BY_USERNAME = "SELECT account_id FROM account " +
+            "JOIN tenmo_user ON account.user_id = tenmo_user.user_id WHERE lower(username) = lower(?)";
+    private static final String SQL_USERNAME_BY_ACCOUNT_ID = "SELECT username FROM tenmo_user " +
+            "JOIN account ON tenmo_user.user_id = account.user_id WHERE account_id = ?";
+    private static final String SQL_TRANSFER_DETAILS = "SELECT transfer_id, transfer_type_desc, transfer_status_desc, account_from, account_to, amount " +
+            "FROM transfer JOIN transfer_type ON transfer_type.transfer_type_id = transfer.transfer_type_id " +
+            "JOIN transfer_status ON transfer_status.transfer_status_id = transfer.transfer_status_id WHERE transfer_id = ?";
+
+    private static final ResultSetExtractor<int[]> ACCOUNTS = rs -> rs.next()
+            ? new int[] {rs.getInt("account_from"), rs.getInt("account_to")} : null;
+
+    private static final ResultSetExtractor<String> USERNAME = rs -> rs.next() ? rs.getString("username") : null;
+
+    private static final RowMapper<Transfer> PENDING_REQUEST = (rs, rowNum) -> {
+        Transfer request = new Transfer();
+        request.setTransferId(rs.getInt("transfer_id"));
+        request.setUsername(rs.getString("username"));
+        request.setAmount(rs.getBigDecimal("amount"));
+        return request;
+    };
+
+    private static final RowMapper<Transfer> HISTORY_ENTRY = (rs, rowNum) -> {
+        Transfer transfer = new Transfer();
+        transfer.setTransferId(rs.getInt("transfer_id"));
+        transfer.setAmount(rs.getBigDecimal("amount"));
+        transfer.setTransferTypeId(rs.getInt("transfer_type_id"));
+        transfer.setAccountFromUsername(rs.getString("user_from"));
+        transfer.setAccountToUsername(rs.getString("user_to"));
+        return transfer;
+    };
+
+    private static final RowMapper<Transfer> TRANSFER_DETAILS = (rs, rowNum) -> {
+        Transfer transfer = new Transfer();
+        transfer.setTransferId(rs.getInt("transfer_id"));
+        transfer.setTransferTypeDesc(rs.getString("transfer_type_desc"));
+        transfer.setTransferStatusDesc(rs.getString("transfer_status_desc"));
+        transfer.setAccountFrom(rs.getInt("account_from"));
+        transfer.setAccountTo(rs.getInt("account_to"));
+        transfer.setAmount(rs.getBigDecimal("amount"));
+        return transfer;
+    };
+
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private JdbcBatchExecutor batchExecutor;
     private AccountDao accountDao;
+    private BalanceCache balanceCache;
+    private TransferVersions transferVersions;
     private final int TRANSFER_TYPE_ID_SEND = 2;
     private final int TRANSFER_STATUS_ID_APPROVED = 2;
 
@@ -24,146 +161,277 @@ public class JdbcTransferDao implements TransferDao {
 
 
     public JdbcTransferDao(AccountDao accountDao, DataSource dataSource){
+        this(accountDao, dataSource, BalanceCache.NONE);
+    }
+
+    /**
+     * Takes the plain {@link JdbcAccountDao} even when {@link CoalescingAccountDao} is enabled: a send's deposit
+     * has to commit or roll back with its withdrawal, and a coalesced deposit commits on a stripe's connection.
+     */
+    @Autowired
+    public JdbcTransferDao(JdbcAccountDao accountDao, DataSource dataSource, BalanceCache balanceCache,
+                           TransferVersions transferVersions){
+        this((AccountDao) accountDao, dataSource, balanceCache, transferVersions);
+    }
+
+    public JdbcTransferDao(AccountDao accountDao, DataSource dataSource, BalanceCache balanceCache){
+        this(accountDao, dataSource, balanceCache, new TransferVersions());
+    }
+
+    public JdbcTransferDao(AccountDao accountDao, DataSource dataSource, BalanceCache balanceCache,
+                           TransferVersions transferVersions){
         this.accountDao = accountDao;
+        this.balanceCache = balanceCache;
+        this.transferVersions = transferVersions;
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchExecutor = new JdbcBatchExecutor(jdbcTemplate, JdbcBatchExecutor.DEFAULT_BATCH_SIZE);
     }
 
+    /**
+     * Withdraws, deposits and records the transfer in one transaction, and reports why nothing moved when the
+     * withdrawal is refused. Inside a caller's transaction (a group commit batch) it runs under a savepoint, so a
+     * send that throws rolls back only its own statements.
+     */
     @Override
-    public boolean sendTransfer(Transfer transfer) {
-        boolean successful = false;
-        String sql = "INSERT INTO transfer(account_from, account_to, amount, transfer_type_id, transfer_status_id) "
-                + "VALUES((SELECT account_id FROM account WHERE user_id = ?),(SELECT account_id FROM account WHERE user_id = ?),?,?,?)";
-            successful = accountDao.withdrawalBucks(transfer.getAccountFrom(), transfer.getAmount());
-            if (successful){
-                accountDao.depositBucks(transfer.getAccountTo(), transfer.getAmount());
-                return jdbcTemplate.update(sql, transfer.getAccountFrom(), transfer.getAccountTo(), transfer.getAmount(),
-                                        transfer.getTransferTypeId(), transfer.getTransferStatusId()) == 1;
-            } return successful;
+    @Transactional(propagation = Propagation.NESTED)
+    public WithdrawalOutcome sendTransfer(Transfer transfer) {
+        WithdrawalOutcome outcome = accountDao.withdraw(transfer.getAccountFrom(), transfer.getAmount());
+        if (outcome != WithdrawalOutcome.WITHDRAWN) {
+            return outcome;
+        }
+        if (!accountDao.depositBucks(transfer.getAccountTo(), transfer.getAmount())) {
+            // no such payee: the withdrawal rolls back with the rest of this send
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return WithdrawalOutcome.NOT_FOUND;
         }
+        int[] accounts = jdbcTemplate.query(SQL_INSERT_TRANSFER, ACCOUNTS, transfer.getAccountFrom(), transfer.getAccountTo(),
+                transfer.getAmount(), transfer.getTransferTypeId(), transfer.getTransferStatusId(), TransferEventType.SENT.name());
+        transferVersions.changed(accounts);
+        return outcome;
+    }
 
 
     @Override
     public boolean requestTransfer(Transfer transfer) {
-        boolean successful = false;
-        String sql = "INSERT INTO transfer(account_from, account_to, amount, transfer_type_id, transfer_status_id) "
-                + "VALUES((SELECT account_id FROM account WHERE user_id = ?),(SELECT account_id FROM account WHERE user_id = ?),?,?,?)";
-        if (transfer.getAccountFrom() != transfer.getAccountTo()){
-            successful = jdbcTemplate.update(sql, transfer.getAccountFrom(), transfer.getAccountTo(),
-                    transfer.getAmount(), transfer.getTransferTypeId(), transfer.getTransferStatusId()) == 1;
-        } else {
-            System.out.println("Cannot request money from yourself");
+        // requesting money from yourself is refused by the controller; here it just stores nothing
+        if (transfer.getAccountFrom() == transfer.getAccountTo()){
+            return false;
+        }
+        int[] accounts = jdbcTemplate.query(SQL_INSERT_TRANSFER, ACCOUNTS, transfer.getAccountFrom(), transfer.getAccountTo(),
+                transfer.getAmount(), transfer.getTransferTypeId(), transfer.getTransferStatusId(),
+                TransferEventType.REQUESTED.name());
+        if (accounts == null) {
+            return false;
         }
-        return successful;
+        transferVersions.changed(accounts);
+        return true;
+    }
+
+    @Override
+    public ApprovalOutcome updatePendingTransfer(int payerAccountId, Transfer transfer){
+        boolean approve = transfer.getTransferStatusId() == TRANSFER_STATUS_ID_APPROVED;
+        int[] movedUserIds = new int[2];
+        int[] accounts = new int[2];
+        ApprovalOutcome outcome = jdbcTemplate.query(SQL_RESOLVE_PENDING, rs -> {
+            rs.next();
+            if (!rs.getBoolean("resolved")) {
+                return rs.getBoolean("found") ? ApprovalOutcome.ALREADY_RESOLVED : ApprovalOutcome.NOT_FOUND;
+            }
+            // approved or not, the request leaves the payer's pending list and changes status for both
+            accounts[0] = rs.getInt("account_from");
+            accounts[1] = rs.getInt("account_to");
+            if (!approve) {
+                return ApprovalOutcome.REJECTED;
+            }
+            if (!rs.getBoolean("debited")) {
+                return ApprovalOutcome.INSUFFICIENT_FUNDS;
+            }
+            movedUserIds[0] = rs.getInt("payer_user_id");
+            movedUserIds[1] = rs.getInt("payee_user_id");
+            return ApprovalOutcome.APPROVED;
+        }, transfer.getTransferId(), payerAccountId, transfer.getTransferStatusId(), transfer.getTransferId(), payerAccountId);
+        if (outcome == ApprovalOutcome.APPROVED) {
+            balanceCache.changed(movedUserIds[0]);
+            balanceCache.changed(movedUserIds[1]);
+        }
+        if (accounts[0] != 0) {
+            transferVersions.changed(accounts);
+        }
+        return outcome;
+    }
+
+    /**
+     * Resolves many of the user's pending requests at once. The requests and the accounts they touch are
+     * locked up front, approvals are applied in transfer ID order against the user's running balance
+     * (an approval the balance no longer covers is rejected, as in {@link #updatePendingTransfer}), and
+     * the status changes, balance deltas and outbox events are written as JDBC batches. Transfers the user is not
+     * the payer on are reported as NOT_FOUND. Results come back in the order the decisions were given.
+     */
+    @Override
+    @Transactional
+    public List<PendingDecisionResultDTO> updatePendingTransfers(String username, List<PendingDecisionDTO> decisions) {
+        return updatePendingTransfers(accountIdOf(username), decisions);
     }
 
     @Override
-    public boolean updatePendingTransfer(Transfer transfer){
-        boolean successful = false;
-        String sql = "UPDATE transfer SET transfer_type_id = ?, transfer_status_id = ? WHERE transfer_id = ?";
-        String sqlFrom = "SELECT transfer_id, transfer_type_id, transfer_status_id, account_from, account_to, amount " +
-                        "FROM transfer WHERE transfer_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sqlFrom, transfer.getTransferId());
-        Transfer updatedTransfer = new Transfer();
-        if (rowSet.next()) {
-            updatedTransfer = mapToTransfer(rowSet);
-        }
-        int transferStatus = transfer.getTransferStatusId();
-        if (transferStatus == TRANSFER_STATUS_ID_APPROVED) {
-            successful = accountDao.withdrawalBucks(accountDao.getUserIdByAccountId(updatedTransfer.getAccountFrom()), updatedTransfer.getAmount());
-            if (successful) {
-                accountDao.depositBucks(accountDao.getUserIdByAccountId(updatedTransfer.getAccountTo()), updatedTransfer.getAmount());
+    @Transactional
+    public List<PendingDecisionResultDTO> updatePendingTransfers(int payerAccountId, List<PendingDecisionDTO> decisions) {
+        List<PendingDecisionResultDTO> results = new ArrayList<>(decisions.size());
+        if (decisions.isEmpty()) {
+            return results;
+        }
+        Set<Integer> transferIds = new HashSet<>();
+        for (PendingDecisionDTO decision : decisions) {
+            transferIds.add(decision.getTransferId());
+        }
+        Map<Integer, Transfer> transfers = new HashMap<>();
+        for (Transfer transfer : namedJdbcTemplate.query(SQL_LOCK_PAYER_TRANSFERS, new MapSqlParameterSource("ids", transferIds)
+                .addValue("accountId", payerAccountId), this::mapRowToTransfer)) {
+            transfers.put(transfer.getTransferId(), transfer);
+        }
+
+        Set<Integer> accountIds = new TreeSet<>();
+        for (Transfer transfer : transfers.values()) {
+            if (transfer.getTransferStatusId() == TRANSFER_STATUS_ID_PENDING) {
+                accountIds.add(transfer.getAccountFrom());
+                accountIds.add(transfer.getAccountTo());
+            }
+        }
+        Map<Integer, BigDecimal> balances = new HashMap<>();
+        Map<Integer, Integer> userIds = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            namedJdbcTemplate.query(SQL_LOCK_ACCOUNTS, new MapSqlParameterSource("ids", accountIds), rs -> {
+                balances.put(rs.getInt("account_id"), rs.getBigDecimal("balance"));
+                userIds.put(rs.getInt("account_id"), rs.getInt("user_id"));
+            });
+        }
+
+        Integer[] order = new Integer[decisions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> decisions.get(i).getTransferId()));
+
+        ApprovalOutcome[] outcomes = new ApprovalOutcome[decisions.size()];
+        Set<Integer> resolved = new HashSet<>();
+        List<int[]> statusChanges = new ArrayList<>();
+        Map<Integer, BigDecimal> deltas = new TreeMap<>();
+        for (int i : order) {
+            PendingDecisionDTO decision = decisions.get(i);
+            Transfer transfer = transfers.get(decision.getTransferId());
+            if (transfer == null) {
+                outcomes[i] = ApprovalOutcome.NOT_FOUND;
+                continue;
+            }
+            if (transfer.getTransferStatusId() != TRANSFER_STATUS_ID_PENDING || !resolved.add(transfer.getTransferId())) {
+                outcomes[i] = ApprovalOutcome.ALREADY_RESOLVED;
+                continue;
+            }
+            int statusId = TRANSFER_STATUS_ID_REJECTED;
+            if (decision.getTransferStatusId() != TRANSFER_STATUS_ID_APPROVED) {
+                outcomes[i] = ApprovalOutcome.REJECTED;
+            } else if (balances.get(transfer.getAccountFrom()).compareTo(transfer.getAmount()) >= 0) {
+                balances.merge(transfer.getAccountFrom(), transfer.getAmount().negate(), BigDecimal::add);
+                deltas.merge(transfer.getAccountFrom(), transfer.getAmount().negate(), BigDecimal::add);
+                deltas.merge(transfer.getAccountTo(), transfer.getAmount(), BigDecimal::add);
+                statusId = TRANSFER_STATUS_ID_APPROVED;
+                outcomes[i] = ApprovalOutcome.APPROVED;
             } else {
-                transferStatus = TRANSFER_STATUS_ID_REJECTED;
+                outcomes[i] = ApprovalOutcome.INSUFFICIENT_FUNDS;
             }
+            statusChanges.add(new int[] {transfer.getTransferId(), statusId});
+        }
+
+        batchExecutor.execute(SQL_SET_STATUS, statusChanges, (ps, change) -> {
+            ps.setInt(1, change[1]);
+            ps.setInt(2, change[0]);
+        });
+        batchExecutor.execute(SQL_ADJUST_BALANCE, deltas.entrySet(), (ps, delta) -> {
+            ps.setBigDecimal(1, delta.getValue());
+            ps.setInt(2, delta.getKey());
+        });
+        batchExecutor.execute(SQL_INSERT_EVENT, statusChanges, (ps, change) -> {
+            Transfer transfer = transfers.get(change[0]);
+            ps.setInt(1, change[0]);
+            ps.setString(2, (change[1] == TRANSFER_STATUS_ID_APPROVED ? TransferEventType.APPROVED : TransferEventType.REJECTED).name());
+            ps.setInt(3, transfer.getAccountFrom());
+            ps.setInt(4, transfer.getAccountTo());
+            ps.setBigDecimal(5, transfer.getAmount());
+        });
+        for (Integer accountId : deltas.keySet()) {
+            balanceCache.changed(userIds.get(accountId));
+        }
+        Set<Integer> changedAccounts = new HashSet<>();
+        for (int[] change : statusChanges) {
+            changedAccounts.add(transfers.get(change[0]).getAccountFrom());
+            changedAccounts.add(transfers.get(change[0]).getAccountTo());
         }
-        return jdbcTemplate.update(sql, updatedTransfer.getTransferTypeId(), transferStatus, transfer.getTransferId()) == 1;
+        transferVersions.changed(changedAccounts.stream().mapToInt(Integer::intValue).toArray());
+
+        for (int i = 0; i < outcomes.length; i++) {
+            results.add(new PendingDecisionResultDTO(decisions.get(i).getTransferId(), outcomes[i]));
+        }
+        return results;
     }
 
     @Override
     public List<Transfer> viewPendingRequests(String username) {
-        List<Transfer> requests = new ArrayList<>();
-        String sql = "SELECT transfer_id, username, amount FROM account " +
-                "JOIN transfer ON account.account_id = transfer.account_to " +
-                "JOIN tenmo_user ON account.user_id = tenmo_user.user_id " +
-                "WHERE transfer_status_id = ? AND account_from = (SELECT DISTINCT account_id FROM account " +
-                "JOIN transfer ON account.account_id = transfer.account_from " +
-                "JOIN tenmo_user ON account.user_id = tenmo_user.user_id " +
-                "WHERE username = ?)";
-        SqlRowSet results = jdbcTemplate.queryForRowSet(sql, TRANSFER_STATUS_ID_PENDING, username);
-        while (results.next()){
-            Transfer request = new Transfer();
-            request.setTransferId(results.getInt("transfer_id"));
-            request.setUsername(results.getString("username"));
-            request.setAmount(results.getBigDecimal("amount"));
-            requests.add(request);
-        }
-        return requests;
+        return viewPendingRequests(accountIdOf(username));
+    }
+
+    @Override
+    public List<Transfer> viewPendingRequests(int accountId) {
+        return jdbcTemplate.query(SQL_PENDING_REQUESTS, PENDING_REQUEST, TRANSFER_STATUS_ID_PENDING, accountId);
     }
 
     @Override
     public List<Transfer> viewTransfers(String username) {
-        List<Transfer> transfers = new ArrayList<>();
-        String sql = "SELECT transfer_id, amount, t.transfer_type_id, d.username AS user_from, b.username AS user_to " +
-                "FROM transfer t " +
-                "JOIN account a ON a.account_id = t.account_to " +
-                "JOIN tenmo_user b ON a.user_id = b.user_id " +
-                "JOIN account c ON c.account_id = t.account_from " +
-                "JOIN tenmo_user d ON c.user_id = d.user_id " +
-                "WHERE (d.username = ?) " +
-                "OR (b.username = ?) " +
-                "ORDER BY transfer_id";
-        SqlRowSet results = jdbcTemplate.queryForRowSet(sql, username, username);
-        while (results.next()){
-            Transfer transfer = new Transfer();
-            transfer.setTransferId(results.getInt("transfer_id"));
-            transfer.setAmount(results.getBigDecimal("amount"));
-            transfer.setTransferTypeId(results.getInt("transfer_type_id"));
-            transfer.setAccountFromUsername(results.getString("user_from"));
-            transfer.setAccountToUsername(results.getString("user_to"));
-            transfers.add(transfer);
-        }
-        return transfers;
+        return viewTransfers(username, 0);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(String username, int sinceTransferId) {
+        return viewTransfers(accountIdOf(username), sinceTransferId);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(int accountId, int sinceTransferId) {
+        return jdbcTemplate.query(SQL_HISTORY, HISTORY_ENTRY, accountId, accountId, sinceTransferId);
+    }
+
+    // callers with a token already carry the account ID; this is for the ones that only have a username
+    private int accountIdOf(String username) {
+        List<Integer> ids = jdbcTemplate.queryForList(SQL_ACCOUNT_ID_BY_USERNAME, Integer.class, username);
+        return ids.isEmpty() ? -1 : ids.get(0);
     }
 
     @Override
     public String getUsernameByAccountId(int accountId) {
-        String username = null;
-        String sql = "SELECT username FROM tenmo_user " +
-                    "JOIN account ON tenmo_user.user_id = account.user_id WHERE account_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql, accountId);
-        if (rowSet.next()) {
-            username = rowSet.getString("username");
-        }
-        return username;
+        return jdbcTemplate.query(SQL_USERNAME_BY_ACCOUNT_ID, USERNAME, accountId);
     }
 
     @Override
     public Transfer viewTransferDetails(int transferId) {
-        Transfer transfer = new Transfer();
-        String sql = "SELECT transfer_id, transfer_type_desc, transfer_status_desc, account_from, account_to, amount " +
-                "FROM transfer JOIN transfer_type ON transfer_type.transfer_type_id = transfer.transfer_type_id " +
-                "JOIN transfer_status ON transfer_status.transfer_status_id = transfer.transfer_status_id WHERE transfer_id = ?";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql, transferId);
-        if (rowSet.next()) {
-            transfer.setTransferId(rowSet.getInt("transfer_id"));
-            transfer.setTransferTypeDesc(rowSet.getString("transfer_type_desc"));
-            transfer.setTransferStatusDesc(rowSet.getString("transfer_status_desc"));
-            transfer.setAccountFromUsername(getUsernameByAccountId(rowSet.getInt("account_from")));
-            transfer.setAccountToUsername(getUsernameByAccountId(rowSet.getInt("account_to")));
-            transfer.setAmount(rowSet.getBigDecimal("amount"));
+        List<Transfer> rows = jdbcTemplate.query(SQL_TRANSFER_DETAILS, TRANSFER_DETAILS, transferId);
+        if (rows.isEmpty()) {
+            return new Transfer();
         }
+        Transfer transfer = rows.get(0);
+        transfer.setAccountFromUsername(getUsernameByAccountId(transfer.getAccountFrom()));
+        transfer.setAccountToUsername(getUsernameByAccountId(transfer.getAccountTo()));
         return transfer;
     }
 
 
-    public Transfer mapToTransfer(SqlRowSet rowSet) {
+    public Transfer mapRowToTransfer(ResultSet rs, int rowNum) throws SQLException {
         Transfer transfer = new Transfer();
-        transfer.setTransferId(rowSet.getInt("transfer_id"));
-        transfer.setTransferTypeId(rowSet.getInt("transfer_type_id"));
-        transfer.setTransferStatusId(rowSet.getInt("transfer_status_id"));
-        transfer.setAccountFrom(rowSet.getInt("account_from"));
-        transfer.setAccountTo(rowSet.getInt("account_to"));
-        transfer.setAmount(rowSet.getBigDecimal("amount"));
+        transfer.setTransferId(rs.getInt("transfer_id"));
+        transfer.setTransferTypeId(rs.getInt("transfer_type_id"));
+        transfer.setTransferStatusId(rs.getInt("transfer_status_id"));
+        transfer.setAccountFrom(rs.getInt("account_from"));
+        transfer.setAccountTo(rs.getInt("account_to"));
+        transfer.setAmount(rs.getBigDecimal("amount"));
         return transfer;
     }
 }
@@ -1,56 +1,84 @@
 package com.techelevator.tenmo.dao;
 
 import com.techelevator.tenmo.model.User;
+import com.techelevator.tenmo.security.AdminUsernames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
 public class JdbcUserDao implements UserDao {
 
     private static final BigDecimal STARTING_BALANCE = new BigDecimal("1000.00");
+    // usernames match ignoring case; comparing lower(username) is what lets Postgres use UQ_username_lower
+    private static final String SQL_ID_BY_USERNAME = "SELECT user_id FROM tenmo_user WHERE lower(username) = lower(?);";
+    private static final String SQL_ALL_USERS = "SELECT user_id, username, password_hash FROM tenmo_user;";
+    // the account ID comes along so login can sign it into the token
+    private static final String SQL_USER_BY_USERNAME = "SELECT u.user_id, u.username, u.password_hash, a.account_id " +
+            "FROM tenmo_user u LEFT JOIN account a ON a.user_id = u.user_id WHERE lower(u.username) = lower(?);";
+    private static final String SQL_INSERT_USER = "INSERT INTO tenmo_user (username, password_hash) VALUES (?, ?) RETURNING user_id";
+    private static final String SQL_INSERT_ACCOUNT = "INSERT INTO account (user_id, balance) values(?, ?)";
+
+    private final RowMapper<User> userMapper = this::mapRowToUser;
+    private final RowMapper<User> userWithAccountMapper = (rs, rowNum) -> {
+        User user = mapRowToUser(rs, rowNum);
+        user.setAccountId(rs.getInt("account_id"));
+        return user;
+    };
+
     private JdbcTemplate jdbcTemplate;
+    private final AdminUsernames adminUsernames;
+    // a username always maps to the same user ID, so every lookup after the first is answered from memory
+    private final ConcurrentHashMap<String, Integer> idsByUsername = new ConcurrentHashMap<>();
 
     public JdbcUserDao(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, AdminUsernames.NONE);
+    }
+
+    @Autowired
+    public JdbcUserDao(JdbcTemplate jdbcTemplate, AdminUsernames adminUsernames) {
         this.jdbcTemplate = jdbcTemplate;
+        this.adminUsernames = adminUsernames;
     }
 
     @Override
     public int findIdByUsername(String username) {
-        String sql = "SELECT user_id FROM tenmo_user WHERE username ILIKE ?;";
-        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, username);
-        if (id != null) {
-            return id;
-        } else {
-            return -1;
+        String key = username.toLowerCase(Locale.ROOT);
+        Integer id = idsByUsername.get(key);
+        if (id == null) {
+            List<Integer> ids = jdbcTemplate.queryForList(SQL_ID_BY_USERNAME, Integer.class, username);
+            if (ids.isEmpty()) {
+                return -1;
+            }
+            id = ids.get(0);
+            idsByUsername.put(key, id);
         }
+        return id;
     }
 
     @Override
     public List<User> findAll() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT user_id, username, password_hash FROM tenmo_user;";
-        SqlRowSet results = jdbcTemplate.queryForRowSet(sql);
-        while(results.next()) {
-            User user = mapRowToUser(results);
-            users.add(user);
-        }
-        return users;
+        return jdbcTemplate.query(SQL_ALL_USERS, userMapper);
     }
 
     @Override
     public User findByUsername(String username) throws UsernameNotFoundException {
-        String sql = "SELECT user_id, username, password_hash FROM tenmo_user WHERE username ILIKE ?;";
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql, username);
-        if (rowSet.next()){
-            return mapRowToUser(rowSet);
+        List<User> users = jdbcTemplate.query(SQL_USER_BY_USERNAME, userWithAccountMapper, username);
+        if (!users.isEmpty()){
+            return users.get(0);
         }
         throw new UsernameNotFoundException("User " + username + " was not found.");
     }
@@ -59,31 +87,29 @@ public class JdbcUserDao implements UserDao {
     public boolean create(String username, String password) {
 
         // create user
-        String sql = "INSERT INTO tenmo_user (username, password_hash) VALUES (?, ?) RETURNING user_id";
         String password_hash = new BCryptPasswordEncoder().encode(password);
         Integer newUserId;
         try {
-            newUserId = jdbcTemplate.queryForObject(sql, Integer.class, username, password_hash);
+            newUserId = jdbcTemplate.queryForObject(SQL_INSERT_USER, Integer.class, username, password_hash);
         } catch (DataAccessException e) {
             return false;
         }
         // create account
-        sql = "INSERT INTO account (user_id, balance) values(?, ?)";
         try {
-            jdbcTemplate.update(sql, newUserId, STARTING_BALANCE);
+            jdbcTemplate.update(SQL_INSERT_ACCOUNT, newUserId, STARTING_BALANCE);
         } catch (DataAccessException e) {
             return false;
         }
         return true;
     }
 
-    private User mapRowToUser(SqlRowSet rs) {
+    private User mapRowToUser(ResultSet rs, int rowNum) throws SQLException {
         User user = new User();
         user.setId(rs.getLong("user_id"));
         user.setUsername(rs.getString("username"));
         user.setPassword(rs.getString("password_hash"));
         user.setActivated(true);
-        user.setAuthorities("USER");
+        user.setAuthorities(adminUsernames.rolesOf(user.getUsername()));
         return user;
     }
 }
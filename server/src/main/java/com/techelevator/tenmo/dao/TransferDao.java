@@ -1,16 +1,24 @@
 package com.techelevator.tenmo.dao;
 
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
 import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 public interface TransferDao {
 
-    public boolean sendTransfer(Transfer transfer);
+    public WithdrawalOutcome sendTransfer(Transfer transfer);
 
     public List<Transfer> viewTransfers(String username);
 
+    public List<Transfer> viewTransfers(String username, int sinceTransferId);
+
+    public List<Transfer> viewTransfers(int accountId, int sinceTransferId);
+
     public String getUsernameByAccountId(int accountId);
 
     public Transfer viewTransferDetails(int transferId);
@@ -19,5 +27,11 @@ public interface TransferDao {
 
     public List<Transfer> viewPendingRequests(String username);
 
-    public boolean updatePendingTransfer(Transfer transfer);
+    public List<Transfer> viewPendingRequests(int accountId);
+
+    public ApprovalOutcome updatePendingTransfer(int payerAccountId, Transfer transfer);
+
+    public List<PendingDecisionResultDTO> updatePendingTransfers(String username, List<PendingDecisionDTO> decisions);
+
+    public List<PendingDecisionResultDTO> updatePendingTransfers(int accountId, List<PendingDecisionDTO> decisions);
 }
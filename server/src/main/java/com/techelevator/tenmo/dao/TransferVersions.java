@@ -0,0 +1,52 @@
+package com.techelevator.tenmo.dao;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters of each account's transfer history and pending requests, keyed by account ID. The transfer
+ * DAOs call {@link #changed} for both accounts of every transfer they create or resolve, whichever path the
+ * change takes (a single send or approval, a bulk decision, a group commit batch), and
+ * {@link com.techelevator.tenmo.events.TransferEventRelay} calls it for every event it moves, which includes
+ * changes committed by other nodes.
+ *
+ * Like {@link BalanceCache#changed}, a change made inside a transaction only counts once the transaction has
+ * committed, so a reader can never see the new version next to the old rows.
+ */
+@Component
+public class TransferVersions {
+
+    private final ConcurrentHashMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long version(int accountId) {
+        AtomicLong version = versions.get(accountId);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Records that the transfer lists of these accounts have been (or are about to be) changed by the current
+     * transaction.
+     */
+    public void changed(int... accountIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(accountIds);
+                }
+            });
+        } else {
+            increment(accountIds);
+        }
+    }
+
+    private void increment(int... accountIds) {
+        for (int accountId : accountIds) {
+            versions.computeIfAbsent(accountId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
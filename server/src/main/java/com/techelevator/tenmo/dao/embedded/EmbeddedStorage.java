@@ -0,0 +1,287 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import com.techelevator.tenmo.dao.memory.MemoryStore;
+import com.techelevator.tenmo.dao.memory.StoreJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A {@link MemoryStore} made durable with a {@link WriteAheadLog} and periodic snapshots, for running without
+ * Postgres. Every locked section of the store is appended to the log as one entry holding the current state of
+ * the records it changed, and returns only once the entry is on disk.
+ *
+ * A snapshot is written while the store stays in use. It notes the end of the log, copies every user, balance
+ * and transfer, then waits for the locked sections still in progress (so everything it copied has been
+ * logged) and for the log to be durable up to that point. Restoring loads the newest readable snapshot and
+ * replays the log from the position it noted; entries the snapshot already reflects are simply applied again.
+ * The two newest snapshots are kept, and log segments older than both are deleted.
+ */
+public class EmbeddedStorage implements StoreJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedStorage.class);
+
+    private static final int MAGIC = 0x54534e50;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final WriteAheadLog log;
+    private final MemoryStore store;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Opens (or creates) the storage in {@code directory}, restores it and starts taking a snapshot every
+     * {@code snapshotMillis} (none if 0).
+     */
+    public EmbeddedStorage(Path directory, int segmentBytes, long snapshotMillis) {
+        this.directory = directory;
+        this.log = new WriteAheadLog(directory.resolve("wal"), segmentBytes);
+        this.store = new MemoryStore(this);
+        long started = System.nanoTime();
+        long replayFrom = loadSnapshot();
+        log.replay(replayFrom, payload -> {
+            try {
+                StoreRecords.apply(new DataInputStream(new ByteBufferInputStream(payload)), store);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupt write-ahead log entry", e);
+            }
+        });
+        store.finishRestore();
+        LOG.info("Restored embedded storage from {} in {} ms (log replayed from {} to {})", directory,
+                (System.nanoTime() - started) / 1_000_000, replayFrom, log.end());
+        if (snapshotMillis > 0) {
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not write a snapshot of the embedded storage: {}", e.getMessage());
+                }
+            }, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public MemoryStore getStore() {
+        return store;
+    }
+
+    @Override
+    public long append(MemoryStore.Changes changes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (MemoryStore.UserRecord user : changes.getUsers()) {
+                StoreRecords.writeUser(out, user);
+            }
+            for (MemoryStore.AccountRecord account : changes.getAccounts()) {
+                StoreRecords.writeBalance(out, account);
+            }
+            for (MemoryStore.TransferRecord transfer : changes.getTransfers()) {
+                StoreRecords.writeTransfer(out, transfer);
+            }
+            StoreRecords.writeEnd(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return log.append(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        log.awaitDurable(position);
+    }
+
+    /**
+     * Writes a snapshot and deletes the log segments no kept snapshot needs.
+     */
+    public synchronized void snapshot() {
+        long replayFrom = log.end();
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(replayFrom);
+            IOException[] failure = new IOException[1];
+            store.forEachUser(user -> write(failure, () -> StoreRecords.writeUser(out, user)));
+            store.forEachTransfer(transfer -> write(failure, () -> StoreRecords.writeTransfer(out, transfer)));
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            StoreRecords.writeEnd(out);
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            // what was copied may come from sections that had not been logged yet; make sure it all is on disk
+            log.awaitDurable(store.quiesced(log::end));
+            file.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot in " + directory, e);
+        }
+        try {
+            Files.move(temporary, snapshotPath(replayFrom), StandardCopyOption.ATOMIC_MOVE);
+            List<Path> snapshots = snapshots();
+            for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+                Files.delete(snapshots.get(i));
+            }
+            log.deleteBefore(replayFromOf(snapshots.get(Math.min(SNAPSHOTS_KEPT, snapshots.size()) - 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not install snapshot in " + directory, e);
+        }
+    }
+
+    /**
+     * Stops taking snapshots, writes a last one so the next start has little to replay, and flushes the log.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+        log.close();
+    }
+
+    // loads the newest snapshot that passes its checksum and returns where log replay starts
+    private long loadSnapshot() {
+        List<Path> snapshots;
+        try {
+            snapshots = snapshots();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list snapshots in " + directory, e);
+        }
+        for (Path snapshot : snapshots) {
+            try {
+                if (!checksumMatches(snapshot)) {
+                    LOG.warn("Skipping snapshot {}, its checksum does not match", snapshot);
+                    continue;
+                }
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                        LOG.warn("Skipping snapshot {}, it is not a version {} snapshot", snapshot, VERSION);
+                        continue;
+                    }
+                    long replayFrom = in.readLong();
+                    StoreRecords.apply(in, store);
+                    return replayFrom;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read snapshot " + snapshot, e);
+            }
+        }
+        if (log.start() > 0) {
+            throw new IllegalStateException("No readable snapshot in " + directory
+                    + " and the write-ahead log no longer starts at the beginning");
+        }
+        return 0;
+    }
+
+    private static boolean checksumMatches(Path snapshot) throws IOException {
+        long size = Files.size(snapshot);
+        if (size < Long.BYTES) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16), crc)) {
+            byte[] buffer = new byte[1 << 16];
+            long remaining = size - Long.BYTES;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return false;
+                }
+                remaining -= read;
+            }
+            long expected = crc.getValue();
+            return new DataInputStream(in).readLong() == expected;
+        }
+    }
+
+    // newest first
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches(SNAPSHOT_PREFIX + "\\d+" + SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.comparingLong(EmbeddedStorage::replayFromOf).reversed())
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long replayFromOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private Path snapshotPath(long replayFrom) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, replayFrom, SNAPSHOT_SUFFIX));
+    }
+
+    private static void write(IOException[] failure, IoAction action) {
+        if (failure[0] != null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (IOException e) {
+            failure[0] = e;
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
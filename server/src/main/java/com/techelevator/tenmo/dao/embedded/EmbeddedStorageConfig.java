@@ -0,0 +1,34 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import com.techelevator.tenmo.dao.memory.MemoryStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.nio.file.Paths;
+
+/**
+ * Runs the in-memory DAOs on a store restored from, and journaled to, tenmo.embedded.dir.
+ *
+ * Enabled with tenmo.storage=embedded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "embedded")
+public class EmbeddedStorageConfig {
+
+    // recover before taking traffic, even with lazy initialization
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    public EmbeddedStorage embeddedStorage(@Value("${tenmo.embedded.dir:data}") String directory,
+                                           @Value("${tenmo.embedded.segment-bytes:67108864}") int segmentBytes,
+                                           @Value("${tenmo.embedded.snapshot-seconds:300}") long snapshotSeconds) {
+        return new EmbeddedStorage(Paths.get(directory), segmentBytes, snapshotSeconds * 1000);
+    }
+
+    @Bean
+    public MemoryStore memoryStore(EmbeddedStorage embeddedStorage) {
+        return embeddedStorage.getStore();
+    }
+}
@@ -0,0 +1,96 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import com.techelevator.tenmo.dao.memory.MemoryStore;
+import com.techelevator.tenmo.dao.memory.MemoryStore.AccountRecord;
+import com.techelevator.tenmo.dao.memory.MemoryStore.TransferRecord;
+import com.techelevator.tenmo.dao.memory.MemoryStore.UserRecord;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The binary form of store records, shared by write-ahead log entries and snapshots. Every record carries the
+ * full current state of what it describes (a balance, not a delta; a status, not a transition), so applying
+ * a record twice, or applying one the snapshot already reflects, leaves the same state.
+ */
+final class StoreRecords {
+
+    private static final byte USER = 'U';
+    private static final byte BALANCE = 'B';
+    private static final byte TRANSFER = 'T';
+    private static final byte END = 'E';
+
+    private StoreRecords() {
+    }
+
+    static void writeUser(DataOutput out, UserRecord user) throws IOException {
+        out.writeByte(USER);
+        out.writeInt(user.userId);
+        out.writeInt(user.getAccount().accountId);
+        out.writeUTF(user.username);
+        out.writeUTF(user.passwordHash);
+        writeDecimal(out, user.getAccount().getBalance());
+    }
+
+    static void writeBalance(DataOutput out, AccountRecord account) throws IOException {
+        out.writeByte(BALANCE);
+        out.writeInt(account.accountId);
+        writeDecimal(out, account.getBalance());
+    }
+
+    static void writeTransfer(DataOutput out, TransferRecord transfer) throws IOException {
+        out.writeByte(TRANSFER);
+        out.writeInt(transfer.transferId);
+        out.writeByte(transfer.typeId);
+        out.writeByte(transfer.getStatusId());
+        out.writeInt(transfer.from.accountId);
+        out.writeInt(transfer.to.accountId);
+        writeDecimal(out, transfer.amount);
+    }
+
+    static void writeEnd(DataOutput out) throws IOException {
+        out.writeByte(END);
+    }
+
+    /**
+     * Applies records to the store up to and including the end marker.
+     */
+    static void apply(DataInput in, MemoryStore store) throws IOException {
+        while (true) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case USER:
+                    store.restoreUser(in.readInt(), in.readInt(), in.readUTF(), in.readUTF(), readDecimal(in));
+                    break;
+                case BALANCE:
+                    store.restoreBalance(in.readInt(), readDecimal(in));
+                    break;
+                case TRANSFER:
+                    store.restoreTransfer(in.readInt(), in.readByte(), in.readByte(), in.readInt(), in.readInt(),
+                            readDecimal(in));
+                    break;
+                case END:
+                    return;
+                default:
+                    throw new IOException("Unknown record type " + tag);
+            }
+        }
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
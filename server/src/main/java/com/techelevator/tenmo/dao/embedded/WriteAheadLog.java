@@ -0,0 +1,304 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of variable-length entries, addressed by byte position (0 for the start of the first
+ * segment ever written). The log is split into fixed-size, memory-mapped segment files named after the
+ * position they start at. An entry is its payload length, the CRC32 of the payload, then the payload; it never
+ * spans two segments, and an entry that does not fit in the rest of a segment is preceded by a length of -1
+ * there, which sends readers on to the next segment.
+ *
+ * Appends are serialised and only copy into the mapping. Durability is a separate step: {@link #awaitDurable}
+ * flushes the last segment to disk, and callers that arrive while a flush is running wait for it and then
+ * share the next one, so under load many appends are made durable by one flush (group commit). A segment is
+ * flushed as it is closed, so the -1 that leads past it is on disk before anything in the next segment is.
+ *
+ * On startup the segments are scanned from the first; the end of the log is the first entry that is cut off
+ * or fails its CRC. Everything after it is cleared, so a torn write can never be mistaken for an entry later.
+ */
+public class WriteAheadLog {
+
+    private static final int HEADER = 8;
+    private static final int NEXT_SEGMENT = -1;
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private final Object flushLock = new Object();
+    private volatile long end;
+    private long durable;
+    private boolean flushing;
+
+    public WriteAheadLog(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Long> bases = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(SUFFIX))
+                        .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+            }
+            bases.sort(null);
+            for (int i = 0; i < bases.size(); i++) {
+                if (i > 0 && bases.get(i) != bases.get(i - 1) + segmentBytes) {
+                    throw new IllegalStateException("Write-ahead log segment " + segmentPath(bases.get(i - 1) + segmentBytes)
+                            + " is missing or was written with a different segment size");
+                }
+                segments.add(new Segment(bases.get(i), map(bases.get(i))));
+            }
+            if (segments.isEmpty()) {
+                segments.add(new Segment(0, map(0)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open write-ahead log in " + directory, e);
+        }
+        end = recover();
+        durable = end;
+    }
+
+    /**
+     * @return the position the next entry will be written at
+     */
+    public long end() {
+        return end;
+    }
+
+    /**
+     * @return the position of the oldest entry still kept
+     */
+    public synchronized long start() {
+        return segments.get(0).base;
+    }
+
+    /**
+     * Appends an entry. It is readable by {@link #replay} after a restart once the process has written it, and
+     * survives a machine crash once {@link #awaitDurable} has returned for the position returned here.
+     *
+     * @return the end of the log after the entry
+     */
+    public synchronized long append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (HEADER + length > segmentBytes) {
+            throw new IllegalArgumentException("Entry of " + length + " bytes does not fit in a segment");
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        int position = (int) (end - segment.base);
+        if (position + HEADER + length > segmentBytes) {
+            if (position + 4 <= segmentBytes) {
+                segment.buffer.putInt(position, NEXT_SEGMENT);
+            }
+            segment.buffer.force();
+            try {
+                segment = new Segment(segment.base + segmentBytes, map(segment.base + segmentBytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create write-ahead log segment in " + directory, e);
+            }
+            segments.add(segment);
+            position = 0;
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(position + HEADER);
+        target.put(payload);
+        segment.buffer.putInt(position + 4, (int) crc.getValue());
+        // the length goes in last: until it is there the entry reads as the end of the log
+        segment.buffer.putInt(position, length);
+        end = segment.base + position + HEADER + length;
+        return end;
+    }
+
+    /**
+     * Returns once everything up to {@code position} is on disk, flushing it if no other caller is already.
+     */
+    public void awaitDurable(long position) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                synchronized (flushLock) {
+                    while (durable < position && flushing) {
+                        try {
+                            flushLock.wait();
+                        } catch (InterruptedException e) {
+                            // the caller's change is already visible, so it has to wait for it to be durable
+                            interrupted = true;
+                        }
+                    }
+                    if (durable >= position) {
+                        return;
+                    }
+                    flushing = true;
+                }
+                long target;
+                MappedByteBuffer last;
+                synchronized (this) {
+                    target = end;
+                    last = segments.get(segments.size() - 1).buffer;
+                }
+                boolean flushed = false;
+                try {
+                    last.force();
+                    flushed = true;
+                } finally {
+                    synchronized (flushLock) {
+                        flushing = false;
+                        if (flushed) {
+                            durable = Math.max(durable, target);
+                        }
+                        flushLock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Passes the payload of every entry at or after {@code from}, in order, to the consumer.
+     */
+    public synchronized void replay(long from, Consumer<ByteBuffer> consumer) {
+        if (from < segments.get(0).base) {
+            throw new IllegalStateException("Write-ahead log starts at " + segments.get(0).base + ", cannot replay from " + from);
+        }
+        for (Segment segment : segments) {
+            int position = 0;
+            while (segment.base + position < end) {
+                int length = segment.buffer.getInt(position);
+                if (length == NEXT_SEGMENT) {
+                    break;
+                }
+                if (segment.base + position >= from) {
+                    ByteBuffer payload = segment.buffer.duplicate();
+                    payload.position(position + HEADER).limit(position + HEADER + length);
+                    consumer.accept(payload.slice().asReadOnlyBuffer());
+                }
+                position += HEADER + length;
+                if (position + HEADER > segmentBytes) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the segments that end at or before {@code position}; the segment being written is always kept.
+     */
+    public synchronized void deleteBefore(long position) {
+        while (segments.size() > 1 && segments.get(0).base + segmentBytes <= position) {
+            Segment oldest = segments.remove(0);
+            try {
+                Files.deleteIfExists(segmentPath(oldest.base));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete write-ahead log segment " + segmentPath(oldest.base), e);
+            }
+        }
+    }
+
+    public void close() {
+        awaitDurable(end);
+    }
+
+    private long recover() {
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            int position = 0;
+            while (true) {
+                if (position + HEADER > segmentBytes) {
+                    break;
+                }
+                int length = segment.buffer.getInt(position);
+                if (length == NEXT_SEGMENT && i < segments.size() - 1) {
+                    break;
+                }
+                if (length <= 0 || position + HEADER + length > segmentBytes || !matches(segment.buffer, position, length)) {
+                    truncate(i, position);
+                    return segment.base + position;
+                }
+                position += HEADER + length;
+            }
+        }
+        // the last segment is full to the byte, or ends in a jump to a segment that was never created
+        Segment last = segments.get(segments.size() - 1);
+        return last.base + segmentBytes;
+    }
+
+    private boolean matches(MappedByteBuffer buffer, int position, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position + HEADER).limit(position + HEADER + length);
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + 4);
+    }
+
+    // clears the rest of the segment the log ends in and drops any segment after it
+    private void truncate(int segmentIndex, int position) {
+        Segment segment = segments.get(segmentIndex);
+        // only write where something was written, so the unused part of the file stays sparse
+        int dirtyEnd = position;
+        for (int i = position; i < segmentBytes; i++) {
+            if (segment.buffer.get(i) != 0) {
+                dirtyEnd = i + 1;
+            }
+        }
+        if (dirtyEnd > position) {
+            ByteBuffer zeros = segment.buffer.duplicate();
+            zeros.position(position);
+            zeros.put(new byte[dirtyEnd - position]);
+            segment.buffer.force();
+        }
+        while (segments.size() > segmentIndex + 1) {
+            Segment dropped = segments.remove(segments.size() - 1);
+            try {
+                Files.deleteIfExists(segmentPath(dropped.base));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete write-ahead log segment " + segmentPath(dropped.base), e);
+            }
+        }
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        Path path = segmentPath(base);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() != 0 && channel.size() != segmentBytes) {
+                throw new IllegalStateException("Write-ahead log segment " + path + " has " + channel.size()
+                        + " bytes, expected " + segmentBytes);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    private static class Segment {
+        final long base;
+        final MappedByteBuffer buffer;
+
+        Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+        }
+    }
+}
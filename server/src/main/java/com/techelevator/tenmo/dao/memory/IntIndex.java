@@ -0,0 +1,63 @@
+package com.techelevator.tenmo.dao.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free map from non-negative int IDs to values, for IDs handed out densely by a counter. Values live in
+ * fixed-size chunks that are allocated the first time an ID in their range is stored, so a lookup is two
+ * array reads with no boxing or hashing.
+ */
+final class IntIndex<T> {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks =
+            new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - CHUNK_BITS));
+
+    T get(int id) {
+        if (id < 0) {
+            return null;
+        }
+        AtomicReferenceArray<T> chunk = chunks.get(id >>> CHUNK_BITS);
+        return chunk == null ? null : chunk.get(id & CHUNK_MASK);
+    }
+
+    /**
+     * Stores the value unless the ID is already taken.
+     *
+     * @return true if the value was stored
+     */
+    boolean putIfAbsent(int id, T value) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID must not be negative: " + id);
+        }
+        int index = id >>> CHUNK_BITS;
+        AtomicReferenceArray<T> chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk.compareAndSet(id & CHUNK_MASK, null, value);
+    }
+
+    /**
+     * Visits the stored values in ID order. Values stored while the walk is under way may or may not be seen.
+     */
+    void forEach(Consumer<T> action) {
+        for (int i = 0; i < chunks.length(); i++) {
+            AtomicReferenceArray<T> chunk = chunks.get(i);
+            if (chunk == null) {
+                continue;
+            }
+            for (int j = 0; j < CHUNK_SIZE; j++) {
+                T value = chunk.get(j);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+}
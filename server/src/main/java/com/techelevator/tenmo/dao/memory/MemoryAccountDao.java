@@ -0,0 +1,83 @@
+package com.techelevator.tenmo.dao.memory;
+
+import com.techelevator.tenmo.dao.AccountDao;
+import com.techelevator.tenmo.dao.memory.MemoryStore.AccountRecord;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * AccountDao over {@link MemoryStore}. Like {@link com.techelevator.tenmo.dao.JdbcAccountDao}, withdrawals and
+ * deposits take the user ID.
+ */
+@Component
+@ConditionalOnExpression("'${tenmo.storage:jdbc}' matches 'memory|embedded'")
+public class MemoryAccountDao implements AccountDao {
+
+    private final MemoryStore store;
+
+    public MemoryAccountDao(MemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public BigDecimal getBalance(int userId) {
+        return balanceOf(store.accountOfUser(userId));
+    }
+
+    @Override
+    public BigDecimal getBalanceByAccountId(int accountId) {
+        return balanceOf(store.account(accountId));
+    }
+
+    @Override
+    public boolean withdrawalBucks(int accountFrom, BigDecimal amount) {
+        return withdraw(accountFrom, amount) == WithdrawalOutcome.WITHDRAWN;
+    }
+
+    @Override
+    public WithdrawalOutcome withdraw(int accountFrom, BigDecimal amount) {
+        AccountRecord account = store.accountOfUser(accountFrom);
+        if (account == null) {
+            return WithdrawalOutcome.NOT_FOUND;
+        }
+        return store.withLocks(List.of(account), () -> {
+            if (account.getBalance().compareTo(amount) < 0) {
+                return WithdrawalOutcome.INSUFFICIENT_FUNDS;
+            }
+            store.adjustBalance(account, amount.negate());
+            return WithdrawalOutcome.WITHDRAWN;
+        });
+    }
+
+    @Override
+    public boolean depositBucks(int accountTo, BigDecimal amount) {
+        AccountRecord account = store.accountOfUser(accountTo);
+        if (account == null) {
+            return false;
+        }
+        return store.withLocks(List.of(account), () -> {
+            store.adjustBalance(account, amount);
+            return true;
+        });
+    }
+
+    @Override
+    public int getAccountIdByUserId(int userId) {
+        AccountRecord account = store.accountOfUser(userId);
+        return account == null ? 0 : account.accountId;
+    }
+
+    @Override
+    public int getUserIdByAccountId(int accountId) {
+        AccountRecord account = store.account(accountId);
+        return account == null ? 0 : account.user.userId;
+    }
+
+    private static BigDecimal balanceOf(AccountRecord account) {
+        return account == null ? new BigDecimal(0) : account.getBalance();
+    }
+}
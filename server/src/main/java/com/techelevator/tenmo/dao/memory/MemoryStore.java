@@ -0,0 +1,380 @@
+package com.techelevator.tenmo.dao.memory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The tables behind the in-memory DAOs. Users, accounts and transfers are indexed by ID in {@link IntIndex}es
+ * and users also by lower-cased username; IDs come from counters that start where the schema's sequences do.
+ *
+ * Every account has its own lock. Anything that reads a balance to decide whether money moves, or that changes
+ * balances or transfer statuses, runs inside {@link #withLocks} holding the locks of all accounts involved,
+ * always taken in account ID order so two writers can never wait on each other. Transfers get their ID while
+ * both account locks are held, which keeps each account's transfer list in ID order.
+ *
+ * With a {@link StoreJournal} other than {@link StoreJournal#NONE}, the records each locked section changes are
+ * appended to the journal before its locks are released, and the section only returns once they are durable.
+ *
+ * Enabled with tenmo.storage=memory; the embedded engine builds its own store around a write-ahead log.
+ */
+@Component
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "memory")
+public class MemoryStore {
+
+    private static final int FIRST_USER_ID = 1001;
+    private static final int FIRST_ACCOUNT_ID = 2001;
+    private static final int FIRST_TRANSFER_ID = 3001;
+
+    private final AtomicInteger nextUserId = new AtomicInteger(FIRST_USER_ID);
+    private final AtomicInteger nextAccountId = new AtomicInteger(FIRST_ACCOUNT_ID);
+    private final AtomicInteger nextTransferId = new AtomicInteger(FIRST_TRANSFER_ID);
+
+    private final ConcurrentHashMap<String, UserRecord> usersByName = new ConcurrentHashMap<>();
+    private final IntIndex<UserRecord> users = new IntIndex<>();
+    private final IntIndex<AccountRecord> accounts = new IntIndex<>();
+    private final IntIndex<TransferRecord> transfers = new IntIndex<>();
+
+    private final StoreJournal journal;
+    private final boolean journaling;
+    private final ThreadLocal<Changes> changes = new ThreadLocal<>();
+    // locked sections share it; a checkpoint takes it exclusively to wait for the ones in progress
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    public MemoryStore() {
+        this(StoreJournal.NONE);
+    }
+
+    public MemoryStore(StoreJournal journal) {
+        this.journal = journal;
+        this.journaling = journal != StoreJournal.NONE;
+    }
+
+    /**
+     * Creates a user and their account.
+     *
+     * @return the new user, or null if the username is taken (ignoring case)
+     */
+    public UserRecord createUser(String username, String passwordHash, BigDecimal startingBalance) {
+        UserRecord user = new UserRecord(nextUserId.getAndIncrement(), username, passwordHash);
+        AccountRecord account = new AccountRecord(nextAccountId.getAndIncrement(), user, startingBalance);
+        user.account = account;
+        return withLocks(List.of(account), () -> {
+            if (usersByName.putIfAbsent(key(username), user) != null) {
+                return null;
+            }
+            users.putIfAbsent(user.userId, user);
+            accounts.putIfAbsent(account.accountId, account);
+            Changes recorded = changes.get();
+            if (recorded != null) {
+                recorded.users.add(user);
+                recorded.account(account);
+            }
+            return user;
+        });
+    }
+
+    public UserRecord user(String username) {
+        return usersByName.get(key(username));
+    }
+
+    public UserRecord user(int userId) {
+        return users.get(userId);
+    }
+
+    public AccountRecord account(int accountId) {
+        return accounts.get(accountId);
+    }
+
+    public AccountRecord accountOfUser(int userId) {
+        UserRecord user = users.get(userId);
+        return user == null ? null : user.account;
+    }
+
+    public TransferRecord transfer(int transferId) {
+        return transfers.get(transferId);
+    }
+
+    /**
+     * Visits every user in user ID order.
+     */
+    public void forEachUser(Consumer<UserRecord> action) {
+        users.forEach(action);
+    }
+
+    /**
+     * Visits every transfer in transfer ID order.
+     */
+    public void forEachTransfer(Consumer<TransferRecord> action) {
+        transfers.forEach(action);
+    }
+
+    /**
+     * Records a transfer between two accounts. Call inside {@link #withLocks} holding both accounts.
+     */
+    public TransferRecord insertTransfer(AccountRecord from, AccountRecord to, BigDecimal amount, int typeId, int statusId) {
+        TransferRecord transfer = new TransferRecord(nextTransferId.getAndIncrement(), typeId, statusId, from, to, amount);
+        transfers.putIfAbsent(transfer.transferId, transfer);
+        from.addTransfer(transfer.transferId);
+        to.addTransfer(transfer.transferId);
+        Changes recorded = changes.get();
+        if (recorded != null) {
+            recorded.transfers.add(transfer);
+        }
+        return transfer;
+    }
+
+    /**
+     * Adds to (or, with a negative amount, subtracts from) the balance. Call inside {@link #withLocks}.
+     */
+    public void adjustBalance(AccountRecord account, BigDecimal amount) {
+        account.balance = account.balance.add(amount);
+        Changes recorded = changes.get();
+        if (recorded != null) {
+            recorded.account(account);
+        }
+    }
+
+    /**
+     * Changes a transfer's status. Call inside {@link #withLocks} holding both of its accounts.
+     */
+    public void setStatus(TransferRecord transfer, int statusId) {
+        transfer.statusId = statusId;
+        Changes recorded = changes.get();
+        if (recorded != null && !recorded.transfers.contains(transfer)) {
+            recorded.transfers.add(transfer);
+        }
+    }
+
+    /**
+     * Runs the action holding the locks of the given accounts, taken in account ID order, and journals what
+     * it changed.
+     */
+    public <R> R withLocks(Collection<AccountRecord> locked, Supplier<R> action) {
+        AccountRecord[] ordered = locked.toArray(new AccountRecord[0]);
+        Arrays.sort(ordered, (a, b) -> Integer.compare(a.accountId, b.accountId));
+        Changes recorded = null;
+        long position = -1;
+        if (journaling) {
+            checkpointLock.readLock().lock();
+            recorded = new Changes();
+            changes.set(recorded);
+        }
+        int held = 0;
+        try {
+            for (AccountRecord account : ordered) {
+                account.lock.lock();
+                held++;
+            }
+            return action.get();
+        } finally {
+            try {
+                // whatever was changed is journaled, even if the action failed part way
+                if (recorded != null && !recorded.isEmpty()) {
+                    position = journal.append(recorded);
+                }
+            } finally {
+                for (int i = held - 1; i >= 0; i--) {
+                    ordered[i].lock.unlock();
+                }
+                if (journaling) {
+                    changes.remove();
+                    checkpointLock.readLock().unlock();
+                }
+            }
+            if (position >= 0) {
+                journal.awaitDurable(position);
+            }
+        }
+    }
+
+    public <R> R withLocks(AccountRecord first, AccountRecord second, Supplier<R> action) {
+        return withLocks(first == second ? List.of(first) : List.of(first, second), action);
+    }
+
+    /**
+     * Runs the action while no locked section is in progress, waiting for the ones that are. Every change
+     * made before this returns has then been passed to the journal.
+     */
+    public <R> R quiesced(Supplier<R> action) {
+        checkpointLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a user and account read back from a snapshot or journal, or updates the balance if they exist.
+     * Only for rebuilding a store before it is used; finish with {@link #finishRestore()}.
+     */
+    public void restoreUser(int userId, int accountId, String username, String passwordHash, BigDecimal balance) {
+        if (users.get(userId) == null) {
+            UserRecord user = new UserRecord(userId, username, passwordHash);
+            user.account = new AccountRecord(accountId, user, balance);
+            usersByName.put(key(username), user);
+            users.putIfAbsent(userId, user);
+            accounts.putIfAbsent(accountId, user.account);
+            nextUserId.accumulateAndGet(userId + 1, Math::max);
+            nextAccountId.accumulateAndGet(accountId + 1, Math::max);
+        }
+        restoreBalance(accountId, balance);
+    }
+
+    public void restoreBalance(int accountId, BigDecimal balance) {
+        accounts.get(accountId).balance = balance;
+    }
+
+    /**
+     * Adds a transfer read back from a snapshot or journal, or updates its status if it exists.
+     */
+    public void restoreTransfer(int transferId, int typeId, int statusId, int accountFrom, int accountTo, BigDecimal amount) {
+        TransferRecord existing = transfers.get(transferId);
+        if (existing != null) {
+            existing.statusId = statusId;
+            return;
+        }
+        transfers.putIfAbsent(transferId, new TransferRecord(transferId, typeId, statusId, accounts.get(accountFrom),
+                accounts.get(accountTo), amount));
+        nextTransferId.accumulateAndGet(transferId + 1, Math::max);
+    }
+
+    /**
+     * Rebuilds the per-account transfer lists in transfer ID order once everything has been restored.
+     */
+    public void finishRestore() {
+        transfers.forEach(transfer -> {
+            transfer.from.addTransfer(transfer.transferId);
+            transfer.to.addTransfer(transfer.transferId);
+        });
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The records one locked section changed, in the order they were first changed.
+     */
+    public static final class Changes {
+        private final List<UserRecord> users = new ArrayList<>(1);
+        private final List<AccountRecord> accounts = new ArrayList<>(2);
+        private final List<TransferRecord> transfers = new ArrayList<>(1);
+
+        public List<UserRecord> getUsers() {
+            return users;
+        }
+
+        public List<AccountRecord> getAccounts() {
+            return accounts;
+        }
+
+        public List<TransferRecord> getTransfers() {
+            return transfers;
+        }
+
+        boolean isEmpty() {
+            return users.isEmpty() && accounts.isEmpty() && transfers.isEmpty();
+        }
+
+        private void account(AccountRecord account) {
+            if (!accounts.contains(account)) {
+                accounts.add(account);
+            }
+        }
+    }
+
+    public static final class UserRecord {
+        public final int userId;
+        public final String username;
+        public final String passwordHash;
+        private AccountRecord account;
+
+        UserRecord(int userId, String username, String passwordHash) {
+            this.userId = userId;
+            this.username = username;
+            this.passwordHash = passwordHash;
+        }
+
+        public AccountRecord getAccount() {
+            return account;
+        }
+    }
+
+    public static final class AccountRecord {
+        public final int accountId;
+        public final UserRecord user;
+        private final ReentrantLock lock = new ReentrantLock();
+        // written under the lock; volatile so a plain balance read needs no lock
+        private volatile BigDecimal balance;
+        private int[] transferIds = new int[8];
+        private int transferCount;
+
+        AccountRecord(int accountId, UserRecord user, BigDecimal balance) {
+            this.accountId = accountId;
+            this.user = user;
+            this.balance = balance;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        /**
+         * @return the IDs of this account's transfers that are greater than {@code sinceTransferId}, in ID order
+         */
+        public int[] transferIdsAfter(int sinceTransferId) {
+            lock.lock();
+            try {
+                int from = Arrays.binarySearch(transferIds, 0, transferCount, sinceTransferId);
+                from = from >= 0 ? from + 1 : -from - 1;
+                return Arrays.copyOfRange(transferIds, from, transferCount);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void addTransfer(int transferId) {
+            if (transferCount == transferIds.length) {
+                transferIds = Arrays.copyOf(transferIds, transferCount * 2);
+            }
+            transferIds[transferCount++] = transferId;
+        }
+    }
+
+    public static final class TransferRecord {
+        public final int transferId;
+        public final int typeId;
+        public final AccountRecord from;
+        public final AccountRecord to;
+        public final BigDecimal amount;
+        // changed only while both accounts' locks are held
+        private volatile int statusId;
+
+        TransferRecord(int transferId, int typeId, int statusId, AccountRecord from, AccountRecord to, BigDecimal amount) {
+            this.transferId = transferId;
+            this.typeId = typeId;
+            this.statusId = statusId;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        public int getStatusId() {
+            return statusId;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.techelevator.tenmo.dao.memory;
+
+import com.techelevator.tenmo.dao.TransferDao;
+import com.techelevator.tenmo.dao.TransferVersions;
+import com.techelevator.tenmo.dao.memory.MemoryStore.AccountRecord;
+import com.techelevator.tenmo.dao.memory.MemoryStore.TransferRecord;
+import com.techelevator.tenmo.dao.memory.MemoryStore.UserRecord;
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TransferDao over {@link MemoryStore}, with the same results as {@link com.techelevator.tenmo.dao.JdbcTransferDao}.
+ * Each operation holds the locks of the accounts it touches for its whole duration, which gives it the
+ * all-or-nothing behaviour the JDBC version gets from its transaction. There is no outbox, so transfer events
+ * are not published with this engine.
+ */
+@Component
+@ConditionalOnExpression("'${tenmo.storage:jdbc}' matches 'memory|embedded'")
+public class MemoryTransferDao implements TransferDao {
+
+    private static final int TRANSFER_STATUS_ID_PENDING = 1;
+    private static final int TRANSFER_STATUS_ID_APPROVED = 2;
+    private static final int TRANSFER_STATUS_ID_REJECTED = 3;
+    // indexed by ID, as in the transfer_type and transfer_status tables
+    private static final String[] TRANSFER_TYPE_DESC = {null, "Request", "Send"};
+    private static final String[] TRANSFER_STATUS_DESC = {null, "Pending", "Approved", "Rejected"};
+
+    private final MemoryStore store;
+    private final TransferVersions transferVersions;
+
+    public MemoryTransferDao(MemoryStore store) {
+        this(store, new TransferVersions());
+    }
+
+    @Autowired
+    public MemoryTransferDao(MemoryStore store, TransferVersions transferVersions) {
+        this.store = store;
+        this.transferVersions = transferVersions;
+    }
+
+    @Override
+    public WithdrawalOutcome sendTransfer(Transfer transfer) {
+        AccountRecord from = store.accountOfUser(transfer.getAccountFrom());
+        AccountRecord to = store.accountOfUser(transfer.getAccountTo());
+        if (from == null || to == null || from == to || !knownTypeAndStatus(transfer)) {
+            return WithdrawalOutcome.NOT_FOUND;
+        }
+        return store.withLocks(from, to, () -> {
+            if (from.getBalance().compareTo(transfer.getAmount()) < 0) {
+                return WithdrawalOutcome.INSUFFICIENT_FUNDS;
+            }
+            store.adjustBalance(from, transfer.getAmount().negate());
+            store.adjustBalance(to, transfer.getAmount());
+            store.insertTransfer(from, to, transfer.getAmount(), transfer.getTransferTypeId(), transfer.getTransferStatusId());
+            transferVersions.changed(from.accountId, to.accountId);
+            return WithdrawalOutcome.WITHDRAWN;
+        });
+    }
+
+    @Override
+    public boolean requestTransfer(Transfer transfer) {
+        AccountRecord from = store.accountOfUser(transfer.getAccountFrom());
+        AccountRecord to = store.accountOfUser(transfer.getAccountTo());
+        if (from == null || to == null || from == to || !knownTypeAndStatus(transfer)) {
+            return false;
+        }
+        return store.withLocks(from, to, () -> {
+            store.insertTransfer(from, to, transfer.getAmount(), transfer.getTransferTypeId(), transfer.getTransferStatusId());
+            transferVersions.changed(from.accountId, to.accountId);
+            return true;
+        });
+    }
+
+    @Override
+    public ApprovalOutcome updatePendingTransfer(int payerAccountId, Transfer transfer) {
+        TransferRecord pending = store.transfer(transfer.getTransferId());
+        // only the payer may resolve a request; to anyone else it does not exist
+        if (pending == null || pending.from.accountId != payerAccountId) {
+            return ApprovalOutcome.NOT_FOUND;
+        }
+        boolean approve = transfer.getTransferStatusId() == TRANSFER_STATUS_ID_APPROVED;
+        return store.withLocks(pending.from, pending.to, () -> {
+            if (pending.getStatusId() != TRANSFER_STATUS_ID_PENDING) {
+                return ApprovalOutcome.ALREADY_RESOLVED;
+            }
+            return resolve(pending, approve);
+        });
+    }
+
+    @Override
+    public List<PendingDecisionResultDTO> updatePendingTransfers(String username, List<PendingDecisionDTO> decisions) {
+        return updatePendingTransfers(accountIdOf(username), decisions);
+    }
+
+    /**
+     * Resolves many of the payer's pending requests under one set of account locks, applying approvals in
+     * transfer ID order against the running balance, as {@link com.techelevator.tenmo.dao.JdbcTransferDao} does.
+     */
+    @Override
+    public List<PendingDecisionResultDTO> updatePendingTransfers(int payerAccountId, List<PendingDecisionDTO> decisions) {
+        List<PendingDecisionResultDTO> results = new ArrayList<>(decisions.size());
+        AccountRecord payer = store.account(payerAccountId);
+        Map<Integer, TransferRecord> transfers = new HashMap<>();
+        Set<AccountRecord> accounts = new HashSet<>();
+        if (payer != null) {
+            accounts.add(payer);
+            for (PendingDecisionDTO decision : decisions) {
+                TransferRecord transfer = store.transfer(decision.getTransferId());
+                if (transfer != null && transfer.from == payer) {
+                    transfers.put(transfer.transferId, transfer);
+                    accounts.add(transfer.to);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[decisions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> decisions.get(i).getTransferId()));
+
+        ApprovalOutcome[] outcomes = new ApprovalOutcome[decisions.size()];
+        store.withLocks(accounts, () -> {
+            for (int i : order) {
+                PendingDecisionDTO decision = decisions.get(i);
+                TransferRecord transfer = transfers.get(decision.getTransferId());
+                if (transfer == null) {
+                    outcomes[i] = ApprovalOutcome.NOT_FOUND;
+                } else if (transfer.getStatusId() != TRANSFER_STATUS_ID_PENDING) {
+                    // also covers a second decision on a transfer resolved earlier in this batch
+                    outcomes[i] = ApprovalOutcome.ALREADY_RESOLVED;
+                } else {
+                    outcomes[i] = resolve(transfer, decision.getTransferStatusId() == TRANSFER_STATUS_ID_APPROVED);
+                }
+            }
+            return null;
+        });
+
+        for (int i = 0; i < outcomes.length; i++) {
+            results.add(new PendingDecisionResultDTO(decisions.get(i).getTransferId(), outcomes[i]));
+        }
+        return results;
+    }
+
+    @Override
+    public List<Transfer> viewPendingRequests(String username) {
+        return viewPendingRequests(accountIdOf(username));
+    }
+
+    @Override
+    public List<Transfer> viewPendingRequests(int accountId) {
+        List<Transfer> requests = new ArrayList<>();
+        AccountRecord account = store.account(accountId);
+        if (account == null) {
+            return requests;
+        }
+        for (int transferId : account.transferIdsAfter(0)) {
+            TransferRecord transfer = store.transfer(transferId);
+            if (transfer.from == account && transfer.getStatusId() == TRANSFER_STATUS_ID_PENDING) {
+                Transfer request = new Transfer();
+                request.setTransferId(transfer.transferId);
+                request.setUsername(transfer.to.user.username);
+                request.setAmount(transfer.amount);
+                requests.add(request);
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(String username) {
+        return viewTransfers(username, 0);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(String username, int sinceTransferId) {
+        return viewTransfers(accountIdOf(username), sinceTransferId);
+    }
+
+    @Override
+    public List<Transfer> viewTransfers(int accountId, int sinceTransferId) {
+        List<Transfer> history = new ArrayList<>();
+        AccountRecord account = store.account(accountId);
+        if (account == null) {
+            return history;
+        }
+        for (int transferId : account.transferIdsAfter(sinceTransferId)) {
+            TransferRecord record = store.transfer(transferId);
+            Transfer transfer = new Transfer();
+            transfer.setTransferId(record.transferId);
+            transfer.setAmount(record.amount);
+            transfer.setTransferTypeId(record.typeId);
+            transfer.setAccountFromUsername(record.from.user.username);
+            transfer.setAccountToUsername(record.to.user.username);
+            history.add(transfer);
+        }
+        return history;
+    }
+
+    @Override
+    public String getUsernameByAccountId(int accountId) {
+        AccountRecord account = store.account(accountId);
+        return account == null ? null : account.user.username;
+    }
+
+    @Override
+    public Transfer viewTransferDetails(int transferId) {
+        TransferRecord record = store.transfer(transferId);
+        Transfer transfer = new Transfer();
+        if (record == null) {
+            return transfer;
+        }
+        transfer.setTransferId(record.transferId);
+        transfer.setTransferTypeDesc(TRANSFER_TYPE_DESC[record.typeId]);
+        transfer.setTransferStatusDesc(TRANSFER_STATUS_DESC[record.getStatusId()]);
+        transfer.setAccountFrom(record.from.accountId);
+        transfer.setAccountTo(record.to.accountId);
+        transfer.setAmount(record.amount);
+        transfer.setAccountFromUsername(record.from.user.username);
+        transfer.setAccountToUsername(record.to.user.username);
+        return transfer;
+    }
+
+    // the caller holds both accounts' locks and has checked the transfer is still pending
+    private ApprovalOutcome resolve(TransferRecord transfer, boolean approve) {
+        ApprovalOutcome outcome;
+        if (!approve) {
+            store.setStatus(transfer, TRANSFER_STATUS_ID_REJECTED);
+            outcome = ApprovalOutcome.REJECTED;
+        } else if (transfer.from.getBalance().compareTo(transfer.amount) < 0) {
+            store.setStatus(transfer, TRANSFER_STATUS_ID_REJECTED);
+            outcome = ApprovalOutcome.INSUFFICIENT_FUNDS;
+        } else {
+            store.adjustBalance(transfer.from, transfer.amount.negate());
+            store.adjustBalance(transfer.to, transfer.amount);
+            store.setStatus(transfer, TRANSFER_STATUS_ID_APPROVED);
+            outcome = ApprovalOutcome.APPROVED;
+        }
+        transferVersions.changed(transfer.from.accountId, transfer.to.accountId);
+        return outcome;
+    }
+
+    // the checks the transfer table's foreign keys make in the JDBC engine
+    private static boolean knownTypeAndStatus(Transfer transfer) {
+        return transfer.getTransferTypeId() > 0 && transfer.getTransferTypeId() < TRANSFER_TYPE_DESC.length
+                && transfer.getTransferStatusId() > 0 && transfer.getTransferStatusId() < TRANSFER_STATUS_DESC.length;
+    }
+
+    private int accountIdOf(String username) {
+        UserRecord user = store.user(username);
+        return user == null ? -1 : user.getAccount().accountId;
+    }
+}
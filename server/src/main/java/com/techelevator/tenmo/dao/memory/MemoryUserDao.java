@@ -0,0 +1,75 @@
+package com.techelevator.tenmo.dao.memory;
+
+import com.techelevator.tenmo.dao.UserDao;
+import com.techelevator.tenmo.dao.memory.MemoryStore.UserRecord;
+import com.techelevator.tenmo.model.User;
+import com.techelevator.tenmo.security.AdminUsernames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnExpression("'${tenmo.storage:jdbc}' matches 'memory|embedded'")
+public class MemoryUserDao implements UserDao {
+
+    private static final BigDecimal STARTING_BALANCE = new BigDecimal("1000.00");
+
+    private final MemoryStore store;
+    private final AdminUsernames adminUsernames;
+
+    public MemoryUserDao(MemoryStore store) {
+        this(store, AdminUsernames.NONE);
+    }
+
+    @Autowired
+    public MemoryUserDao(MemoryStore store, AdminUsernames adminUsernames) {
+        this.store = store;
+        this.adminUsernames = adminUsernames;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        store.forEachUser(user -> users.add(toUser(user)));
+        return users;
+    }
+
+    @Override
+    public User findByUsername(String username) throws UsernameNotFoundException {
+        UserRecord user = store.user(username);
+        if (user == null) {
+            throw new UsernameNotFoundException("User " + username + " was not found.");
+        }
+        User found = toUser(user);
+        found.setAccountId(user.getAccount().accountId);
+        return found;
+    }
+
+    @Override
+    public int findIdByUsername(String username) {
+        UserRecord user = store.user(username);
+        return user == null ? -1 : user.userId;
+    }
+
+    @Override
+    public boolean create(String username, String password) {
+        String passwordHash = new BCryptPasswordEncoder().encode(password);
+        return store.createUser(username, passwordHash, STARTING_BALANCE) != null;
+    }
+
+    private User toUser(UserRecord record) {
+        User user = new User();
+        user.setId((long) record.userId);
+        user.setUsername(record.username);
+        user.setPassword(record.passwordHash);
+        user.setActivated(true);
+        user.setAuthorities(adminUsernames.rolesOf(record.username));
+        return user;
+    }
+}
@@ -0,0 +1,36 @@
+package com.techelevator.tenmo.dao.memory;
+
+/**
+ * Where a {@link MemoryStore} writes its changes to make them durable. The store calls {@link #append} with
+ * the records an operation changed while it still holds that operation's locks, so the journal sees the
+ * changes to any one account in the order they were made, and calls {@link #awaitDurable} after releasing
+ * them, so operations that finish around the same time can share one flush.
+ */
+public interface StoreJournal {
+
+    /**
+     * The journal of the plain in-memory engine, which keeps nothing.
+     */
+    StoreJournal NONE = new StoreJournal() {
+        @Override
+        public long append(MemoryStore.Changes changes) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+    };
+
+    /**
+     * Records the current state of the changed records.
+     *
+     * @return the position to pass to {@link #awaitDurable}
+     */
+    long append(MemoryStore.Changes changes);
+
+    /**
+     * Returns once everything appended up to {@code position} is on disk.
+     */
+    void awaitDurable(long position);
+}
@@ -0,0 +1,234 @@
+package com.techelevator.tenmo.events;
+
+import com.techelevator.tenmo.model.TransferEvent;
+import com.techelevator.tenmo.model.TransferEventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of transfer events, addressed by offset (0 for the first event ever appended). The log is
+ * split into fixed-size segment files named after the offset of their first record; each segment is memory
+ * mapped, and every record has the same size, so reading an offset is a division and an absolute get.
+ *
+ * There is a single writer (the {@link TransferEventRelay}). Records are written field by field with a CRC
+ * last and only become visible to readers when the end offset is published, so readers never see a
+ * half-written record. On startup the last segment is scanned forward until the first record whose CRC does
+ * not match; that is the end of the log, and anything after it is cleared.
+ */
+@Component
+@ConditionalOnProperty(name = "tenmo.events.enabled", havingValue = "true", matchIfMissing = true)
+public class TransferEventLog {
+
+    static final int RECORD_SIZE = 48;
+    private static final int CRC_POSITION = 40;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final Object appended = new Object();
+    private final CRC32 crc = new CRC32();
+    private volatile long end;
+    private int firstUnforcedSegment;
+
+    @Autowired
+    public TransferEventLog(@Value("${tenmo.events.dir:events}") String directory,
+                            @Value("${tenmo.events.segment-records:65536}") int recordsPerSegment) {
+        this(Paths.get(directory), recordsPerSegment);
+    }
+
+    public TransferEventLog(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            Files.createDirectories(directory);
+            List<Long> bases = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(SUFFIX))
+                        .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+            }
+            bases.sort(null);
+            for (int i = 0; i < bases.size(); i++) {
+                if (bases.get(i) != (long) i * recordsPerSegment) {
+                    throw new IllegalStateException("Event log segment " + segmentPath((long) i * recordsPerSegment)
+                            + " is missing or was written with a different segment size");
+                }
+                segments.add(map(bases.get(i)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open event log in " + directory, e);
+        }
+        end = recover();
+        firstUnforcedSegment = Math.max(0, segments.size() - 1);
+    }
+
+    /**
+     * @return the offset the next appended event will get
+     */
+    public long endOffset() {
+        return end;
+    }
+
+    /**
+     * Appends the events in order. They are readable once this returns but only durable after {@link #force()}.
+     *
+     * @return the new end offset
+     */
+    public synchronized long append(List<TransferEvent> events) {
+        long offset = end;
+        for (TransferEvent event : events) {
+            int segment = (int) (offset / recordsPerSegment);
+            if (segment == segments.size()) {
+                try {
+                    segments.add(map((long) segment * recordsPerSegment));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not create event log segment in " + directory, e);
+                }
+            }
+            write(segments.get(segment), position(offset), event);
+            offset++;
+        }
+        end = offset;
+        synchronized (appended) {
+            appended.notifyAll();
+        }
+        return offset;
+    }
+
+    /**
+     * Flushes every segment written to since the last call to disk.
+     */
+    public synchronized void force() {
+        for (int i = firstUnforcedSegment; i < segments.size(); i++) {
+            segments.get(i).force();
+        }
+        firstUnforcedSegment = Math.max(0, segments.size() - 1);
+    }
+
+    /**
+     * @return up to {@code max} events starting at offset {@code from}; empty if {@code from} is at or past the end
+     */
+    public List<TransferEvent> read(long from, int max) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        long stop = Math.min(end, from + max);
+        List<TransferEvent> events = new ArrayList<>((int) Math.max(0, stop - from));
+        for (long offset = from; offset < stop; offset++) {
+            events.add(decode(segments.get((int) (offset / recordsPerSegment)), position(offset)));
+        }
+        return events;
+    }
+
+    /**
+     * Waits up to {@code waitMillis} for the log to grow past {@code from}.
+     *
+     * @return the end offset when the wait finished
+     */
+    public long awaitEnd(long from, long waitMillis) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        synchronized (appended) {
+            long remaining = waitMillis;
+            while (end <= from && remaining > 0) {
+                try {
+                    appended.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        return end;
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    private long recover() {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        int last = segments.size() - 1;
+        MappedByteBuffer segment = segments.get(last);
+        int valid = 0;
+        while (valid < recordsPerSegment && checksum(segment, valid * RECORD_SIZE) == segment.getInt(valid * RECORD_SIZE + CRC_POSITION)) {
+            valid++;
+        }
+        // a torn record may be followed by pages that reached the disk before it did; never let them count later
+        for (int position = valid * RECORD_SIZE; position < recordsPerSegment * RECORD_SIZE; position += 8) {
+            segment.putLong(position, 0L);
+        }
+        return (long) last * recordsPerSegment + valid;
+    }
+
+    private void write(MappedByteBuffer segment, int position, TransferEvent event) {
+        segment.putLong(position, event.getEventId());
+        segment.putInt(position + 8, event.getTransferId());
+        // the type's fixed code, not its ordinal, so reordering or adding types cannot change what old records mean
+        segment.putInt(position + 12, event.getType().getCode());
+        segment.putInt(position + 16, event.getAccountFrom());
+        segment.putInt(position + 20, event.getAccountTo());
+        segment.putLong(position + 24, event.getAmount().setScale(2).unscaledValue().longValueExact());
+        segment.putLong(position + 32, event.getCreatedAt());
+        segment.putInt(position + CRC_POSITION, checksum(segment, position));
+        segment.putInt(position + 44, 0);
+    }
+
+    private TransferEvent decode(MappedByteBuffer segment, int position) {
+        return new TransferEvent(segment.getLong(position), segment.getInt(position + 8),
+                TransferEventType.fromCode(segment.getInt(position + 12)), segment.getInt(position + 16), segment.getInt(position + 20),
+                BigDecimal.valueOf(segment.getLong(position + 24), 2), segment.getLong(position + 32));
+    }
+
+    private int checksum(MappedByteBuffer segment, int position) {
+        ByteBuffer record = segment.duplicate();
+        record.position(position).limit(position + CRC_POSITION);
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private int position(long offset) {
+        return (int) (offset % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        long size = (long) recordsPerSegment * RECORD_SIZE;
+        Path path = segmentPath(base);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() != 0 && channel.size() != size) {
+                throw new IllegalStateException("Event log segment " + path + " has " + channel.size()
+                        + " bytes, expected " + size);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+}
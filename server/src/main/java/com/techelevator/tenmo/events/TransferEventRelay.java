@@ -0,0 +1,227 @@
+package com.techelevator.tenmo.events;
+
+import com.techelevator.tenmo.dao.TransferVersions;
+import com.techelevator.tenmo.model.TransferEvent;
+import com.techelevator.tenmo.model.TransferEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves events from the transfer_event outbox table, where {@link com.techelevator.tenmo.dao.JdbcTransferDao}
+ * writes them in the same transaction as the change they describe, to the {@link TransferEventLog}. Each
+ * batch is claimed, appended, forced to disk and only then deleted, all in one transaction, so a crash
+ * between the append and the commit delivers the batch again rather than losing it.
+ *
+ * Only one node relays at a time, so one node's log holds the whole stream instead of every node holding part
+ * of it. The relay that takes the {@link #LEADER_LOCK} Postgres advisory lock keeps the connection it took it
+ * on and runs every batch on that connection, which ties relaying to holding the lock: if the connection is
+ * lost, the lock goes with it, the batch fails, and another node's relay takes over on its next poll. Relays
+ * on the other nodes just keep trying for the lock. The leader holds one connection from the pool for as long
+ * as it leads.
+ *
+ * Events are appended in event ID order per batch. Changes to one transfer are serialized by its row lock,
+ * so a transfer's events always appear in the order they happened.
+ *
+ * Every relayed event also bumps the {@link TransferVersions} of both its accounts, so on the relaying node the
+ * list ETags move for changes other nodes committed too.
+ */
+@Component
+// starts its own polling; with lazy initialization nothing would ever ask for it
+@Lazy(false)
+// the outbox only exists in the database, so there is nothing to relay with tenmo.storage=memory
+@ConditionalOnExpression("${tenmo.events.enabled:true} and '${tenmo.storage:jdbc}' == 'jdbc'")
+public class TransferEventRelay {
+
+    static final String LEADER_LOCK = "tenmo_transfer_event_relay";
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransferEventRelay.class);
+
+    private static final String SQL_TRY_LEAD = "SELECT pg_try_advisory_lock(hashtext(?))";
+    private static final String SQL_RESIGN = "SELECT pg_advisory_unlock(hashtext(?))";
+    private static final String SQL_CLAIM = "SELECT event_id, transfer_id, event_type, account_from, account_to, amount, " +
+            "created_at FROM transfer_event ORDER BY event_id LIMIT ?";
+    private static final String SQL_DELETE = "DELETE FROM transfer_event WHERE event_id IN (:ids)";
+
+    private static final RowMapper<TransferEvent> OUTBOX_ROW = (rs, rowNum) -> new TransferEvent(
+            rs.getLong("event_id"),
+            rs.getInt("transfer_id"),
+            TransferEventType.valueOf(rs.getString("event_type")),
+            rs.getInt("account_from"),
+            rs.getInt("account_to"),
+            rs.getBigDecimal("amount"),
+            rs.getTimestamp("created_at").getTime());
+
+    private final TransferEventLog log;
+    private final TransferVersions transferVersions;
+    private final DataSource dataSource;
+    private final long pollMillis;
+    private final int batchSize;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transfer-event-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // set while this relay holds the leader lock; the connection that holds it and templates over it
+    private Connection leaderConnection;
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    public TransferEventRelay(TransferEventLog log, TransferVersions transferVersions, DataSource dataSource,
+                              @Value("${tenmo.events.poll-millis:200}") long pollMillis,
+                              @Value("${tenmo.events.batch-size:500}") int batchSize) {
+        this.log = log;
+        this.transferVersions = transferVersions;
+        this.dataSource = dataSource;
+        this.pollMillis = pollMillis;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (RuntimeException e) {
+                LOG.warn("Could not relay transfer events, retrying: {}", e.getMessage());
+            }
+        }, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Relays everything currently in the outbox, if this relay is or can become the leader.
+     *
+     * @return the number of events appended to the log
+     */
+    public synchronized int relay() {
+        if (!lead()) {
+            return 0;
+        }
+        int total = 0;
+        Integer moved;
+        try {
+            do {
+                moved = transactionTemplate.execute(status -> relayBatch());
+                total += moved;
+            } while (moved == batchSize);
+        } catch (RuntimeException e) {
+            // the lock may have gone with the connection; take it again before relaying anything more
+            resign();
+            throw e;
+        }
+        return total;
+    }
+
+    public synchronized boolean isLeader() {
+        return leaderConnection != null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            resign();
+        }
+    }
+
+    private boolean lead() {
+        if (leaderConnection != null) {
+            return true;
+        }
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            SingleConnectionDataSource leaderDataSource = new SingleConnectionDataSource(connection, true);
+            JdbcTemplate template = new JdbcTemplate(leaderDataSource);
+            if (!Boolean.TRUE.equals(template.queryForObject(SQL_TRY_LEAD, Boolean.class, LEADER_LOCK))) {
+                connection.close();
+                return false;
+            }
+            leaderConnection = connection;
+            jdbcTemplate = template;
+            namedJdbcTemplate = new NamedParameterJdbcTemplate(template);
+            transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(leaderDataSource));
+            LOG.info("This node now relays transfer events");
+            return true;
+        } catch (SQLException e) {
+            close(connection);
+            LOG.warn("Could not try for the relay lock: {}", e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            close(connection);
+            throw e;
+        }
+    }
+
+    private void resign() {
+        if (leaderConnection != null) {
+            // the pool keeps the session open, so the lock has to be released by hand; if the session is gone
+            // the lock went with it
+            try {
+                jdbcTemplate.queryForObject(SQL_RESIGN, Boolean.class, LEADER_LOCK);
+            } catch (RuntimeException e) {
+                LOG.warn("Could not release the relay lock: {}", e.getMessage());
+            }
+            close(leaderConnection);
+            leaderConnection = null;
+            jdbcTemplate = null;
+            namedJdbcTemplate = null;
+            transactionTemplate = null;
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.warn("Could not close the relay connection: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<TransferEvent> events = jdbcTemplate.query(SQL_CLAIM, OUTBOX_ROW, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        log.append(events);
+        log.force();
+        List<Long> ids = new ArrayList<>(events.size());
+        for (TransferEvent event : events) {
+            ids.add(event.getEventId());
+            transferVersions.changed(event.getAccountFrom(), event.getAccountTo());
+        }
+        namedJdbcTemplate.update(SQL_DELETE, new MapSqlParameterSource("ids", ids));
+        return events.size();
+    }
+}
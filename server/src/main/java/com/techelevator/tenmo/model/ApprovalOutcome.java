@@ -0,0 +1,14 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * Result of approving or rejecting a pending request.
+ */
+public enum ApprovalOutcome {
+    APPROVED,
+    REJECTED,
+    /** The payer could not cover the amount; the request has been rejected. */
+    INSUFFICIENT_FUNDS,
+    /** The request was approved or rejected before this call; nothing changed. */
+    ALREADY_RESOLVED,
+    NOT_FOUND
+}
@@ -0,0 +1,42 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * DTO counting the requests in a report's date range by status. {@code approvalRate} is approved over
+ * resolved (approved plus rejected) requests, or 0 if none were resolved.
+ */
+public class ApprovalRatesDTO {
+
+    private long requested;
+    private long pending;
+    private long approved;
+    private long rejected;
+    private double approvalRate;
+
+    public ApprovalRatesDTO(long requested, long pending, long approved, long rejected) {
+        this.requested = requested;
+        this.pending = pending;
+        this.approved = approved;
+        this.rejected = rejected;
+        this.approvalRate = approved + rejected == 0 ? 0 : (double) approved / (approved + rejected);
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public long getApproved() {
+        return approved;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public double getApprovalRate() {
+        return approvalRate;
+    }
+}
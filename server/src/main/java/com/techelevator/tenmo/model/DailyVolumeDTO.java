@@ -0,0 +1,32 @@
+package com.techelevator.tenmo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for the completed transfers of one day: how many there were and how much money they moved.
+ */
+public class DailyVolumeDTO {
+
+    private LocalDate date;
+    private long transfers;
+    private BigDecimal amount;
+
+    public DailyVolumeDTO(LocalDate date, long transfers, BigDecimal amount) {
+        this.date = date;
+        this.transfers = transfers;
+        this.amount = amount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
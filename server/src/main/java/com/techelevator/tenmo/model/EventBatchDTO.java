@@ -0,0 +1,39 @@
+package com.techelevator.tenmo.model;
+
+import java.util.List;
+
+/**
+ * DTO for one read of the event stream: the events at log offsets {@code from} up to (not including)
+ * {@code next}, and the log's end offset at the time of the read. Pass {@code next} as the following
+ * call's {@code from}.
+ */
+public class EventBatchDTO {
+
+    private long from;
+    private long next;
+    private long end;
+    private List<TransferEvent> events;
+
+    public EventBatchDTO(long from, long next, long end, List<TransferEvent> events) {
+        this.from = from;
+        this.next = next;
+        this.end = end;
+        this.events = events;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public List<TransferEvent> getEvents() {
+        return events;
+    }
+}
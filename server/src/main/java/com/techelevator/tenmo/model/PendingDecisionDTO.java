@@ -0,0 +1,34 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * DTO for one entry of a bulk approve/reject call: the pending request and the status to give it
+ * (2 = Approved, 3 = Rejected).
+ */
+public class PendingDecisionDTO {
+
+    private int transferId;
+    private int transferStatusId;
+
+    public PendingDecisionDTO() { }
+
+    public PendingDecisionDTO(int transferId, int transferStatusId) {
+        this.transferId = transferId;
+        this.transferStatusId = transferStatusId;
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public int getTransferStatusId() {
+        return transferStatusId;
+    }
+
+    public void setTransferStatusId(int transferStatusId) {
+        this.transferStatusId = transferStatusId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * DTO reporting what happened to one entry of a bulk approve/reject call.
+ */
+public class PendingDecisionResultDTO {
+
+    private int transferId;
+    private ApprovalOutcome outcome;
+
+    public PendingDecisionResultDTO() { }
+
+    public PendingDecisionResultDTO(int transferId, ApprovalOutcome outcome) {
+        this.transferId = transferId;
+        this.outcome = outcome;
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public ApprovalOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(ApprovalOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingDecisionResultDTO{" +
+                "transferId=" + transferId +
+                ", outcome=" + outcome +
+                '}';
+    }
+}
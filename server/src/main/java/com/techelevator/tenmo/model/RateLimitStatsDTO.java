@@ -0,0 +1,69 @@
+package com.techelevator.tenmo.model;
+
+import java.util.List;
+
+/**
+ * DTO for the rate limiter's counters: how many buckets are held and, per configured route, how many
+ * requests were let through and how many were throttled since startup.
+ */
+public class RateLimitStatsDTO {
+
+    private long trackedBuckets;
+    private List<RouteStats> routes;
+
+    public RateLimitStatsDTO(long trackedBuckets, List<RouteStats> routes) {
+        this.trackedBuckets = trackedBuckets;
+        this.routes = routes;
+    }
+
+    public long getTrackedBuckets() {
+        return trackedBuckets;
+    }
+
+    public List<RouteStats> getRoutes() {
+        return routes;
+    }
+
+    public static class RouteStats {
+
+        private String path;
+        private String method;
+        private int capacity;
+        private double refillPerSecond;
+        private long allowed;
+        private long throttled;
+
+        public RouteStats(String path, String method, int capacity, double refillPerSecond, long allowed, long throttled) {
+            this.path = path;
+            this.method = method;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.allowed = allowed;
+            this.throttled = throttled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public long getAllowed() {
+            return allowed;
+        }
+
+        public long getThrottled() {
+            return throttled;
+        }
+    }
+}
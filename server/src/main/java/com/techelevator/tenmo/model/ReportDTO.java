@@ -0,0 +1,23 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * DTO wrapping a report with the time of the snapshot it was computed from, in epoch milliseconds.
+ */
+public class ReportDTO<T> {
+
+    private long asOf;
+    private T report;
+
+    public ReportDTO(long asOf, T report) {
+        this.asOf = asOf;
+        this.report = report;
+    }
+
+    public long getAsOf() {
+        return asOf;
+    }
+
+    public T getReport() {
+        return report;
+    }
+}
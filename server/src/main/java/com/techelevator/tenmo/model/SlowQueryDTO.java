@@ -0,0 +1,69 @@
+package com.techelevator.tenmo.model;
+
+import java.time.Instant;
+
+/**
+ * DTO for one normalized statement in the slow-query log: how often and how long it ran over the threshold,
+ * the DAO method that last ran it, and its most recently captured plan (null until one has been captured).
+ */
+public class SlowQueryDTO {
+
+    private String fingerprint;
+    private String daoMethod;
+    private long count;
+    private double totalMillis;
+    private double maxMillis;
+    private double meanMillis;
+    private Instant lastSeen;
+    private String plan;
+    private Instant planCapturedAt;
+
+    public SlowQueryDTO(String fingerprint, String daoMethod, long count, double totalMillis, double maxMillis,
+                        double meanMillis, Instant lastSeen, String plan, Instant planCapturedAt) {
+        this.fingerprint = fingerprint;
+        this.daoMethod = daoMethod;
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.meanMillis = meanMillis;
+        this.lastSeen = lastSeen;
+        this.plan = plan;
+        this.planCapturedAt = planCapturedAt;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getDaoMethod() {
+        return daoMethod;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public Instant getLastSeen() {
+        return lastSeen;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public Instant getPlanCapturedAt() {
+        return planCapturedAt;
+    }
+}
@@ -0,0 +1,104 @@
+package com.techelevator.tenmo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One state change of a transfer, as published on the event stream. {@code eventId} is unique and
+ * increasing per transfer; the same event may be delivered more than once, so consumers should
+ * ignore event IDs they have already seen. Accounts are account IDs, as stored on the transfer.
+ */
+public class TransferEvent {
+
+    private long eventId;
+    private int transferId;
+    private TransferEventType type;
+    private int accountFrom;
+    private int accountTo;
+    private BigDecimal amount;
+    private long createdAt;
+
+    public TransferEvent() { }
+
+    public TransferEvent(long eventId, int transferId, TransferEventType type, int accountFrom, int accountTo,
+                         BigDecimal amount, long createdAt) {
+        this.eventId = eventId;
+        this.transferId = transferId;
+        this.type = type;
+        this.accountFrom = accountFrom;
+        this.accountTo = accountTo;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public TransferEventType getType() {
+        return type;
+    }
+
+    public void setType(TransferEventType type) {
+        this.type = type;
+    }
+
+    public int getAccountFrom() {
+        return accountFrom;
+    }
+
+    public void setAccountFrom(int accountFrom) {
+        this.accountFrom = accountFrom;
+    }
+
+    public int getAccountTo() {
+        return accountTo;
+    }
+
+    public void setAccountTo(int accountTo) {
+        this.accountTo = accountTo;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * @return when the change was written to the outbox, in epoch milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferEvent{" +
+                "eventId=" + eventId +
+                ", transferId=" + transferId +
+                ", type=" + type +
+                ", accountFrom=" + accountFrom +
+                ", accountTo=" + accountTo +
+                ", amount=" + amount +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
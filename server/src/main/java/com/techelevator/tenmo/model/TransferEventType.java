@@ -0,0 +1,35 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * Kind of state change recorded in the transfer event stream. Each kind has a fixed code, which is what the
+ * event log stores; new kinds take a new code, and existing codes never change or get reused.
+ */
+public enum TransferEventType {
+    /** A request for money was created and is pending. */
+    REQUESTED(0),
+    /** A send completed; the money has moved. */
+    SENT(1),
+    /** A pending request was approved and the money has moved. */
+    APPROVED(2),
+    /** A pending request was rejected, by the payer or because the payer could not cover it. */
+    REJECTED(3);
+
+    private final int code;
+
+    TransferEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static TransferEventType fromCode(int code) {
+        for (TransferEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transfer event code " + code);
+    }
+}
@@ -1,9 +1,13 @@
 package com.techelevator.tenmo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+@JsonPropertyOrder({"id", "username", "activated", "authorities"})
 public class User {
 
    private Long id;
@@ -11,6 +15,8 @@ public class User {
    private String password;
    private boolean activated;
    private Set<Authority> authorities = new HashSet<>();
+   @JsonIgnore
+   private int accountId;
 
    public User() { }
 
@@ -37,6 +43,8 @@ public class User {
       this.username = username;
    }
 
+   // the bcrypt hash is only for checking logins and never leaves the server
+   @JsonIgnore
    public String getPassword() {
       return password;
    }
@@ -45,6 +53,15 @@ public class User {
       this.password = password;
    }
 
+   @JsonIgnore
+   public int getAccountId() {
+      return accountId;
+   }
+
+   public void setAccountId(int accountId) {
+      this.accountId = accountId;
+   }
+
    public boolean isActivated() {
       return activated;
    }
@@ -0,0 +1,31 @@
+package com.techelevator.tenmo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one user's completed transfers on one side (sent or received) within a report's date range.
+ */
+public class UserVolumeDTO {
+
+    private String username;
+    private long transfers;
+    private BigDecimal amount;
+
+    public UserVolumeDTO(String username, long transfers, BigDecimal amount) {
+        this.username = username;
+        this.transfers = transfers;
+        this.amount = amount;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,11 @@
+package com.techelevator.tenmo.model;
+
+/**
+ * Result of taking money out of an account.
+ */
+public enum WithdrawalOutcome {
+    WITHDRAWN,
+    /** The balance does not cover the amount; nothing changed. */
+    INSUFFICIENT_FUNDS,
+    NOT_FOUND
+}
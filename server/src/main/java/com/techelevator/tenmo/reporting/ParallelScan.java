@@ -0,0 +1,69 @@
+package com.techelevator.tenmo.reporting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join scan over a row range. Ranges above the threshold are split in half. Each worker thread adds its
+ * leaves into one array of {@code width} counters of its own, and the arrays are summed once when the scan is
+ * done, so a scan allocates and merges one array per worker rather than one per leaf.
+ */
+class ParallelScan extends RecursiveAction {
+
+    static final int LEAF_ROWS = 16 * 1024;
+
+    /**
+     * Adds the rows from {@code start} (inclusive) to {@code end} (exclusive) into {@code totals}.
+     */
+    interface Accumulator {
+        void accumulate(int start, int end, long[] totals);
+    }
+
+    private final Accumulator accumulator;
+    private final int width;
+    private final int start;
+    private final int end;
+    private final Map<Thread, long[]> totalsByWorker;
+
+    private ParallelScan(Accumulator accumulator, int width, int start, int end, Map<Thread, long[]> totalsByWorker) {
+        this.accumulator = accumulator;
+        this.width = width;
+        this.start = start;
+        this.end = end;
+        this.totalsByWorker = totalsByWorker;
+    }
+
+    /**
+     * @return the totals of all rows from 0 to {@code rows}, scanned on {@code pool}
+     */
+    static long[] run(ForkJoinPool pool, Accumulator accumulator, int width, int rows) {
+        Map<Thread, long[]> totalsByWorker = new ConcurrentHashMap<>();
+        pool.invoke(new ParallelScan(accumulator, width, 0, rows, totalsByWorker));
+        long[] totals = null;
+        for (long[] workerTotals : totalsByWorker.values()) {
+            if (totals == null) {
+                totals = workerTotals;
+            } else {
+                for (int i = 0; i < width; i++) {
+                    totals[i] += workerTotals[i];
+                }
+            }
+        }
+        return totals != null ? totals : new long[width];
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= LEAF_ROWS) {
+            // only this thread writes its array, and the scan's join publishes it to the merge
+            long[] totals = totalsByWorker.computeIfAbsent(Thread.currentThread(), worker -> new long[width]);
+            accumulator.accumulate(start, end, totals);
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        invokeAll(new ParallelScan(accumulator, width, start, middle, totalsByWorker),
+                new ParallelScan(accumulator, width, middle, end, totalsByWorker));
+    }
+}
@@ -0,0 +1,140 @@
+package com.techelevator.tenmo.reporting;
+
+import com.techelevator.tenmo.model.ApprovalRatesDTO;
+import com.techelevator.tenmo.model.DailyVolumeDTO;
+import com.techelevator.tenmo.model.UserVolumeDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Aggregate queries over a {@link ReportingSnapshot}, run as parallel scans on a dedicated fork/join pool so
+ * reports never compete with request threads or the common pool. Date ranges are inclusive and refer to the
+ * day a transfer was completed (created, for requests still pending).
+ */
+@Component
+public class ReportQueries {
+
+    private static final int TRANSFER_TYPE_ID_REQUEST = 1;
+    private static final int TRANSFER_STATUS_ID_PENDING = 1;
+    private static final int TRANSFER_STATUS_ID_APPROVED = 2;
+    private static final int TRANSFER_STATUS_ID_REJECTED = 3;
+
+    private final ForkJoinPool pool;
+
+    public ReportQueries(@Value("${tenmo.reporting.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return count and total of completed transfers for every day from {@code from} to {@code to}, including
+     * days without any
+     */
+    public List<DailyVolumeDTO> dailyVolume(ReportingSnapshot snapshot, LocalDate from, LocalDate to) {
+        int firstDay = (int) from.toEpochDay();
+        int dayCount = (int) (to.toEpochDay() - firstDay + 1);
+        byte[] statusIds = snapshot.statusIds();
+        int[] days = snapshot.days();
+        long[] amountCents = snapshot.amountCents();
+        long[] totals = scan(snapshot, 2 * dayCount, (start, end, sums) -> {
+            for (int row = start; row < end; row++) {
+                int day = days[row] - firstDay;
+                if (statusIds[row] == TRANSFER_STATUS_ID_APPROVED && day >= 0 && day < dayCount) {
+                    sums[2 * day]++;
+                    sums[2 * day + 1] += amountCents[row];
+                }
+            }
+        });
+        List<DailyVolumeDTO> volume = new ArrayList<>(dayCount);
+        for (int day = 0; day < dayCount; day++) {
+            volume.add(new DailyVolumeDTO(from.plusDays(day), totals[2 * day], BigDecimal.valueOf(totals[2 * day + 1], 2)));
+        }
+        return volume;
+    }
+
+    /**
+     * @return the users who paid the most in completed transfers, largest first
+     */
+    public List<UserVolumeDTO> topSenders(ReportingSnapshot snapshot, LocalDate from, LocalDate to, int limit) {
+        return topUsers(snapshot, snapshot.fromUsers(), from, to, limit);
+    }
+
+    /**
+     * @return the users who were paid the most in completed transfers, largest first
+     */
+    public List<UserVolumeDTO> topReceivers(ReportingSnapshot snapshot, LocalDate from, LocalDate to, int limit) {
+        return topUsers(snapshot, snapshot.toUsers(), from, to, limit);
+    }
+
+    public ApprovalRatesDTO approvalRates(ReportingSnapshot snapshot, LocalDate from, LocalDate to) {
+        int firstDay = (int) from.toEpochDay();
+        int lastDay = (int) to.toEpochDay();
+        byte[] typeIds = snapshot.typeIds();
+        byte[] statusIds = snapshot.statusIds();
+        int[] days = snapshot.days();
+        long[] byStatus = scan(snapshot, 4, (start, end, sums) -> {
+            for (int row = start; row < end; row++) {
+                if (typeIds[row] == TRANSFER_TYPE_ID_REQUEST && days[row] >= firstDay && days[row] <= lastDay) {
+                    sums[statusIds[row]]++;
+                }
+            }
+        });
+        long pending = byStatus[TRANSFER_STATUS_ID_PENDING];
+        long approved = byStatus[TRANSFER_STATUS_ID_APPROVED];
+        long rejected = byStatus[TRANSFER_STATUS_ID_REJECTED];
+        return new ApprovalRatesDTO(pending + approved + rejected, pending, approved, rejected);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<UserVolumeDTO> topUsers(ReportingSnapshot snapshot, int[] users, LocalDate from, LocalDate to, int limit) {
+        int firstDay = (int) from.toEpochDay();
+        int lastDay = (int) to.toEpochDay();
+        byte[] statusIds = snapshot.statusIds();
+        int[] days = snapshot.days();
+        long[] amountCents = snapshot.amountCents();
+        long[] totals = scan(snapshot, 2 * snapshot.userCount(), (start, end, sums) -> {
+            for (int row = start; row < end; row++) {
+                if (statusIds[row] == TRANSFER_STATUS_ID_APPROVED && days[row] >= firstDay && days[row] <= lastDay) {
+                    sums[2 * users[row]]++;
+                    sums[2 * users[row] + 1] += amountCents[row];
+                }
+            }
+        });
+
+        // keep the current top `limit` users with the smallest of them at the head
+        Comparator<Integer> byAmount = Comparator.<Integer>comparingLong(user -> totals[2 * user + 1])
+                .thenComparing(snapshot::username, Comparator.reverseOrder());
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, byAmount);
+        for (int user = 0; user < snapshot.userCount(); user++) {
+            if (totals[2 * user] > 0) {
+                top.add(user);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(top);
+        ranked.sort(byAmount.reversed());
+        List<UserVolumeDTO> result = new ArrayList<>(ranked.size());
+        for (int user : ranked) {
+            result.add(new UserVolumeDTO(snapshot.username(user), totals[2 * user], BigDecimal.valueOf(totals[2 * user + 1], 2)));
+        }
+        return result;
+    }
+
+    private long[] scan(ReportingSnapshot snapshot, int width, ParallelScan.Accumulator accumulator) {
+        return ParallelScan.run(pool, accumulator, width, snapshot.transferCount());
+    }
+}
@@ -0,0 +1,167 @@
+package com.techelevator.tenmo.reporting;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the transfer and account tables for reporting. Each transfer column is a
+ * primitive array indexed by row; amounts are in cents, dates are epoch days, and users are dictionary codes
+ * into {@link #username(int)}, so a scan touches only the arrays it needs and never allocates per row.
+ * Transfers refer to users rather than accounts: the account to user mapping is resolved when the snapshot
+ * is built.
+ */
+public class ReportingSnapshot {
+
+    public static final ReportingSnapshot EMPTY = new Builder().build(0);
+
+    private final long asOf;
+    private final int transferCount;
+    private final int[] transferIds;
+    private final byte[] typeIds;
+    private final byte[] statusIds;
+    private final int[] fromUsers;
+    private final int[] toUsers;
+    private final long[] amountCents;
+    private final int[] days;
+    private final String[] usernames;
+
+    private ReportingSnapshot(Builder builder, long asOf) {
+        this.asOf = asOf;
+        this.transferCount = builder.transferCount;
+        this.transferIds = Arrays.copyOf(builder.transferIds, transferCount);
+        this.typeIds = Arrays.copyOf(builder.typeIds, transferCount);
+        this.statusIds = Arrays.copyOf(builder.statusIds, transferCount);
+        this.fromUsers = Arrays.copyOf(builder.fromUsers, transferCount);
+        this.toUsers = Arrays.copyOf(builder.toUsers, transferCount);
+        this.amountCents = Arrays.copyOf(builder.amountCents, transferCount);
+        this.days = Arrays.copyOf(builder.days, transferCount);
+        this.usernames = Arrays.copyOf(builder.usernames, builder.userCount);
+    }
+
+    /**
+     * @return when the data was read, in epoch milliseconds; 0 if it never was
+     */
+    public long getAsOf() {
+        return asOf;
+    }
+
+    public int transferCount() {
+        return transferCount;
+    }
+
+    public int userCount() {
+        return usernames.length;
+    }
+
+    public String username(int userCode) {
+        return usernames[userCode];
+    }
+
+    int[] transferIds() {
+        return transferIds;
+    }
+
+    byte[] typeIds() {
+        return typeIds;
+    }
+
+    byte[] statusIds() {
+        return statusIds;
+    }
+
+    int[] fromUsers() {
+        return fromUsers;
+    }
+
+    int[] toUsers() {
+        return toUsers;
+    }
+
+    long[] amountCents() {
+        return amountCents;
+    }
+
+    /**
+     * @return per transfer, the epoch day it was resolved on (created on, while pending)
+     */
+    int[] days() {
+        return days;
+    }
+
+    /**
+     * Collects rows in arrival order. Users and accounts must be added before the transfers that refer to them.
+     */
+    public static class Builder {
+
+        private final Map<Integer, Integer> userCodes = new HashMap<>();
+        private final Map<Integer, Integer> accountUsers = new HashMap<>();
+        private String[] usernames = new String[64];
+        private int userCount;
+        private int[] transferIds = new int[1024];
+        private byte[] typeIds = new byte[1024];
+        private byte[] statusIds = new byte[1024];
+        private int[] fromUsers = new int[1024];
+        private int[] toUsers = new int[1024];
+        private long[] amountCents = new long[1024];
+        private int[] days = new int[1024];
+        private int transferCount;
+
+        public Builder addUser(int userId, String username) {
+            if (userCount == usernames.length) {
+                usernames = Arrays.copyOf(usernames, userCount * 2);
+            }
+            userCodes.put(userId, userCount);
+            usernames[userCount++] = username;
+            return this;
+        }
+
+        public Builder addAccount(int accountId, int userId) {
+            accountUsers.put(accountId, userId);
+            return this;
+        }
+
+        public Builder addTransfer(int transferId, int typeId, int statusId, int accountFrom, int accountTo,
+                                   BigDecimal amount, LocalDate day) {
+            if (transferCount == transferIds.length) {
+                int capacity = transferCount * 2;
+                transferIds = Arrays.copyOf(transferIds, capacity);
+                typeIds = Arrays.copyOf(typeIds, capacity);
+                statusIds = Arrays.copyOf(statusIds, capacity);
+                fromUsers = Arrays.copyOf(fromUsers, capacity);
+                toUsers = Arrays.copyOf(toUsers, capacity);
+                amountCents = Arrays.copyOf(amountCents, capacity);
+                days = Arrays.copyOf(days, capacity);
+            }
+            int row = transferCount++;
+            transferIds[row] = transferId;
+            typeIds[row] = (byte) typeId;
+            statusIds[row] = (byte) statusId;
+            fromUsers[row] = userCode(accountFrom);
+            toUsers[row] = userCode(accountTo);
+            amountCents[row] = amount.setScale(2).unscaledValue().longValueExact();
+            days[row] = (int) day.toEpochDay();
+            return this;
+        }
+
+        public ReportingSnapshot build(long asOf) {
+            return new ReportingSnapshot(this, asOf);
+        }
+
+        private int userCode(int accountId) {
+            Integer userId = accountUsers.get(accountId);
+            Integer code = userId == null ? null : userCodes.get(userId);
+            if (code == null) {
+                // a row added after the users were read; report it under the account rather than drop it
+                addUser(userId == null ? -accountId : userId, "account " + accountId);
+                code = userCount - 1;
+                if (userId == null) {
+                    accountUsers.put(accountId, -accountId);
+                }
+            }
+            return code;
+        }
+    }
+}
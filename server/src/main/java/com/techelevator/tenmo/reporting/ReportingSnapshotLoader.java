@@ -0,0 +1,117 @@
+package com.techelevator.tenmo.reporting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the {@link ReportingSnapshot} on a schedule, so report requests only ever read memory. Each refresh
+ * reads account and transfer once, sequentially, in a single read-only REPEATABLE READ transaction, so the two
+ * tables are consistent with each other. With tenmo.reporting.datasource.url set the reads go to that
+ * database (a replica, say) instead of the primary.
+ */
+@Component
+// build the first snapshot in the background at startup, not on the first report request
+@Lazy(false)
+@ConditionalOnProperty(name = "tenmo.storage", havingValue = "jdbc", matchIfMissing = true)
+public class ReportingSnapshotLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportingSnapshotLoader.class);
+
+    private static final String SQL_USERS = "SELECT user_id, username FROM tenmo_user";
+    private static final String SQL_ACCOUNTS = "SELECT account_id, user_id FROM account";
+    private static final String SQL_TRANSFERS = "SELECT transfer_id, transfer_type_id, transfer_status_id, account_from, " +
+            "account_to, amount, COALESCE(resolved_at, created_at) AS settled_at FROM transfer";
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long refreshSeconds;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reporting-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ReportingSnapshot snapshot = ReportingSnapshot.EMPTY;
+
+    @Autowired
+    public ReportingSnapshotLoader(DataSource dataSource,
+                                   @Value("${tenmo.reporting.datasource.url:}") String url,
+                                   @Value("${tenmo.reporting.datasource.username:}") String username,
+                                   @Value("${tenmo.reporting.datasource.password:}") String password,
+                                   @Value("${tenmo.reporting.refresh-seconds:300}") long refreshSeconds) {
+        this(url.isEmpty() ? dataSource : DataSourceBuilder.create().url(url).username(username).password(password).build(),
+                refreshSeconds);
+    }
+
+    public ReportingSnapshotLoader(DataSource dataSource, long refreshSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                LOG.warn("Could not refresh the reporting snapshot, keeping the previous one: {}", e.getMessage());
+            }
+        }, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the latest snapshot; {@link ReportingSnapshot#EMPTY} until the first refresh completes
+     */
+    public ReportingSnapshot current() {
+        return snapshot;
+    }
+
+    public ReportingSnapshot refresh() {
+        ReportingSnapshot loaded = transactionTemplate.execute(status -> {
+            long asOf = System.currentTimeMillis();
+            ReportingSnapshot.Builder builder = new ReportingSnapshot.Builder();
+            jdbcTemplate.query(SQL_USERS, rs -> {
+                builder.addUser(rs.getInt("user_id"), rs.getString("username"));
+            });
+            jdbcTemplate.query(SQL_ACCOUNTS, rs -> {
+                builder.addAccount(rs.getInt("account_id"), rs.getInt("user_id"));
+            });
+            jdbcTemplate.query(SQL_TRANSFERS, rs -> {
+                Timestamp settledAt = rs.getTimestamp("settled_at");
+                builder.addTransfer(rs.getInt("transfer_id"), rs.getInt("transfer_type_id"), rs.getInt("transfer_status_id"),
+                        rs.getInt("account_from"), rs.getInt("account_to"), rs.getBigDecimal("amount"),
+                        settledAt.toLocalDateTime().toLocalDate());
+            });
+            return builder.build(asOf);
+        });
+        snapshot = loaded;
+        return loaded;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
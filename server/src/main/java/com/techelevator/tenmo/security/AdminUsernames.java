@@ -0,0 +1,44 @@
+package com.techelevator.tenmo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The users who are granted ROLE_ADMIN on top of ROLE_USER, read from tenmo.security.admin-usernames
+ * (comma-separated, matched ignoring case like logins are). The user DAOs ask it for each user's roles, so the
+ * grant ends up in the token like any other authority. Nobody is an admin unless named here. /register refuses
+ * these names, so an admin's user has to exist before its name is listed, or be created in the database.
+ */
+@Component
+public class AdminUsernames {
+
+    public static final AdminUsernames NONE = new AdminUsernames(new String[0]);
+
+    private static final String USER = "USER";
+    private static final String USER_AND_ADMIN = "USER,ADMIN";
+
+    private final Set<String> usernames = new TreeSet<>();
+
+    public AdminUsernames(@Value("${tenmo.security.admin-usernames:}") String[] usernames) {
+        for (String username : usernames) {
+            if (!username.trim().isEmpty()) {
+                this.usernames.add(username.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    public boolean isAdmin(String username) {
+        return username != null && usernames.contains(username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the user's roles in the form {@link com.techelevator.tenmo.model.User#setAuthorities(String)} takes
+     */
+    public String rolesOf(String username) {
+        return isAdmin(username) ? USER_AND_ADMIN : USER;
+    }
+}
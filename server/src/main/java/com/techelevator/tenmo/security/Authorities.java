@@ -0,0 +1,76 @@
+package com.techelevator.tenmo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The granted authorities, shared rather than built for every login and request. There are only a few roles,
+ * so each name maps to one {@link GrantedAuthority}, and each auth claim (the comma-separated names signed into
+ * a token) maps to one immutable list of them. Authenticating a request then allocates no authority objects or
+ * collections.
+ */
+public final class Authorities {
+
+    public static final GrantedAuthority USER = new SimpleGrantedAuthority("ROLE_USER");
+    public static final GrantedAuthority ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+
+    // claims only come from tokens this server signed, but never let the cache grow without bound
+    private static final int MAX_CLAIMS = 64;
+
+    private static final ConcurrentHashMap<String, GrantedAuthority> BY_NAME = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, List<GrantedAuthority>> BY_CLAIM = new ConcurrentHashMap<>();
+
+    static {
+        BY_NAME.put(USER.getAuthority(), USER);
+        BY_NAME.put(ADMIN.getAuthority(), ADMIN);
+        BY_CLAIM.put(USER.getAuthority(), List.of(USER));
+        BY_CLAIM.put(ADMIN.getAuthority(), List.of(ADMIN));
+    }
+
+    private Authorities() {
+    }
+
+    public static GrantedAuthority of(String name) {
+        GrantedAuthority authority = BY_NAME.get(name);
+        return authority != null ? authority : BY_NAME.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @return the authorities named in a comma-separated claim, as a shared immutable list
+     */
+    public static List<GrantedAuthority> fromClaim(String claim) {
+        List<GrantedAuthority> authorities = BY_CLAIM.get(claim);
+        if (authorities != null) {
+            return authorities;
+        }
+        String[] names = claim.isEmpty() ? new String[0] : claim.split(",");
+        GrantedAuthority[] parsed = new GrantedAuthority[names.length];
+        for (int i = 0; i < names.length; i++) {
+            parsed[i] = of(names[i]);
+        }
+        authorities = List.of(parsed);
+        if (BY_CLAIM.size() < MAX_CLAIMS) {
+            BY_CLAIM.putIfAbsent(claim, authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * @return the claim that {@link #fromClaim} turns back into these authorities
+     */
+    public static String toClaim(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities.size() == 1) {
+            return authorities.iterator().next().getAuthority();
+        }
+        StringJoiner claim = new StringJoiner(",");
+        for (GrantedAuthority authority : authorities) {
+            claim.add(authority.getAuthority());
+        }
+        return claim.toString();
+    }
+}
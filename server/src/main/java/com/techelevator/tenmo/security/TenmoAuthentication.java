@@ -0,0 +1,64 @@
+package com.techelevator.tenmo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * The authentication installed for a request that carried a valid token. It is authenticated from the start
+ * and never changes, and shares the principal's authorities instead of copying them the way
+ * {@code UsernamePasswordAuthenticationToken} does.
+ */
+public final class TenmoAuthentication implements Authentication {
+
+    private final TenmoPrincipal principal;
+    private final String token;
+
+    public TenmoAuthentication(TenmoPrincipal principal, String token) {
+        this.principal = principal;
+        this.token = token;
+    }
+
+    @Override
+    public TenmoPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public String getCredentials() {
+        return token;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) {
+            throw new IllegalArgumentException("A token authentication cannot be marked unauthenticated");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public String toString() {
+        return "TenmoAuthentication{" + principal + '}';
+    }
+}
@@ -0,0 +1,97 @@
+package com.techelevator.tenmo.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * The authenticated user, with the user and account IDs that were signed into the token at login, so
+ * controllers can hand them straight to the DAOs. Inject with {@code @AuthenticationPrincipal}.
+ *
+ * One is built for every request, so unlike Spring's {@code User} it keeps the authorities it is given instead
+ * of copying them into a sorted set; pass an immutable collection such as the ones from {@link Authorities}.
+ * Only the password can change, and only to be erased once a login has been checked.
+ */
+public class TenmoPrincipal implements UserDetails, CredentialsContainer {
+
+    private final String username;
+    private String password;
+    private final int userId;
+    private final int accountId;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public TenmoPrincipal(String username, String password, int userId, int accountId,
+                          Collection<? extends GrantedAuthority> authorities) {
+        this.username = username;
+        this.password = password;
+        this.userId = userId;
+        this.accountId = accountId;
+        this.authorities = authorities;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TenmoPrincipal && username.equals(((TenmoPrincipal) o).username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TenmoPrincipal{username=" + username + ", userId=" + userId + ", accountId=" + accountId
+                + ", authorities=" + authorities + '}';
+    }
+}
@@ -2,17 +2,15 @@ package com.techelevator.tenmo.security;
 
 
 import com.techelevator.tenmo.dao.UserDao;
+import com.techelevator.tenmo.model.Authority;
 import com.techelevator.tenmo.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.StringJoiner;
 
 /**
  * Authenticate a user from the database.
@@ -35,16 +33,19 @@ public class UserModelDetailsService implements UserDetailsService {
         return createSpringSecurityUser(lowercaseLogin, userDao.findByUsername(lowercaseLogin));
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
+    private TenmoPrincipal createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<GrantedAuthority> grantedAuthorities = user.getAuthorities().stream()
-                .map(authority -> new SimpleGrantedAuthority(authority.getName()))
-                .collect(Collectors.toList());
-        return new org.springframework.security.core.userdetails.User(user.getUsername(),
+        StringJoiner names = new StringJoiner(",");
+        for (Authority authority : user.getAuthorities()) {
+            names.add(authority.getName());
+        }
+        return new TenmoPrincipal(user.getUsername(),
                 user.getPassword(),
-                grantedAuthorities);
+                user.getId().intValue(),
+                user.getAccountId(),
+                Authorities.fromClaim(names.toString()));
     }
 }
 
@@ -1,5 +1,7 @@
 package com.techelevator.tenmo.security.jwt;
 
+import com.techelevator.tenmo.tracing.Span;
+import com.techelevator.tenmo.tracing.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
@@ -37,8 +39,13 @@ public class JWTFilter extends GenericFilterBean {
         String jwt = resolveToken(httpServletRequest);
         String requestURI = httpServletRequest.getRequestURI();
 
-        if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-            Authentication authentication = tokenProvider.getAuthentication(jwt);
+        Authentication authentication = null;
+        if (StringUtils.hasText(jwt)) {
+            try (Span span = Tracing.start("jwt")) {
+                authentication = tokenProvider.authenticate(jwt);
+            }
+        }
+        if (authentication != null) {
             SecurityContextHolder.getContext().setAuthentication(authentication);
             LOG.debug("set Authentication to com.techelevator.tenmo.security context for '{}', uri: {}", authentication.getName(), requestURI);
         } else {
@@ -1,5 +1,8 @@
 package com.techelevator.tenmo.security.jwt;
 
+import com.techelevator.tenmo.security.Authorities;
+import com.techelevator.tenmo.security.TenmoAuthentication;
+import com.techelevator.tenmo.security.TenmoPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -7,18 +10,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.Date;
-import java.util.stream.Collectors;
 
 @Component
 public class TokenProvider implements InitializingBean {
@@ -26,12 +22,15 @@ public class TokenProvider implements InitializingBean {
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
+    private static final String USER_ID_KEY = "uid";
+    private static final String ACCOUNT_ID_KEY = "aid";
 
     private final String base64Secret;
     private final long tokenValidityInMilliseconds;
     private final long tokenValidityInMillisecondsForRememberMe;
 
     private Key key;
+    private JwtParser parser;
 
 
     public TokenProvider(
@@ -47,12 +46,11 @@ public class TokenProvider implements InitializingBean {
     public void afterPropertiesSet() {
         byte[] keyBytes = Decoders.BASE64.decode(base64Secret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
+        String authorities = Authorities.toClaim(authentication.getAuthorities());
 
         long now = (new Date()).getTime();
         Date validity;
@@ -62,35 +60,54 @@ public class TokenProvider implements InitializingBean {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(authentication.getName())
-                .claim(AUTHORITIES_KEY, authorities)
+                .claim(AUTHORITIES_KEY, authorities);
+        if (authentication.getPrincipal() instanceof TenmoPrincipal) {
+            TenmoPrincipal principal = (TenmoPrincipal) authentication.getPrincipal();
+            builder.claim(USER_ID_KEY, principal.getUserId())
+                    .claim(ACCOUNT_ID_KEY, principal.getAccountId());
+        }
+        return builder
                 .signWith(key, SignatureAlgorithm.HS512)
                 .setExpiration(validity)
                 .compact();
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return authenticationOf(parser.parseClaimsJws(token).getBody(), token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+    public boolean validateToken(String authToken) {
+        return validClaims(authToken) != null;
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Checks the token and builds its authentication with a single parse, for the per-request filter.
+     *
+     * @return the authentication, or null if the token is not valid
+     */
+    public Authentication authenticate(String token) {
+        Claims claims = validClaims(token);
+        return claims == null ? null : authenticationOf(claims, token);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    private Authentication authenticationOf(Claims claims, String token) {
+        TenmoPrincipal principal = new TenmoPrincipal(claims.getSubject(), "",
+                claims.get(USER_ID_KEY, Integer.class), claims.get(ACCOUNT_ID_KEY, Integer.class),
+                Authorities.fromClaim(claims.get(AUTHORITIES_KEY, String.class)));
+        return new TenmoAuthentication(principal, token);
     }
 
-    public boolean validateToken(String authToken) {
+    private Claims validClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            if (claims.get(USER_ID_KEY) == null || claims.get(ACCOUNT_ID_KEY) == null) {
+                // issued before tokens carried the IDs; the user has to log in again
+                log.info("JWT token without user and account IDs.");
+                return null;
+            }
+            return claims;
         } catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e) {
             log.info("Invalid JWT signature.");
             log.trace("Invalid JWT signature trace: {}", e);
@@ -104,6 +121,6 @@ public class TokenProvider implements InitializingBean {
             log.info("JWT token compact of handler are invalid.");
             log.trace("JWT token compact of handler are invalid trace: {}", e);
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,79 @@
+package com.techelevator.tenmo.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process {@link RateLimitStore}. Each bucket is a single AtomicLong holding the time at which it will
+ * be full again (the "theoretical arrival time" form of a token bucket), so taking a token is one
+ * compare-and-set and needs no lock. A full bucket carries no state, so buckets that have been idle long
+ * enough to refill are dropped by a sweep that runs at most once per sweep interval.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private static final long DEFAULT_SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweep;
+
+    public LocalRateLimitStore() {
+        this(System::nanoTime, DEFAULT_SWEEP_INTERVAL_NANOS);
+    }
+
+    public LocalRateLimitStore(LongSupplier clock, long sweepIntervalNanos) {
+        this.clock = clock;
+        this.sweepIntervalNanos = sweepIntervalNanos;
+        this.nextSweep = new AtomicLong(clock.getAsLong() + sweepIntervalNanos);
+    }
+
+    @Override
+    public long tryAcquire(String key, long intervalNanos, int capacity) {
+        long now = clock.getAsLong();
+        maybeSweep(now);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        long burstNanos = intervalNanos * (capacity - 1);
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now < 0 ? now : fullAt;
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops every bucket that has refilled completely.
+     */
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            long fullAt = entry.getValue().get();
+            if (fullAt - now <= 0) {
+                // a token taken concurrently with the removal is forgotten, which errs towards allowing
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void maybeSweep(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            ForkJoinPool.commonPool().execute(this::sweep);
+        }
+    }
+}
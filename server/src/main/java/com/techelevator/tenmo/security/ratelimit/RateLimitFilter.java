@@ -0,0 +1,52 @@
+package com.techelevator.tenmo.security.ratelimit;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.GenericFilterBean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs after the JWT filter so that authenticated callers are limited by principal. Requests over the
+ * limit are answered with 429 Too Many Requests and a Retry-After header in seconds.
+ */
+public class RateLimitFilter extends GenericFilterBean {
+
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        long wait = rateLimiter.acquire(request, caller(request));
+        if (wait > 0) {
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            long seconds = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setHeader("Retry-After", Long.toString(seconds));
+            response.sendError(SC_TOO_MANY_REQUESTS, "Rate limit exceeded, retry in " + seconds + "s");
+            return;
+        }
+        filterChain.doFilter(servletRequest, servletResponse);
+    }
+
+    private String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
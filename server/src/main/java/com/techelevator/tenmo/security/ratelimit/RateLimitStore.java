@@ -0,0 +1,25 @@
+package com.techelevator.tenmo.security.ratelimit;
+
+/**
+ * Holds the token buckets behind {@link RateLimiter}. {@link LocalRateLimitStore} keeps them in this
+ * process; a deployment running several nodes can register its own RateLimitStore bean backed by a
+ * shared store so that all nodes draw from the same buckets.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket for {@code key}, creating a full bucket if there is none.
+     *
+     * @param intervalNanos time to refill one token
+     * @param capacity      the most tokens the bucket holds
+     * @return 0 if a token was taken, otherwise how many nanoseconds until one is available
+     */
+    long tryAcquire(String key, long intervalNanos, int capacity);
+
+    /**
+     * @return number of buckets currently held, or -1 if the store does not know
+     */
+    default long size() {
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package com.techelevator.tenmo.security.ratelimit;
+
+import com.techelevator.tenmo.model.RateLimitStatsDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a request may proceed, using one token bucket per caller and route. Callers are keyed
+ * by principal name when authenticated and by remote address otherwise. Buckets live in the
+ * {@link RateLimitStore} bean if one is registered and in a {@link LocalRateLimitStore} otherwise.
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<LimitedRoute> routes = new ArrayList<>();
+
+    public RateLimiter(RateLimitProperties properties, ObjectProvider<RateLimitStore> store) {
+        this.properties = properties;
+        this.store = store.getIfAvailable(LocalRateLimitStore::new);
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new LimitedRoute(route));
+        }
+    }
+
+    /**
+     * Takes a token for this caller on the route the request matches.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until the caller may try again
+     */
+    public long acquire(HttpServletRequest request, String caller) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        LimitedRoute route = match(request);
+        if (route == null) {
+            return 0;
+        }
+        long wait = store.tryAcquire(route.key + caller, route.intervalNanos, route.capacity);
+        if (wait == 0) {
+            route.allowed.increment();
+        } else {
+            route.throttled.increment();
+        }
+        return wait;
+    }
+
+    public RateLimitStatsDTO getStats() {
+        List<RateLimitStatsDTO.RouteStats> routeStats = new ArrayList<>();
+        for (LimitedRoute route : routes) {
+            routeStats.add(new RateLimitStatsDTO.RouteStats(route.config.getPath(), route.config.getMethod(),
+                    route.capacity, route.config.getRefillPerSecond(), route.allowed.sum(), route.throttled.sum()));
+        }
+        return new RateLimitStatsDTO(store.size(), routeStats);
+    }
+
+    private LimitedRoute match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (LimitedRoute route : routes) {
+            String method = route.config.getMethod();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.config.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static class LimitedRoute {
+        final RateLimitProperties.Route config;
+        final String key;
+        final long intervalNanos;
+        final int capacity;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+
+        LimitedRoute(RateLimitProperties.Route config) {
+            this.config = config;
+            this.key = (config.getMethod() == null ? "*" : config.getMethod()) + " " + config.getPath() + "|";
+            double refillPerSecond = config.getRefillPerSecond();
+            // also rules out NaN, and rates so high that a token would take less than a nanosecond
+            if (!(refillPerSecond > 0 && refillPerSecond <= TimeUnit.SECONDS.toNanos(1))) {
+                throw new IllegalArgumentException("tenmo.rate-limit route " + config.getPath()
+                        + ": refill-per-second must be above 0 and at most 1e9, was " + refillPerSecond);
+            }
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.capacity = Math.max(1, config.getCapacity());
+        }
+    }
+}
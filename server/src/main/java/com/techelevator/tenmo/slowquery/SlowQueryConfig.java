@@ -0,0 +1,49 @@
+package com.techelevator.tenmo.slowquery;
+
+import com.techelevator.tenmo.dao.DaoAdvisingPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Times DAO statements for {@link SlowQueryLog}: every DataSource bean is wrapped in a
+ * {@link SlowQueryDataSource}, and each DAO call marks its thread with the DAO method so only statements run
+ * by DAOs are timed.
+ *
+ * On by default; tenmo.slow-query.enabled=false leaves the DataSource and DAOs alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tenmo.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, slowQueryLog::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static DaoAdvisingPostProcessor slowQueryDaoPostProcessor() {
+        return new DaoAdvisingPostProcessor(invocation -> {
+            String outer = SlowQueryDataSource.enterDao(
+                    ClassUtils.getUserClass(invocation.getThis()).getSimpleName() + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                SlowQueryDataSource.exitDao(outer);
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.techelevator.tenmo.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * DataSource that times the statements DAOs run and hands the ones at or over the {@link SlowQueryLog}
+ * threshold to it, together with their bind parameters (which the log only uses to EXPLAIN the statement and
+ * never prints). A statement counts as a DAO's when it is prepared during a DAO call, as marked by
+ * {@link #enterDao}; everything else (the event relay, reporting, the log's own EXPLAINs) runs unwrapped.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<String> DAO_METHOD = new ThreadLocal<>();
+
+    private final Supplier<SlowQueryLog> logSupplier;
+    private volatile SlowQueryLog log;
+
+    /**
+     * @param logSupplier looked up on first use, since the log itself needs this DataSource for its EXPLAINs
+     */
+    public SlowQueryDataSource(DataSource targetDataSource, Supplier<SlowQueryLog> logSupplier) {
+        super(targetDataSource);
+        this.logSupplier = logSupplier;
+    }
+
+    /**
+     * Marks the current thread as running the given DAO method; returns the outer one to restore with
+     * {@link #exitDao}.
+     */
+    public static String enterDao(String daoMethod) {
+        String outer = DAO_METHOD.get();
+        DAO_METHOD.set(daoMethod);
+        return outer;
+    }
+
+    public static void exitDao(String outer) {
+        if (outer == null) {
+            DAO_METHOD.remove();
+        } else {
+            DAO_METHOD.set(outer);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        // connections are often taken before the DAO call (a transaction), so they are always wrapped
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private SlowQueryLog log() {
+        SlowQueryLog current = log;
+        if (current == null) {
+            current = logSupplier.get();
+            log = current;
+        }
+        return current;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "createStatement":
+                    Object statement = SlowQueryDataSource.invoke(connection, method, args);
+                    String daoMethod = DAO_METHOD.get();
+                    if (daoMethod == null) {
+                        return statement;
+                    }
+                    boolean prepared = method.getName().equals("prepareStatement");
+                    return Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                            new Class<?>[] {prepared ? PreparedStatement.class : Statement.class},
+                            new StatementHandler(statement, prepared ? (String) args[0] : null, daoMethod));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return SlowQueryDataSource.invoke(connection, method, args);
+            }
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Object statement;
+        private final String sql;
+        private final String daoMethod;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+
+        StatementHandler(Object statement, String sql, String daoMethod) {
+            this.statement = statement;
+            this.sql = sql;
+            this.daoMethod = daoMethod;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, null);
+                parameterCount = 0;
+            } else if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                Object result = SlowQueryDataSource.invoke(statement, method, args);
+                long nanos = System.nanoTime() - start;
+                SlowQueryLog slowQueryLog = log();
+                if (nanos >= slowQueryLog.getThresholdNanos()) {
+                    boolean batch = name.equals("executeBatch");
+                    String executed = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : null;
+                    if (executed != null) {
+                        // a batch ran many parameter sets, so there is no single one to EXPLAIN it with
+                        slowQueryLog.record(executed, batch ? null : Arrays.copyOf(parameters, parameterCount),
+                                nanos, daoMethod);
+                    }
+                }
+                return result;
+            }
+            return SlowQueryDataSource.invoke(statement, method, args);
+        }
+
+        private void parameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.techelevator.tenmo.slowquery;
+
+import com.techelevator.tenmo.model.SlowQueryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the DAO statements that took at least tenmo.slow-query.threshold-millis, grouped by
+ * {@link SqlFingerprint}. Each one is logged by fingerprint, so bind values never reach the log. The first time
+ * a fingerprint is seen, and again once its plan is older than explain-interval-seconds, the statement is run
+ * again under EXPLAIN on a separate connection by a background thread, with the same bind values:
+ * EXPLAIN (ANALYZE, BUFFERS) for reads, and a plain EXPLAIN for statements that write, which would otherwise
+ * take row locks and use up sequence values (unless analyze-writes=true, in which case they run in a
+ * transaction that is rolled back). The EXPLAIN runs with a statement timeout and always rolls back, and the
+ * literals in the plan's conditions, where PostgreSQL prints the bind values, are replaced by ? as well.
+ *
+ * At most max-fingerprints statements are tracked; slow statements beyond that are only logged.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final Pattern WRITES = Pattern.compile("\\b(insert|update|delete|merge|for share)\\b");
+    // plan lines that print the statement's conditions, where PostgreSQL substitutes the bind values
+    private static final Pattern CONDITION_LINE = Pattern.compile("^(\\s*(?:->\\s*)?[\\w -]*(?:Cond|Filter|Key)):(.*)$");
+
+    private final Supplier<DataSource> dataSource;
+    private final long thresholdNanos;
+    private final long explainIntervalMillis;
+    private final long explainTimeoutMillis;
+    private final boolean analyzeWrites;
+    private final int maxFingerprints;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer;
+
+    @Autowired
+    public SlowQueryLog(ObjectProvider<DataSource> dataSource,
+                        @Value("${tenmo.slow-query.threshold-millis:100}") long thresholdMillis,
+                        @Value("${tenmo.slow-query.explain-interval-seconds:300}") long explainIntervalSeconds,
+                        @Value("${tenmo.slow-query.explain-timeout-millis:5000}") long explainTimeoutMillis,
+                        @Value("${tenmo.slow-query.analyze-writes:false}") boolean analyzeWrites,
+                        @Value("${tenmo.slow-query.max-fingerprints:500}") int maxFingerprints) {
+        this(dataSource::getIfAvailable, thresholdMillis, explainIntervalSeconds, explainTimeoutMillis, analyzeWrites,
+                maxFingerprints);
+    }
+
+    public SlowQueryLog(Supplier<DataSource> dataSource, long thresholdMillis, long explainIntervalSeconds,
+                        long explainTimeoutMillis, boolean analyzeWrites, int maxFingerprints) {
+        this.dataSource = dataSource;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explainIntervalMillis = TimeUnit.SECONDS.toMillis(explainIntervalSeconds);
+        this.explainTimeoutMillis = explainTimeoutMillis;
+        this.analyzeWrites = analyzeWrites;
+        this.maxFingerprints = maxFingerprints;
+        // one EXPLAIN at a time and a short queue: when the database is already struggling, plans are dropped
+        // rather than piled on top of it
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Records a statement that took at least the threshold.
+     *
+     * @param parameters its bind values in order, or null when it can't be explained (a batch)
+     */
+    public void record(String sql, Object[] parameters, long nanos, String daoMethod) {
+        String fingerprint = SqlFingerprint.of(sql);
+        LOG.warn("slow query ({} ms) in {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos), daoMethod, fingerprint);
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxFingerprints) {
+                return;
+            }
+            entry = entries.computeIfAbsent(fingerprint, Entry::new);
+        }
+        entry.count.increment();
+        entry.totalNanos.add(nanos);
+        entry.maxNanos.accumulateAndGet(nanos, Math::max);
+        entry.lastSeenMillis = System.currentTimeMillis();
+        entry.daoMethod = daoMethod;
+
+        if (parameters != null && entry.planDue(explainIntervalMillis) && entry.explaining.compareAndSet(false, true)) {
+            explainLater(entry, sql, parameters);
+        }
+    }
+
+    /**
+     * The tracked statements with the most total time spent over the threshold first.
+     */
+    public List<SlowQueryDTO> getSlowQueries(int limit) {
+        List<SlowQueryDTO> slowQueries = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            long count = entry.count.sum();
+            long totalNanos = entry.totalNanos.sum();
+            slowQueries.add(new SlowQueryDTO(entry.fingerprint, entry.daoMethod, count,
+                    totalNanos / 1_000_000.0, entry.maxNanos.get() / 1_000_000.0,
+                    count == 0 ? 0 : totalNanos / 1_000_000.0 / count,
+                    Instant.ofEpochMilli(entry.lastSeenMillis), entry.plan,
+                    entry.plan == null ? null : Instant.ofEpochMilli(entry.planCapturedMillis)));
+        }
+        slowQueries.sort(Comparator.comparingDouble(SlowQueryDTO::getTotalMillis).reversed());
+        return slowQueries.size() > limit ? new ArrayList<>(slowQueries.subList(0, limit)) : slowQueries;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    private void explainLater(Entry entry, String sql, Object[] parameters) {
+        try {
+            explainer.execute(() -> {
+                try {
+                    entry.plan = explain(sql, parameters, entry.fingerprint);
+                } catch (SQLException | RuntimeException e) {
+                    LOG.warn("could not EXPLAIN {}: {}", entry.fingerprint, e.getMessage());
+                } finally {
+                    // also after a failure, so a statement that can't be explained isn't retried on every execution
+                    entry.planCapturedMillis = System.currentTimeMillis();
+                    entry.explaining.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.explaining.set(false);
+        }
+    }
+
+    private String explain(String sql, Object[] parameters, String fingerprint) throws SQLException {
+        boolean writes = WRITES.matcher(fingerprint).find();
+        String explain = writes && !analyzeWrites ? "EXPLAIN " : "EXPLAIN (ANALYZE, BUFFERS) ";
+        try (Connection connection = dataSource.get().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement timeout = connection.createStatement()) {
+                    timeout.execute("SET LOCAL statement_timeout = " + explainTimeoutMillis);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(explain + sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(redact(rs.getString(1))).append('\n');
+                        }
+                    }
+                    return plan.toString();
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static String redact(String planLine) {
+        Matcher condition = CONDITION_LINE.matcher(planLine);
+        return condition.matches() ? condition.group(1) + ":" + SqlFingerprint.redact(condition.group(2)) : planLine;
+    }
+
+    private static class Entry {
+        final String fingerprint;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicBoolean explaining = new AtomicBoolean();
+        volatile long lastSeenMillis;
+        volatile String daoMethod;
+        volatile String plan;
+        volatile long planCapturedMillis;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean planDue(long intervalMillis) {
+            return planCapturedMillis == 0 || System.currentTimeMillis() - planCapturedMillis >= intervalMillis;
+        }
+    }
+}
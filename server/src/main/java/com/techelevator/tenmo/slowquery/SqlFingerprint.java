@@ -0,0 +1,31 @@
+package com.techelevator.tenmo.slowquery;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL so statements that differ only in their values group together: string and number literals
+ * become ?, IN lists of any length become IN (?...), whitespace is collapsed and the text is lower-cased.
+ * This is also what keeps values out of the log for statements that were not prepared with bind parameters.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String fingerprint = IN_LIST.matcher(redact(sql)).replaceAll("in (?...)");
+        return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim().toLowerCase();
+    }
+
+    /**
+     * Replaces just the string and number literals, leaving the text otherwise as it was.
+     */
+    public static String redact(String text) {
+        return NUMBER_LITERAL.matcher(STRING_LITERAL.matcher(text).replaceAll("?")).replaceAll("?");
+    }
+}
@@ -2,12 +2,15 @@ package com.techelevator.tenmo.swagger;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.RestController;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 
 @Configuration
+// the prod profile also turns off springfox itself, so nothing is scanned at startup
+@Profile("!prod")
 public class SpringFoxConfig {
     @Bean
     public Docket api() {
@@ -0,0 +1,87 @@
+package com.techelevator.tenmo.tracing;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * One timed step of a {@link Trace}: a filter, a controller method, a DAO call or a SQL statement. Spans are
+ * started with {@link Tracing#start} and finished by closing them, so they nest with try-with-resources; a span
+ * started while another is open becomes its child.
+ */
+@JsonPropertyOrder({"id", "parentId", "name", "startMicros", "durationMicros", "detail", "error"})
+public class Span implements AutoCloseable {
+
+    /**
+     * Returned when the current thread has no trace, so callers never need to check.
+     */
+    static final Span NONE = new Span(null, 0, 0, null, null, 0);
+
+    private final Trace trace;
+    private final int id;
+    private final int parentId;
+    private final String name;
+    private final String detail;
+    private final long startNanos;
+    private long durationNanos = -1;
+    private String error;
+
+    Span(Trace trace, int id, int parentId, String name, String detail, long startNanos) {
+        this.trace = trace;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.detail = detail;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Marks the span as failed with the given exception's type.
+     */
+    public void fail(Throwable e) {
+        if (trace != null) {
+            error = e.getClass().getSimpleName();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (trace != null && durationNanos < 0) {
+            durationNanos = System.nanoTime() - startNanos;
+            trace.closed(this);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /** 0 for spans directly under the request. */
+    public int getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** The SQL text for statements, null otherwise. */
+    public String getDetail() {
+        return detail;
+    }
+
+    /** Start, relative to the start of the trace. */
+    public long getStartMicros() {
+        return (startNanos - trace.getStartNanos()) / 1000;
+    }
+
+    public long getDurationMicros() {
+        return durationNanos / 1000;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    boolean isOpen() {
+        return durationNanos < 0;
+    }
+}
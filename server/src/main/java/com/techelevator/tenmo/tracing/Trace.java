@@ -0,0 +1,119 @@
+package com.techelevator.tenmo.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The spans recorded for one request, in the order they were started. A trace belongs to the thread serving
+ * the request and is never shared while it is being recorded, so nothing here is synchronized.
+ */
+@JsonPropertyOrder({"traceId", "name", "startedAt", "durationMicros", "status", "error", "keptBecause", "droppedSpans", "spans"})
+public class Trace {
+
+    /**
+     * Spans past this are counted but not kept, so a request that runs thousands of statements can't hold on
+     * to thousands of spans.
+     */
+    static final int MAX_SPANS = 512;
+
+    private final String traceId;
+    private final String name;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>();
+    private final ArrayDeque<Span> open = new ArrayDeque<>();
+    private long durationNanos = -1;
+    private int droppedSpans;
+    private int status;
+    private String error;
+    private String keptBecause;
+
+    public Trace(String traceId, String name) {
+        this.traceId = traceId;
+        this.name = name;
+    }
+
+    Span start(String name, String detail) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return Span.NONE;
+        }
+        Span parent = open.peek();
+        Span span = new Span(this, spans.size() + 1, parent == null ? 0 : parent.getId(), name, detail, System.nanoTime());
+        spans.add(span);
+        open.push(span);
+        return span;
+    }
+
+    void closed(Span span) {
+        // spans close innermost first, so this is nearly always the head
+        open.removeFirstOccurrence(span);
+    }
+
+    void finish() {
+        while (!open.isEmpty()) {
+            open.peek().close();
+        }
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    public void fail(Throwable e) {
+        error = e.getClass().getSimpleName();
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /** Method and path of the request. */
+    public String getName() {
+        return name;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMicros() {
+        return durationNanos / 1000;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** slow, error or sampled. */
+    public String getKeptBecause() {
+        return keptBecause;
+    }
+
+    void setKeptBecause(String keptBecause) {
+        this.keptBecause = keptBecause;
+    }
+
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    @JsonIgnore
+    long getStartNanos() {
+        return startNanos;
+    }
+}
@@ -0,0 +1,134 @@
+package com.techelevator.tenmo.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which finished traces to keep once their outcome is known (tail-based sampling): every request that
+ * took at least slow-millis or failed, plus a random sample-rate fraction of the rest. Kept traces go into a
+ * ring of the most recent ones, served at /debug/traces, and with tenmo.tracing.file set are also appended to
+ * that file as JSON lines.
+ */
+@Component
+@ConditionalOnProperty(name = "tenmo.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TraceCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TraceCollector.class);
+
+    private final ObjectMapper objectMapper;
+    private final long slowMicros;
+    private final double sampleRate;
+    private final int capacity;
+    private final ArrayDeque<Trace> recent = new ArrayDeque<>();
+    private final LongAdder dropped = new LongAdder();
+    private final Writer file;
+
+    @Autowired
+    public TraceCollector(ObjectMapper objectMapper,
+                          @Value("${tenmo.tracing.slow-millis:200}") long slowMillis,
+                          @Value("${tenmo.tracing.sample-rate:0.01}") double sampleRate,
+                          @Value("${tenmo.tracing.capacity:200}") int capacity,
+                          @Value("${tenmo.tracing.file:}") String file) throws IOException {
+        this(objectMapper, slowMillis, sampleRate, capacity, file.isEmpty() ? null : Paths.get(file));
+    }
+
+    public TraceCollector(ObjectMapper objectMapper, long slowMillis, double sampleRate, int capacity, Path file)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.slowMicros = slowMillis * 1000;
+        this.sampleRate = sampleRate;
+        this.capacity = capacity;
+        this.file = file == null ? null : Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Keeps the trace if it is slow, failed or picked by the sample; returns whether it was kept.
+     */
+    public boolean offer(Trace trace) {
+        if (trace.getError() != null || trace.getStatus() >= 500) {
+            trace.setKeptBecause("error");
+        } else if (trace.getDurationMicros() >= slowMicros) {
+            trace.setKeptBecause("slow");
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            trace.setKeptBecause("sampled");
+        } else {
+            dropped.increment();
+            return false;
+        }
+        synchronized (recent) {
+            recent.addFirst(trace);
+            if (recent.size() > capacity) {
+                recent.removeLast();
+            }
+        }
+        if (file != null) {
+            write(trace);
+        }
+        return true;
+    }
+
+    /**
+     * The kept traces that took at least minMillis, newest first.
+     */
+    public List<Trace> getTraces(long minMillis, int limit) {
+        List<Trace> traces = new ArrayList<>();
+        synchronized (recent) {
+            for (Trace trace : recent) {
+                if (traces.size() >= limit) {
+                    break;
+                }
+                if (trace.getDurationMicros() >= minMillis * 1000) {
+                    traces.add(trace);
+                }
+            }
+        }
+        return traces;
+    }
+
+    /** Traces finished since startup that were not kept. */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (file != null) {
+            synchronized (file) {
+                file.close();
+            }
+        }
+    }
+
+    private void write(Trace trace) {
+        try {
+            String line = objectMapper.writeValueAsString(trace);
+            synchronized (file) {
+                file.write(line);
+                file.write('\n');
+                file.flush();
+            }
+        } catch (IOException e) {
+            LOG.warn("could not write trace {}: {}", trace.getTraceId(), e.getMessage());
+        }
+    }
+}
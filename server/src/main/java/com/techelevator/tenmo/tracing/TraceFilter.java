@@ -0,0 +1,63 @@
+package com.techelevator.tenmo.tracing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Traces every request from before the security filters until the response is written. The trace ID comes
+ * from the caller's X-Trace-Id header when it sends a usable one and is generated otherwise; either way it is
+ * echoed in the response. The finished trace goes to {@link TraceCollector}, which decides whether to keep it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "tenmo.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TraceFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    // trace IDs end up in logs and files, so only short plain ones are taken from callers
+    private static final Pattern USABLE_TRACE_ID = Pattern.compile("[0-9A-Za-z-]{1,64}");
+
+    private final TraceCollector collector;
+
+    public TraceFilter(TraceCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String traceId = request.getHeader(TRACE_ID_HEADER);
+        if (traceId == null || !USABLE_TRACE_ID.matcher(traceId).matches()) {
+            traceId = newTraceId();
+        }
+        response.setHeader(TRACE_ID_HEADER, traceId);
+        Trace trace = Tracing.begin(traceId, request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            trace.fail(e);
+            throw e;
+        } finally {
+            Tracing.end();
+            trace.setStatus(response.getStatus());
+            collector.offer(trace);
+        }
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+}
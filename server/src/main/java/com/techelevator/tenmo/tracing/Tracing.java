@@ -0,0 +1,45 @@
+package com.techelevator.tenmo.tracing;
+
+/**
+ * Holds the trace of the request the current thread is serving. {@link TraceFilter} begins and ends it; code
+ * underneath records spans with {@link #start}, which costs nothing beyond a thread-local read when the thread
+ * has no trace (background threads, or tracing turned off).
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    public static Trace begin(String traceId, String name) {
+        Trace trace = new Trace(traceId, name);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Closes any spans left open and detaches the trace from the thread.
+     */
+    public static Trace end() {
+        Trace trace = CURRENT.get();
+        CURRENT.remove();
+        if (trace != null) {
+            trace.finish();
+        }
+        return trace;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static Span start(String name) {
+        return start(name, null);
+    }
+
+    public static Span start(String name, String detail) {
+        Trace trace = CURRENT.get();
+        return trace == null ? Span.NONE : trace.start(name, detail);
+    }
+}
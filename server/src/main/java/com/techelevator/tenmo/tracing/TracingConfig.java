@@ -0,0 +1,91 @@
+package com.techelevator.tenmo.tracing;
+
+import com.techelevator.tenmo.dao.DaoAdvisingPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+/**
+ * Records spans below {@link TraceFilter}: one per controller method (including writing its response), one per
+ * call into a DAO, and the connection and SQL spans of {@link TracingDataSource}, which wraps every DataSource
+ * bean. The JWT filter records its own span.
+ *
+ * On by default; tenmo.tracing.enabled=false removes all of it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tenmo.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig implements WebMvcConfigurer {
+
+    private static final String SPAN_ATTRIBUTE = TracingConfig.class.getName() + ".span";
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod) {
+                    HandlerMethod method = (HandlerMethod) handler;
+                    request.setAttribute(SPAN_ATTRIBUTE,
+                            Tracing.start(method.getBeanType().getSimpleName() + "." + method.getMethod().getName()));
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                Span span = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+                if (span != null) {
+                    if (ex != null) {
+                        span.fail(ex);
+                    }
+                    span.close();
+                }
+            }
+        });
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Makes each DAO call a span named after the DAO class and method.
+     */
+    @Bean
+    public static DaoAdvisingPostProcessor daoTracingPostProcessor() {
+        return new DaoAdvisingPostProcessor(invocation -> {
+            if (!Tracing.isActive()) {
+                return invocation.proceed();
+            }
+            String name = ClassUtils.getUserClass(invocation.getThis()).getSimpleName() + "." + invocation.getMethod().getName();
+            try (Span span = Tracing.start(name)) {
+                try {
+                    return invocation.proceed();
+                } catch (Throwable e) {
+                    span.fail(e);
+                    throw e;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.techelevator.tenmo.tracing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that records a span for taking a connection from the pool, for every statement execution (with
+ * its SQL) and for commits and rollbacks. Connections handed out while the thread has no trace are returned
+ * unwrapped, so background work pays nothing for it.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    public TracingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!Tracing.isActive()) {
+            return super.getConnection();
+        }
+        try (Span span = Tracing.start("connection")) {
+            return traced(super.getConnection());
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!Tracing.isActive()) {
+            return super.getConnection(username, password);
+        }
+        try (Span span = Tracing.start("connection")) {
+            return traced(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection traced(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object timed(String name, String detail, Object target, Method method, Object[] args) throws Throwable {
+        try (Span span = Tracing.start(name, detail)) {
+            try {
+                return invoke(target, method, args);
+            } catch (Throwable e) {
+                span.fail(e);
+                throw e;
+            }
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, TracingDataSource.invoke(connection, method, args), (String) args[0]);
+                case "prepareCall":
+                    return statement(CallableStatement.class, TracingDataSource.invoke(connection, method, args), (String) args[0]);
+                case "createStatement":
+                    return statement(Statement.class, TracingDataSource.invoke(connection, method, args), null);
+                case "commit":
+                case "rollback":
+                    return timed(method.getName(), null, connection, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return TracingDataSource.invoke(connection, method, args);
+            }
+        }
+
+        private static Object statement(Class<?> type, Object statement, String sql) {
+            return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Object statement;
+        private final String sql;
+
+        StatementHandler(Object statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                // plain statements carry their SQL in the call rather than the prepare
+                String detail = sql != null ? sql : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return timed(name.equals("executeBatch") ? "sql batch" : "sql", detail, statement, method, args);
+            }
+            return TracingDataSource.invoke(statement, method, args);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.techelevator.tenmo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the packaged server repeatedly and reports time to first request (from launching the JVM until a
+ * POST /login has been answered, which goes through security, a controller, a DAO and the database) and the
+ * resident set size right after it, as medians. Compares the default configuration, the prod profile, and
+ * the prod profile with the class-data-sharing archive built by cds.sh (skipped if it has not been built).
+ * Run from the server directory after mvn package; arguments after the run count go to the server.
+ *
+ *   StartupBenchmark [runs] [--spring.datasource.username=... ...]
+ */
+public class StartupBenchmark {
+
+    private static final int PORT = 18080;
+    private static final String MAIN = "com.techelevator.tenmo.TenmoApplication";
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> serverArgs = new ArrayList<>(Arrays.asList(args).subList(Math.min(1, args.length), args.length));
+        serverArgs.add("--server.port=" + PORT);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        File jar = jar();
+
+        measure("default", runs, command(serverArgs, java, "-jar", jar.getPath()));
+        measure("prod", runs, command(serverArgs, java, "-jar", jar.getPath(), "--spring.profiles.active=prod"));
+        Path classpath = Paths.get("target", "cds", "classpath");
+        if (Files.exists(classpath)) {
+            measure("prod + CDS", runs, command(serverArgs, java, "-XX:SharedArchiveFile=target/cds/tenmo.jsa",
+                    "-Xshare:auto", "-cp", Files.readString(classpath).trim(), MAIN, "--spring.profiles.active=prod"));
+        } else {
+            System.out.println("prod + CDS: no archive, run cds.sh first");
+        }
+    }
+
+    private static void measure(String name, int runs, List<String> command) throws Exception {
+        long[] millis = new long[runs];
+        long[] rssKb = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process server = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            try {
+                while (!answersLogin()) {
+                    if (!server.isAlive()) {
+                        throw new IllegalStateException(name + ": server exited with " + server.exitValue());
+                    }
+                    Thread.sleep(10);
+                }
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+                rssKb[i] = residentKb(server.pid());
+            } finally {
+                server.destroy();
+                server.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+        Arrays.sort(millis);
+        Arrays.sort(rssKb);
+        System.out.printf("%-12s first request %6d ms   RSS %6.0f MB   (median of %d)%n", name, millis[runs / 2],
+                rssKb[runs / 2] / 1024.0, runs);
+    }
+
+    private static boolean answersLogin() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/login").openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write("{\"username\":\"startup-benchmark\",\"password\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            connection.getResponseCode();
+            connection.disconnect();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long residentKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Paths.get("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static List<String> command(List<String> serverArgs, String... launch) {
+        List<String> command = new ArrayList<>(Arrays.asList(launch));
+        command.addAll(serverArgs);
+        return command;
+    }
+
+    private static File jar() {
+        File[] jars = new File("target").listFiles((dir, name) -> name.startsWith("m02-capstone-server") && name.endsWith(".jar"));
+        if (jars == null || jars.length == 0) {
+            throw new IllegalStateException("No server jar in target, run mvn package first");
+        }
+        return jars[0];
+    }
+}
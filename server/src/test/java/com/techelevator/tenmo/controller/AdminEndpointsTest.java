@@ -0,0 +1,113 @@
+package com.techelevator.tenmo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techelevator.tenmo.dao.UserDao;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Logs in through the real security setup and checks that only users named in
+ * tenmo.security.admin-usernames get through to the admin-only endpoints. Runs against the local database,
+ * with users of its own that are removed afterwards.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.username=postgres",
+        "spring.datasource.password=postgres1",
+        "tenmo.security.admin-usernames=adminEndpointsAdmin,adminEndpointsUnclaimed",
+        "tenmo.rate-limit.enabled=false",
+        "tenmo.events.dir=target/admin-endpoints-test/events"})
+@AutoConfigureMockMvc
+public class AdminEndpointsTest {
+
+    private static final String ADMIN = "adminEndpointsAdmin";
+    private static final String USER = "adminEndpointsUser";
+    private static final String UNCLAIMED_ADMIN = "adminEndpointsUnclaimed";
+    private static final String PASSWORD = "password";
+    private static final List<String> ADMIN_ENDPOINTS = Arrays.asList(
+            "/admin/rate-limits",
+            "/admin/slow-queries",
+            "/events?from=0&limit=1",
+            "/reports/approval-rates?from=2020-01-01&to=2020-01-31",
+            "/debug/traces");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void createUsers() {
+        removeUsers();
+        userDao.create(ADMIN, PASSWORD);
+        userDao.create(USER, PASSWORD);
+    }
+
+    @After
+    public void removeUsers() {
+        for (String username : Arrays.asList(ADMIN, USER, UNCLAIMED_ADMIN)) {
+            jdbcTemplate.update("DELETE FROM account WHERE user_id IN " +
+                    "(SELECT user_id FROM tenmo_user WHERE username = ?)", username);
+            jdbcTemplate.update("DELETE FROM tenmo_user WHERE username = ?", username);
+        }
+    }
+
+    @Test
+    public void admin_token_reaches_every_admin_endpoint() throws Exception {
+        String token = login(ADMIN);
+        for (String endpoint : ADMIN_ENDPOINTS) {
+            int status = getStatus(endpoint, token);
+            // reports answer 503 until the first snapshot is loaded; what matters is that security let it through
+            Assert.assertTrue(endpoint + " answered " + status, status == 200 || status == 503);
+        }
+    }
+
+    @Test
+    public void user_token_is_refused_by_every_admin_endpoint() throws Exception {
+        String token = login(USER);
+        for (String endpoint : ADMIN_ENDPOINTS) {
+            Assert.assertEquals(endpoint, 403, getStatus(endpoint, token));
+        }
+        Assert.assertEquals(200, getStatus("/account/balance", token));
+    }
+
+    @Test
+    public void listed_admin_names_cannot_be_registered() throws Exception {
+        MvcResult result = mockMvc.perform(post("/register").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"ADMINENDPOINTSUNCLAIMED\",\"password\":\"" + PASSWORD + "\"}")).andReturn();
+        Assert.assertEquals(400, result.getResponse().getStatus());
+        Assert.assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tenmo_user WHERE lower(username) = lower(?)", Integer.class, UNCLAIMED_ADMIN));
+    }
+
+    private String login(String username) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}")).andReturn();
+        Assert.assertEquals(200, result.getResponse().getStatus());
+        return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    private int getStatus(String endpoint, String token) throws Exception {
+        return mockMvc.perform(get(endpoint).header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getStatus();
+    }
+}
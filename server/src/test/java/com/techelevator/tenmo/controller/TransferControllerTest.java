@@ -0,0 +1,77 @@
+package com.techelevator.tenmo.controller;
+
+import com.techelevator.tenmo.dao.TransferDao;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransferControllerTest {
+
+    private static final int ANDY = 1001;
+    private static final int NICOLE = 1002;
+
+    private TransferDao transferDao;
+    private TransferController controller;
+
+    @Before
+    public void setup() {
+        transferDao = mock(TransferDao.class);
+        controller = new TransferController(transferDao, mock(ResourceVersions.class));
+    }
+
+    @Test
+    public void request_from_yourself_is_a_bad_request() {
+        try {
+            controller.requestTransfer(new Transfer(0, 1, 1, ANDY, ANDY, new BigDecimal("10.00")));
+            Assert.fail("expected 400");
+        } catch (ResponseStatusException e) {
+            Assert.assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+        verify(transferDao, never()).requestTransfer(any());
+    }
+
+    @Test
+    public void send_the_balance_does_not_cover_is_a_conflict() {
+        when(transferDao.sendTransfer(any())).thenReturn(WithdrawalOutcome.INSUFFICIENT_FUNDS);
+        Assert.assertEquals(HttpStatus.CONFLICT, sendStatus(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10000.00"))));
+    }
+
+    @Test
+    public void send_to_an_unknown_user_is_a_bad_request() {
+        when(transferDao.sendTransfer(any())).thenReturn(WithdrawalOutcome.NOT_FOUND);
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, sendStatus(new Transfer(0, 2, 2, ANDY, 9999, new BigDecimal("10.00"))));
+    }
+
+    @Test
+    public void send_to_yourself_is_a_bad_request() {
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, sendStatus(new Transfer(0, 2, 2, ANDY, ANDY, new BigDecimal("10.00"))));
+        verify(transferDao, never()).sendTransfer(any());
+    }
+
+    @Test
+    public void withdrawn_send_succeeds() {
+        when(transferDao.sendTransfer(any())).thenReturn(WithdrawalOutcome.WITHDRAWN);
+        controller.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10.00")));
+    }
+
+    private HttpStatus sendStatus(Transfer transfer) {
+        try {
+            controller.sendTransfer(transfer);
+            throw new AssertionError("expected the send to be refused");
+        } catch (ResponseStatusException e) {
+            return e.getStatus();
+        }
+    }
+}
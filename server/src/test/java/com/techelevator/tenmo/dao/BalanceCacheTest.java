@@ -0,0 +1,81 @@
+package com.techelevator.tenmo.dao;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BalanceCacheTest {
+
+    private final BalanceCache cache = new BalanceCache(null, true, false);
+    private final AtomicInteger loads = new AtomicInteger();
+    private BigDecimal stored = new BigDecimal("1000.00");
+
+    @After
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void balance_is_loaded_once_then_served_from_memory() {
+        Assert.assertEquals(new BigDecimal("1000.00"), cache.get(8001, this::load));
+        Assert.assertEquals(new BigDecimal("1000.00"), cache.get(8001, this::load));
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void change_outside_a_transaction_invalidates_immediately() {
+        cache.get(8001, this::load);
+        stored = new BigDecimal("990.00");
+        cache.changed(8001);
+        Assert.assertEquals(new BigDecimal("990.00"), cache.get(8001, this::load));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void change_inside_a_transaction_invalidates_when_it_completes() {
+        cache.get(8001, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        stored = new BigDecimal("990.00");
+        cache.changed(8001);
+        // not committed yet, other readers still see the committed balance
+        Assert.assertEquals(new BigDecimal("1000.00"), cache.get(8001, this::load));
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_COMMITTED);
+        Assert.assertEquals(new BigDecimal("990.00"), cache.get(8001, this::load));
+    }
+
+    @Test
+    public void read_that_overlaps_an_invalidation_does_not_store_its_stale_result() {
+        BigDecimal seen = cache.get(8001, userId -> {
+            BigDecimal before = load(userId);
+            // a write commits and invalidates while this read is still in flight
+            stored = new BigDecimal("500.00");
+            cache.changed(8001);
+            return before;
+        });
+        Assert.assertEquals(new BigDecimal("1000.00"), seen);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(new BigDecimal("500.00"), cache.get(8001, this::load));
+    }
+
+    @Test
+    public void disabled_cache_always_loads() {
+        BalanceCache.NONE.get(8001, this::load);
+        BalanceCache.NONE.get(8001, this::load);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    private BigDecimal load(int userId) {
+        loads.incrementAndGet();
+        return stored;
+    }
+}
@@ -0,0 +1,129 @@
+package com.techelevator.tenmo.dao;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoalescingAccountDaoTest {
+
+    private JdbcBatchExecutor batchExecutor;
+    private CoalescingAccountDao accountDao;
+    private final List<Map.Entry<Integer, BigDecimal>> written = new ArrayList<>();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        batchExecutor = mock(JdbcBatchExecutor.class);
+        when(batchExecutor.execute(anyString(), any(Collection.class), any())).thenAnswer(invocation -> {
+            Collection<Map.Entry<Integer, BigDecimal>> rows = invocation.getArgument(1);
+            batches.incrementAndGet();
+            int[] counts = new int[rows.size()];
+            int i = 0;
+            synchronized (written) {
+                for (Map.Entry<Integer, BigDecimal> row : rows) {
+                    written.add(row);
+                    // user 9999 has no account
+                    counts[i++] = row.getKey() == 9999 ? 0 : 1;
+                }
+            }
+            return counts;
+        });
+        accountDao = new CoalescingAccountDao(mock(AccountDao.class), batchExecutor, 4, 2000);
+    }
+
+    @After
+    public void shutdown() {
+        accountDao.shutdown();
+    }
+
+    @Test
+    public void concurrent_deposits_to_one_account_are_coalesced_into_fewer_updates() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(callers.submit(() -> accountDao.depositBucks(8001, new BigDecimal("1.50"))));
+        }
+        for (Future<Boolean> result : results) {
+            Assert.assertTrue(result.get());
+        }
+        callers.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Integer, BigDecimal> row : written) {
+            Assert.assertEquals(Integer.valueOf(8001), row.getKey());
+            total = total.add(row.getValue());
+        }
+        Assert.assertEquals(new BigDecimal("300.00"), total);
+        Assert.assertTrue("expected deposits to share batches, got " + batches.get(), batches.get() < 200);
+    }
+
+    @Test
+    public void deposit_to_missing_account_returns_false() {
+        Assert.assertFalse(accountDao.depositBucks(9999, new BigDecimal("10.00")));
+        Assert.assertTrue(accountDao.depositBucks(8002, new BigDecimal("10.00")));
+    }
+
+    @Test(expected = DataAccessResourceFailureException.class)
+    @SuppressWarnings("unchecked")
+    public void deposit_rethrows_database_errors() {
+        when(batchExecutor.execute(anyString(), any(Collection.class), any()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        accountDao.depositBucks(8001, new BigDecimal("10.00"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deposit_gives_up_on_a_stuck_stripe() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        when(batchExecutor.execute(anyString(), any(Collection.class), any())).thenAnswer(invocation -> {
+            stuck.await();
+            return new int[] {1};
+        });
+        CoalescingAccountDao impatient = new CoalescingAccountDao(mock(AccountDao.class), batchExecutor,
+                BalanceCache.NONE, 1, 0, 100);
+        try {
+            impatient.depositBucks(8001, new BigDecimal("10.00"));
+            Assert.fail("expected the deposit to time out");
+        } catch (QueryTimeoutException e) {
+            // expected
+        } finally {
+            stuck.countDown();
+            impatient.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construction_rejects_a_deposit_timeout_below_one() {
+        new CoalescingAccountDao(mock(AccountDao.class), batchExecutor, BalanceCache.NONE, 4, 2000, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construction_rejects_zero_stripes() {
+        new CoalescingAccountDao(mock(AccountDao.class), batchExecutor, 0, 2000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construction_rejects_a_negative_flush_window() {
+        new CoalescingAccountDao(mock(AccountDao.class), batchExecutor, 4, -1);
+    }
+}
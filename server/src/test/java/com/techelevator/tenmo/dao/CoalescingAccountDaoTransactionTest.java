@@ -0,0 +1,65 @@
+package com.techelevator.tenmo.dao;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+/**
+ * Deposits through the coalescing DAO inside a transaction that then rolls back. These commit, so like
+ * {@link JdbcAccountDaoStressTest} they use their own user and remove it afterwards.
+ */
+public class CoalescingAccountDaoTransactionTest {
+
+    private static final int USER_ID = 8131;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CoalescingAccountDao accountDao;
+
+    @Before
+    public void setupData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        removeData();
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (?, 'coalescingTx', 'tx')", USER_ID);
+        jdbcTemplate.update("INSERT INTO account (user_id, balance) VALUES (?, ?)", USER_ID, OPENING_BALANCE);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        accountDao = new CoalescingAccountDao(new JdbcAccountDao(dataSource), new JdbcBatchExecutor(dataSource), 2, 500);
+    }
+
+    @After
+    public void removeData() {
+        if (accountDao != null) {
+            accountDao.shutdown();
+        }
+        jdbcTemplate.update("DELETE FROM account WHERE user_id = ?", USER_ID);
+        jdbcTemplate.update("DELETE FROM tenmo_user WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    public void deposit_inside_a_transaction_rolls_back_with_it() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Assert.assertTrue(accountDao.depositBucks(USER_ID, new BigDecimal("25.00")));
+            status.setRollbackOnly();
+        });
+        Assert.assertEquals(0, OPENING_BALANCE.compareTo(balance()));
+    }
+
+    @Test
+    public void deposit_outside_a_transaction_is_coalesced_and_stored() {
+        Assert.assertTrue(accountDao.depositBucks(USER_ID, new BigDecimal("25.00")));
+        Assert.assertEquals(0, new BigDecimal("1025.00").compareTo(balance()));
+    }
+
+    private BigDecimal balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE user_id = ?", BigDecimal.class, USER_ID);
+    }
+}
@@ -0,0 +1,147 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GroupCommitTransferDaoTest {
+
+    private final TransferDao sendDelegate = mock(TransferDao.class);
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacksToSavepoint = new AtomicInteger();
+    private final AtomicInteger sendsOutsideBatch = new AtomicInteger();
+    private volatile boolean inBatch;
+    private volatile boolean failCommit;
+    private GroupCommitTransferDao transferDao;
+
+    @Before
+    public void setup() {
+        when(sendDelegate.sendTransfer(any(Transfer.class))).thenAnswer(invocation -> {
+            Transfer transfer = invocation.getArgument(0);
+            if (!inBatch) {
+                sendsOutsideBatch.incrementAndGet();
+            }
+            // user 9999 always violates a constraint; user 9998 has too little money
+            if (transfer.getAccountFrom() == 9999) {
+                throw new DataIntegrityViolationException("ck_transfer_not_same_account");
+            }
+            return transfer.getAccountFrom() == 9998 ? WithdrawalOutcome.INSUFFICIENT_FUNDS : WithdrawalOutcome.WITHDRAWN;
+        });
+        transferDao = new GroupCommitTransferDao(mock(TransferDao.class), sendDelegate, new SavepointTransactionManager(),
+                2000, 64);
+    }
+
+    @After
+    public void shutdown() {
+        transferDao.shutdown();
+    }
+
+    @Test
+    public void concurrent_sends_share_transactions() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<WithdrawalOutcome>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(callers.submit(() -> transferDao.sendTransfer(send(8001))));
+        }
+        for (Future<WithdrawalOutcome> result : results) {
+            Assert.assertEquals(WithdrawalOutcome.WITHDRAWN, result.get());
+        }
+        callers.shutdown();
+        Assert.assertTrue("expected sends to share commits, got " + commits.get(), commits.get() < 200);
+        Assert.assertEquals(0, sendsOutsideBatch.get());
+    }
+
+    @Test
+    public void failing_send_is_rolled_back_alone_and_retried_outside_the_batch() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        Future<WithdrawalOutcome> good = callers.submit(() -> transferDao.sendTransfer(send(8001)));
+        Future<WithdrawalOutcome> broke = callers.submit(() -> transferDao.sendTransfer(send(9998)));
+        Future<WithdrawalOutcome> failing = callers.submit(() -> transferDao.sendTransfer(send(9999)));
+        Assert.assertEquals(WithdrawalOutcome.WITHDRAWN, good.get());
+        Assert.assertEquals(WithdrawalOutcome.INSUFFICIENT_FUNDS, broke.get());
+        try {
+            failing.get();
+            Assert.fail("expected the constraint violation to reach the caller");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+        }
+        callers.shutdown();
+        Assert.assertEquals(1, rollbacksToSavepoint.get());
+        Assert.assertEquals(1, sendsOutsideBatch.get());
+    }
+
+    @Test
+    public void failed_commit_fails_the_callers_without_retrying() {
+        failCommit = true;
+        try {
+            transferDao.sendTransfer(send(8001));
+            Assert.fail("expected the commit failure to reach the caller");
+        } catch (TransactionSystemException e) {
+            Assert.assertEquals(0, sendsOutsideBatch.get());
+        }
+    }
+
+    private static Transfer send(int userId) {
+        return new Transfer(0, 2, 2, userId, 8002, new BigDecimal("1.00"));
+    }
+
+    private class SavepointTransactionManager implements PlatformTransactionManager, SavepointManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            inBatch = true;
+            return new DefaultTransactionStatus(this, true, false, false, false, null);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            inBatch = false;
+            if (failCommit) {
+                throw new TransactionSystemException("connection lost during commit");
+            }
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            inBatch = false;
+        }
+
+        @Override
+        public Object createSavepoint() {
+            return new Object();
+        }
+
+        @Override
+        public void rollbackToSavepoint(Object savepoint) {
+            rollbacksToSavepoint.incrementAndGet();
+        }
+
+        @Override
+        public void releaseSavepoint(Object savepoint) {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Withdraws from one account on many connections at once. Unlike the other DAO tests these have to commit, since
+ * the point is what concurrent transactions see, so they use their own user and remove it afterwards.
+ */
+public class JdbcAccountDaoStressTest {
+
+    private static final int USER_ID = 8101;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("7.00");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcAccountDao accountDao;
+
+    @Before
+    public void setupData() {
+        dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        removeData();
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (?, 'stressTest', 'stress')", USER_ID);
+        jdbcTemplate.update("INSERT INTO account (account_id, user_id, balance) VALUES (?, ?, ?)", USER_ID + 1000, USER_ID,
+                OPENING_BALANCE);
+        accountDao = new JdbcAccountDao(dataSource);
+    }
+
+    @After
+    public void removeData() {
+        jdbcTemplate.update("DELETE FROM account WHERE user_id = ?", USER_ID);
+        jdbcTemplate.update("DELETE FROM tenmo_user WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    public void concurrent_withdrawals_never_overdraw_the_account() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(callers.submit(() -> {
+                int[] counts = new int[WithdrawalOutcome.values().length];
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    counts[accountDao.withdraw(USER_ID, AMOUNT).ordinal()]++;
+                }
+                return counts;
+            }));
+        }
+        start.countDown();
+        int withdrawn = 0;
+        int refused = 0;
+        for (Future<int[]> result : results) {
+            int[] counts = result.get();
+            withdrawn += counts[WithdrawalOutcome.WITHDRAWN.ordinal()];
+            refused += counts[WithdrawalOutcome.INSUFFICIENT_FUNDS.ordinal()];
+            Assert.assertEquals(0, counts[WithdrawalOutcome.NOT_FOUND.ordinal()]);
+        }
+        callers.shutdown();
+
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM account WHERE user_id = ?", BigDecimal.class, USER_ID);
+        int affordable = OPENING_BALANCE.divideToIntegralValue(AMOUNT).intValue();
+        Assert.assertTrue("overdrawn: " + balance, balance.signum() >= 0);
+        Assert.assertEquals(affordable, withdrawn);
+        Assert.assertEquals(THREADS * ATTEMPTS_PER_THREAD - affordable, refused);
+        Assert.assertEquals(0, OPENING_BALANCE.subtract(AMOUNT.multiply(BigDecimal.valueOf(withdrawn))).compareTo(balance));
+    }
+
+    @Test
+    public void withdraw_reports_why_nothing_moved() {
+        Assert.assertEquals(WithdrawalOutcome.INSUFFICIENT_FUNDS, accountDao.withdraw(USER_ID, new BigDecimal("1000.01")));
+        Assert.assertEquals(WithdrawalOutcome.NOT_FOUND, accountDao.withdraw(99999, AMOUNT));
+        Assert.assertEquals(WithdrawalOutcome.WITHDRAWN, accountDao.withdraw(USER_ID, OPENING_BALANCE));
+        Assert.assertEquals(0, accountDao.getBalance(USER_ID).signum());
+    }
+
+    @Test(expected = DataIntegrityViolationException.class)
+    public void database_refuses_a_negative_balance() {
+        jdbcTemplate.update("UPDATE account SET balance = balance - 1000.01 WHERE user_id = ?", USER_ID);
+    }
+}
@@ -1,6 +1,7 @@
 package com.techelevator.tenmo.dao;
 
 import com.techelevator.tenmo.model.Account;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
 import org.junit.*;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
@@ -66,6 +67,17 @@ public class JdbcAccountDaoTest {
         Assert.assertEquals(nicoleTest.getBalance(),balanceTwo);
     }
 
+    @Test
+    public void balances_by_account_id_and_user_id_stay_current_with_the_cache_on(){
+        JdbcAccountDao cachedDao = new JdbcAccountDao(dataSource, new BalanceCache(null, true, false));
+        // account 9001 belongs to user 8001; user 9001 does not exist
+        Assert.assertEquals(andyTest.getBalance(), cachedDao.getBalanceByAccountId(9001));
+        Assert.assertEquals(andyTest.getBalance(), cachedDao.getBalance(8001));
+        Assert.assertEquals(WithdrawalOutcome.WITHDRAWN, cachedDao.withdraw(8001, new BigDecimal("10.00")));
+        Assert.assertEquals(new BigDecimal("990.00"), cachedDao.getBalanceByAccountId(9001));
+        Assert.assertEquals(new BigDecimal("990.00"), cachedDao.getBalance(8001));
+    }
+
     @Test
     public void withdrawal_bucks_lowers_the_account_balance_and_returns_true(){
         boolean withdrawalSuccessful = accountDao.withdrawalBucks(9001, BigDecimal.valueOf(100.00));
@@ -0,0 +1,156 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.Transfer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares the per-query CPU time and allocation of the DAOs' execution path (rows mapped straight from the
+ * ResultSet, statements server-prepared from the first execution) with the one they replaced (rows copied into
+ * a SqlRowSet and mapped from there, the driver's default prepare threshold), and times inserting a block of
+ * transfers one statement at a time against {@link JdbcBatchExecutor}. Queries run on the calling thread, so
+ * the thread's CPU time and allocated bytes cover the driver and the mapping but not the database.
+ *
+ *   JdbcDaoBenchmark [iterations] [history rows] [jdbcUrl] [username] [password]
+ */
+public class JdbcDaoBenchmark {
+
+    private static final String SQL_HISTORY = "SELECT transfer_id, amount, t.transfer_type_id, d.username AS user_from, b.username AS user_to " +
+            "FROM transfer t JOIN account a ON a.account_id = t.account_to " +
+            "JOIN tenmo_user b ON a.user_id = b.user_id " +
+            "JOIN account c ON c.account_id = t.account_from " +
+            "JOIN tenmo_user d ON c.user_id = d.user_id " +
+            "WHERE (t.account_from = ? OR t.account_to = ?) " +
+            "AND transfer_id > ? " +
+            "ORDER BY transfer_id";
+    private static final String SQL_BALANCE = "SELECT balance FROM account WHERE user_id = ?";
+    private static final String SQL_INSERT_TRANSFER = "INSERT INTO transfer (transfer_type_id, transfer_status_id, account_from, account_to, amount) " +
+            "VALUES (2, 2, ?, ?, ?)";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int historyRows = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String url = args.length > 2 ? args[2] : "jdbc:postgresql://localhost:5432/tenmo";
+        String username = args.length > 3 ? args[3] : "postgres";
+        String password = args.length > 4 ? args[4] : "postgres1";
+        String prefix = "bench" + System.currentTimeMillis() + "-";
+
+        try (HikariDataSource legacy = dataSource(url, username, password, false);
+             HikariDataSource current = dataSource(url, username, password, true)) {
+            JdbcTemplate legacyTemplate = new JdbcTemplate(legacy);
+            JdbcTemplate currentTemplate = new JdbcTemplate(current);
+            UserDao userDao = new JdbcUserDao(currentTemplate);
+            userDao.create(prefix + "payer", "password");
+            userDao.create(prefix + "payee", "password");
+            int payer = userDao.findIdByUsername(prefix + "payer");
+            int payee = userDao.findIdByUsername(prefix + "payee");
+            int payerAccount = currentTemplate.queryForObject("SELECT account_id FROM account WHERE user_id = ?", Integer.class, payer);
+            int payeeAccount = currentTemplate.queryForObject("SELECT account_id FROM account WHERE user_id = ?", Integer.class, payee);
+            try {
+                List<Object[]> rows = new ArrayList<>();
+                for (int i = 0; i < historyRows; i++) {
+                    rows.add(new Object[]{payerAccount, payeeAccount, BigDecimal.ONE});
+                }
+                long singleNanos = System.nanoTime();
+                for (Object[] row : rows) {
+                    legacyTemplate.update(SQL_INSERT_TRANSFER, row);
+                }
+                singleNanos = System.nanoTime() - singleNanos;
+                long batchNanos = System.nanoTime();
+                new JdbcBatchExecutor(current).execute(SQL_INSERT_TRANSFER, rows, (ps, row) -> {
+                    ps.setInt(1, (Integer) row[0]);
+                    ps.setInt(2, (Integer) row[1]);
+                    ps.setBigDecimal(3, (BigDecimal) row[2]);
+                });
+                batchNanos = System.nanoTime() - batchNanos;
+                System.out.printf("insert %d transfers: %8.1f ms one at a time, %8.1f ms batched%n",
+                        historyRows, singleNanos / 1e6, batchNanos / 1e6);
+
+                AccountDao accountDao = new JdbcAccountDao(current, BalanceCache.NONE);
+                TransferDao transferDao = new JdbcTransferDao(accountDao, current, BalanceCache.NONE);
+                report("balance, row set", measure(iterations, () ->
+                        legacyTemplate.queryForRowSet(SQL_BALANCE, payer).next() ? 1 : 0));
+                report("balance, dao", measure(iterations, () ->
+                        accountDao.getBalance(payer) != null ? 1 : 0));
+                report("history, row set", measure(iterations, () ->
+                        historyFromRowSet(legacyTemplate.queryForRowSet(SQL_HISTORY, payerAccount, payerAccount, 0)).size()));
+                report("history, dao", measure(iterations, () ->
+                        transferDao.viewTransfers(payerAccount, 0).size()));
+            } finally {
+                currentTemplate.update("DELETE FROM transfer WHERE account_from = ?", payerAccount);
+                currentTemplate.update("DELETE FROM account WHERE account_id IN (?, ?)", payerAccount, payeeAccount);
+                currentTemplate.update("DELETE FROM tenmo_user WHERE user_id IN (?, ?)", payer, payee);
+            }
+        }
+    }
+
+    private static HikariDataSource dataSource(String url, String username, String password, boolean current) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(1);
+        if (current) {
+            // as application.properties sets them
+            dataSource.addDataSourceProperty("prepareThreshold", "1");
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        return dataSource;
+    }
+
+    // how the DAOs mapped history before they read the ResultSet directly
+    private static List<Transfer> historyFromRowSet(SqlRowSet rowSet) {
+        List<Transfer> transfers = new ArrayList<>();
+        while (rowSet.next()) {
+            Transfer transfer = new Transfer();
+            transfer.setTransferId(rowSet.getInt("transfer_id"));
+            transfer.setAmount(rowSet.getBigDecimal("amount"));
+            transfer.setTransferTypeId(rowSet.getInt("transfer_type_id"));
+            transfer.setAccountFromUsername(rowSet.getString("user_from"));
+            transfer.setAccountToUsername(rowSet.getString("user_to"));
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    /**
+     * @return wall nanos, CPU nanos and allocated bytes of the second half of the iterations; the first half
+     * warms up the JIT and the driver's statement cache
+     */
+    private static long[] measure(int iterations, IntSupplier query) {
+        long thread = Thread.currentThread().getId();
+        int warmup = iterations / 2;
+        long sink = 0;
+        for (int i = 0; i < warmup; i++) {
+            sink += query.getAsInt();
+        }
+        long wall = System.nanoTime();
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        long allocated = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = warmup; i < iterations; i++) {
+            sink += query.getAsInt();
+        }
+        long[] totals = {System.nanoTime() - wall, THREADS.getCurrentThreadCpuTime() - cpu,
+                THREADS.getThreadAllocatedBytes(thread) - allocated, iterations - warmup};
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        return totals;
+    }
+
+    private static void report(String query, long[] totals) {
+        long queries = totals[3];
+        System.out.printf("%-18s %8.1f us/query %8.1f us cpu/query %10.0f bytes/query%n", query,
+                totals[0] / 1e3 / queries, totals[1] / 1e3 / queries, (double) totals[2] / queries);
+    }
+}
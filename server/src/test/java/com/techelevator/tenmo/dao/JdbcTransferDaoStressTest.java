@@ -0,0 +1,117 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.Transfer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Approves requests in both directions between two accounts at once, the way two users paying each other
+ * would. Like {@link JdbcAccountDaoStressTest} these commit, so they use their own users and remove them
+ * afterwards.
+ */
+public class JdbcTransferDaoStressTest {
+
+    private static final int ANDY = 8111;
+    private static final int NICOLE = 8112;
+    private static final int ANDY_ACCOUNT = 9111;
+    private static final int NICOLE_ACCOUNT = 9112;
+    private static final int REQUESTS_PER_PAYER = 150;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTransferDao transferDao;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setupData() {
+        dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        removeData();
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (?, 'stressAndy', 'andy'), " +
+                "(?, 'stressNicole', 'nicole')", ANDY, NICOLE);
+        jdbcTemplate.update("INSERT INTO account (account_id, user_id, balance) VALUES (?, ?, ?), (?, ?, ?)",
+                ANDY_ACCOUNT, ANDY, OPENING_BALANCE, NICOLE_ACCOUNT, NICOLE, OPENING_BALANCE);
+        transferDao = new JdbcTransferDao(new JdbcAccountDao(dataSource), dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @After
+    public void removeData() {
+        jdbcTemplate.update("DELETE FROM transfer_event WHERE account_from IN (?, ?)", ANDY_ACCOUNT, NICOLE_ACCOUNT);
+        jdbcTemplate.update("DELETE FROM transfer WHERE account_from IN (?, ?)", ANDY_ACCOUNT, NICOLE_ACCOUNT);
+        jdbcTemplate.update("DELETE FROM account WHERE user_id IN (?, ?)", ANDY, NICOLE);
+        jdbcTemplate.update("DELETE FROM tenmo_user WHERE user_id IN (?, ?)", ANDY, NICOLE);
+    }
+
+    @Test
+    public void crossing_approvals_do_not_deadlock() throws Exception {
+        List<Integer> andyPays = requests(ANDY_ACCOUNT, NICOLE_ACCOUNT);
+        List<Integer> nicolePays = requests(NICOLE_ACCOUNT, ANDY_ACCOUNT);
+        List<Integer> andyPaysInBulk = requests(ANDY_ACCOUNT, NICOLE_ACCOUNT);
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> approved = new ArrayList<>();
+        approved.add(callers.submit(() -> approveOneByOne(start, ANDY_ACCOUNT, andyPays)));
+        approved.add(callers.submit(() -> approveOneByOne(start, NICOLE_ACCOUNT, nicolePays)));
+        approved.add(callers.submit(() -> {
+            start.await();
+            int count = 0;
+            for (int transferId : andyPaysInBulk) {
+                // the bulk path runs in the caller's transaction, as it does behind the controller
+                count += transactionTemplate.execute(status -> transferDao.updatePendingTransfers(ANDY_ACCOUNT,
+                        Collections.singletonList(new PendingDecisionDTO(transferId, 2)))).get(0).getOutcome()
+                        == ApprovalOutcome.APPROVED ? 1 : 0;
+            }
+            return count;
+        }));
+        start.countDown();
+        for (Future<Integer> count : approved) {
+            Assert.assertEquals(REQUESTS_PER_PAYER, count.get().intValue());
+        }
+        callers.shutdown();
+
+        BigDecimal moved = AMOUNT.multiply(BigDecimal.valueOf(REQUESTS_PER_PAYER));
+        Assert.assertEquals(0, OPENING_BALANCE.subtract(moved).compareTo(balanceOf(ANDY_ACCOUNT)));
+        Assert.assertEquals(0, OPENING_BALANCE.add(moved).compareTo(balanceOf(NICOLE_ACCOUNT)));
+    }
+
+    private int approveOneByOne(CountDownLatch start, int payerAccountId, List<Integer> transferIds) throws InterruptedException {
+        start.await();
+        int count = 0;
+        for (int transferId : transferIds) {
+            Transfer approval = new Transfer(transferId, 1, 2, 0, 0, null);
+            count += transferDao.updatePendingTransfer(payerAccountId, approval) == ApprovalOutcome.APPROVED ? 1 : 0;
+        }
+        return count;
+    }
+
+    private List<Integer> requests(int payerAccountId, int payeeAccountId) {
+        return jdbcTemplate.queryForList("INSERT INTO transfer (transfer_type_id, transfer_status_id, account_from, account_to, amount) " +
+                "SELECT 1, 1, ?, ?, ? FROM generate_series(1, ?) RETURNING transfer_id", Integer.class,
+                payerAccountId, payeeAccountId, AMOUNT, REQUESTS_PER_PAYER);
+    }
+
+    private BigDecimal balanceOf(int accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+}
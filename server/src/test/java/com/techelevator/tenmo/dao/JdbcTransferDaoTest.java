@@ -1,7 +1,11 @@
 package com.techelevator.tenmo.dao;
 
 import com.techelevator.tenmo.model.Account;
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
 import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
 import org.junit.*;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
@@ -10,6 +14,7 @@ import javax.validation.constraints.AssertFalse;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -34,6 +39,10 @@ public class JdbcTransferDaoTest {
             9001,9002, new BigDecimal("10.00"));
     private static final Transfer transferRequestApproved = new Transfer(7006,1,2,
             9001,9002,new BigDecimal("10.00"));
+    private static final Transfer transferRequestApprove = new Transfer(7005,1,2,
+            9001,9002,new BigDecimal("10.00"));
+    private static final Transfer transferRequestReject = new Transfer(7005,1,3,
+            9001,9002,new BigDecimal("10.00"));
 
 
     @BeforeClass
@@ -88,8 +97,8 @@ public class JdbcTransferDaoTest {
 
     @Test
     public void send_transfer_returns_true_when_transfer_successful(){
-        boolean sendATransfer = transferDao.sendTransfer(transferTest);
-        Assert.assertTrue("Send transfer was not successful", sendATransfer);
+        WithdrawalOutcome sendATransfer = transferDao.sendTransfer(transferTest);
+        Assert.assertEquals("Send transfer was not successful", WithdrawalOutcome.WITHDRAWN, sendATransfer);
         BigDecimal balance = accountDao.getBalanceByAccountId(9001);
         Assert.assertEquals(new BigDecimal("990.00"), balance);
         BigDecimal balanceReceived = accountDao.getBalanceByAccountId(9002);
@@ -98,8 +107,8 @@ public class JdbcTransferDaoTest {
 
     @Test
     public void send_transfer_returns_true_when_transfer_successful_test_two(){
-        boolean sendATransferTwo = transferDao.sendTransfer(transferTestTwo);
-        Assert.assertTrue("Send transfer was not successful", sendATransferTwo);
+        WithdrawalOutcome sendATransferTwo = transferDao.sendTransfer(transferTestTwo);
+        Assert.assertEquals("Send transfer was not successful", WithdrawalOutcome.WITHDRAWN, sendATransferTwo);
         BigDecimal balance = accountDao.getBalanceByAccountId(9002);
         Assert.assertEquals(new BigDecimal("986.00"), balance);
         BigDecimal balanceReceived = accountDao.getBalanceByAccountId(9001);
@@ -108,10 +117,10 @@ public class JdbcTransferDaoTest {
 
     @Test
     public void send_transfer_returns_false_when_transfer_incorrect(){
-        boolean sendErrorTransfer = transferDao.sendTransfer(errorTransferTest);
-        Assert.assertFalse(sendErrorTransfer);
-        boolean sendErrorTransferTwo = transferDao.sendTransfer(errorTransferTestTwo);
-        Assert.assertFalse(sendErrorTransferTwo);
+        WithdrawalOutcome sendErrorTransfer = transferDao.sendTransfer(errorTransferTest);
+        Assert.assertNotEquals(WithdrawalOutcome.WITHDRAWN, sendErrorTransfer);
+        WithdrawalOutcome sendErrorTransferTwo = transferDao.sendTransfer(errorTransferTestTwo);
+        Assert.assertNotEquals(WithdrawalOutcome.WITHDRAWN, sendErrorTransferTwo);
         BigDecimal balance = accountDao.getBalanceByAccountId(9001);
         Assert.assertEquals(new BigDecimal("1000.00"), balance);
         BigDecimal balanceTwo = accountDao.getBalanceByAccountId(9002);
@@ -136,6 +145,21 @@ public class JdbcTransferDaoTest {
         Assert.assertEquals(new BigDecimal("10.00"), transferList.get(0).getAmount());
     }
 
+    @Test
+    public void view_transfers_since_returns_only_newer_transfers(){
+        List<Transfer> transferList = transferDao.viewTransfers("andyTest", 7002);
+        Assert.assertEquals(2, transferList.size());
+        Assert.assertEquals(7005, transferList.get(0).getTransferId());
+        Assert.assertEquals(7006, transferList.get(1).getTransferId());
+    }
+
+    @Test
+    public void view_transfers_by_account_id_matches_the_username_lookup(){
+        Assert.assertEquals(idsOf(transferDao.viewTransfers("andyTest", 0)), idsOf(transferDao.viewTransfers(9001, 0)));
+        Assert.assertEquals(Arrays.asList(7005, 7006), idsOf(transferDao.viewTransfers(9002, 7002)));
+        Assert.assertTrue(transferDao.viewTransfers(99999, 0).isEmpty());
+    }
+
     @Test
     public void get_username_by_account_id_returns_correct_user(){
         String username = transferDao.getUsernameByAccountId(9001);
@@ -190,10 +214,131 @@ public class JdbcTransferDaoTest {
 
     @Test
     public void update_pending_transfer_updates_balances_when_successful(){
-        boolean updateTransfer = transferDao.updatePendingTransfer(transferRequestApproved);
-        assertTrue(updateTransfer);
-        Assert.assertEquals(new BigDecimal("990.00"), accountDao.getBalanceByAccountId(9001));
-        Assert.assertEquals(new BigDecimal("1011.00"), accountDao.getBalanceByAccountId(9002));
+        ApprovalOutcome outcome = transferDao.updatePendingTransfer(9001, transferRequestApprove);
+        Assert.assertEquals(ApprovalOutcome.APPROVED, outcome);
+        Assert.assertEquals(new BigDecimal("990.00"), accountDao.getBalance(8001));
+        Assert.assertEquals(new BigDecimal("1011.00"), accountDao.getBalance(8002));
+        Assert.assertEquals("Approved", transferDao.viewTransferDetails(7005).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfer_rejects_without_moving_money(){
+        ApprovalOutcome outcome = transferDao.updatePendingTransfer(9001, transferRequestReject);
+        Assert.assertEquals(ApprovalOutcome.REJECTED, outcome);
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(8001));
+        Assert.assertEquals(new BigDecimal("1001.00"), accountDao.getBalance(8002));
+        Assert.assertEquals("Rejected", transferDao.viewTransferDetails(7005).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfer_does_nothing_when_already_resolved(){
+        ApprovalOutcome outcome = transferDao.updatePendingTransfer(9001, transferRequestApproved);
+        Assert.assertEquals(ApprovalOutcome.ALREADY_RESOLVED, outcome);
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(8001));
+        Assert.assertEquals(new BigDecimal("1001.00"), accountDao.getBalance(8002));
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, transferDao.updatePendingTransfer(9001,
+                new Transfer(99999, 1, 2, 9001, 9002, new BigDecimal("10.00"))));
+    }
+
+    @Test
+    public void update_pending_transfer_refuses_anyone_but_the_payer(){
+        ApprovalOutcome outcome = transferDao.updatePendingTransfer(9002, transferRequestApprove);
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, outcome);
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(8001));
+        Assert.assertEquals(new BigDecimal("1001.00"), accountDao.getBalance(8002));
+        Assert.assertEquals("Pending", transferDao.viewTransferDetails(7005).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfer_rejects_when_funds_are_insufficient(){
+        new JdbcTemplate(dataSource).update("INSERT INTO transfer (transfer_id, transfer_type_id, transfer_status_id, " +
+                "account_from, account_to, amount) VALUES (7007,1,1,9001,9002,5000)");
+        ApprovalOutcome outcome = transferDao.updatePendingTransfer(9001, new Transfer(7007, 1, 2,
+                9001, 9002, new BigDecimal("5000.00")));
+        Assert.assertEquals(ApprovalOutcome.INSUFFICIENT_FUNDS, outcome);
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(8001));
+        Assert.assertEquals("Rejected", transferDao.viewTransferDetails(7007).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfers_applies_approvals_in_id_order_against_running_balance(){
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO transfer (transfer_id, transfer_type_id, transfer_status_id, " +
+                "account_from, account_to, amount) VALUES (7007,1,1,9001,9002,600), (7008,1,1,9001,9002,500)");
+        List<PendingDecisionResultDTO> results = transferDao.updatePendingTransfers("andyTest", Arrays.asList(
+                new PendingDecisionDTO(7008, 2), new PendingDecisionDTO(7007, 2), new PendingDecisionDTO(7005, 2)));
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(7008, results.get(0).getTransferId());
+        Assert.assertEquals(ApprovalOutcome.INSUFFICIENT_FUNDS, results.get(0).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.APPROVED, results.get(1).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.APPROVED, results.get(2).getOutcome());
+        Assert.assertEquals(new BigDecimal("390.00"), accountDao.getBalance(8001));
+        Assert.assertEquals(new BigDecimal("1611.00"), accountDao.getBalance(8002));
+        Assert.assertEquals("Rejected", transferDao.viewTransferDetails(7008).getTransferStatusDesc());
+        Assert.assertEquals("Approved", transferDao.viewTransferDetails(7007).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfers_reports_rejected_resolved_and_foreign_transfers(){
+        List<PendingDecisionResultDTO> results = transferDao.updatePendingTransfers("andyTest", Arrays.asList(
+                new PendingDecisionDTO(7005, 3), new PendingDecisionDTO(7005, 2),
+                new PendingDecisionDTO(7006, 2), new PendingDecisionDTO(99999, 2)));
+        Assert.assertEquals(ApprovalOutcome.REJECTED, results.get(0).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.ALREADY_RESOLVED, results.get(1).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.ALREADY_RESOLVED, results.get(2).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, results.get(3).getOutcome());
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(8001));
+
+        List<PendingDecisionResultDTO> notPayer = transferDao.updatePendingTransfers("nicoleTest",
+                Arrays.asList(new PendingDecisionDTO(7005, 2)));
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, notPayer.get(0).getOutcome());
+    }
+
+    @Test
+    public void update_pending_transfers_by_account_id_only_resolves_the_payers_requests(){
+        List<PendingDecisionResultDTO> notPayer = transferDao.updatePendingTransfers(9002,
+                Arrays.asList(new PendingDecisionDTO(7005, 2)));
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, notPayer.get(0).getOutcome());
+
+        List<PendingDecisionResultDTO> results = transferDao.updatePendingTransfers(9001,
+                Arrays.asList(new PendingDecisionDTO(7005, 2)));
+        Assert.assertEquals(ApprovalOutcome.APPROVED, results.get(0).getOutcome());
+        Assert.assertEquals(new BigDecimal("990.00"), accountDao.getBalance(8001));
+    }
+
+    @Test
+    public void resolving_pending_transfers_bumps_the_versions_of_both_accounts(){
+        TransferVersions versions = new TransferVersions();
+        JdbcTransferDao dao = new JdbcTransferDao(accountDao, dataSource, BalanceCache.NONE, versions);
+        new JdbcTemplate(dataSource).update("INSERT INTO transfer (transfer_id, transfer_type_id, transfer_status_id, " +
+                "account_from, account_to, amount) VALUES (7007,1,1,9001,9002,25)");
+
+        dao.updatePendingTransfer(9001, transferRequestReject);
+        Assert.assertEquals(1, versions.version(9001));
+        Assert.assertEquals(1, versions.version(9002));
+
+        dao.updatePendingTransfer(9001, transferRequestApproved);
+        Assert.assertEquals(1, versions.version(9002));
+
+        dao.updatePendingTransfers(9001, Arrays.asList(new PendingDecisionDTO(7007, 2)));
+        Assert.assertEquals(2, versions.version(9001));
+        Assert.assertEquals(2, versions.version(9002));
+    }
+
+    @Test
+    public void resolving_pending_transfers_writes_events_to_the_outbox(){
+        new JdbcTemplate(dataSource).update("INSERT INTO transfer (transfer_id, transfer_type_id, transfer_status_id, " +
+                "account_from, account_to, amount) VALUES (7007,1,1,9001,9002,25), (7008,1,1,9001,9002,30)");
+        transferDao.updatePendingTransfer(9001, transferRequestApprove);
+        transferDao.updatePendingTransfer(9001, transferRequestApproved);
+        transferDao.updatePendingTransfers("andyTest", Arrays.asList(
+                new PendingDecisionDTO(7007, 3), new PendingDecisionDTO(7008, 2)));
+
+        List<String> events = new JdbcTemplate(dataSource).queryForList("SELECT transfer_id || ' ' || event_type || ' ' || " +
+                "account_from || ' ' || account_to || ' ' || amount FROM transfer_event " +
+                "WHERE transfer_id BETWEEN 7001 AND 7008 ORDER BY event_id", String.class);
+        Assert.assertEquals(Arrays.asList("7005 APPROVED 9001 9002 10.00", "7007 REJECTED 9001 9002 25.00",
+                "7008 APPROVED 9001 9002 30.00"), events);
     }
 
     @Test
@@ -205,4 +350,18 @@ public class JdbcTransferDaoTest {
         Assert.assertEquals(new BigDecimal("10.00"), pendingRequest.get(0).getAmount());
     }
 
+    @Test
+    public void view_pending_requests_by_account_id_returns_the_payers_requests(){
+        Assert.assertEquals(Arrays.asList(7005), idsOf(transferDao.viewPendingRequests(9001)));
+        Assert.assertTrue(transferDao.viewPendingRequests(9002).isEmpty());
+    }
+
+    private static List<Integer> idsOf(List<Transfer> transfers){
+        List<Integer> ids = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            ids.add(transfer.getTransferId());
+        }
+        return ids;
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.techelevator.tenmo.dao;
+
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+/**
+ * Runs sendTransfer behind the same transaction advice the container gives it, on its own and inside a
+ * caller's transaction the way a group commit batch calls it. These commit, so like
+ * {@link JdbcTransferDaoStressTest} they use their own users and remove them afterwards.
+ */
+public class JdbcTransferDaoTransactionTest {
+
+    private static final int ANDY = 8121;
+    private static final int NICOLE = 8122;
+    private static final int UNKNOWN_USER = 8129;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private TransferDao transferDao;
+
+    @Before
+    public void setupData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        removeData();
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (?, 'txAndy', 'andy'), " +
+                "(?, 'txNicole', 'nicole')", ANDY, NICOLE);
+        jdbcTemplate.update("INSERT INTO account (user_id, balance) VALUES (?, ?), (?, ?)",
+                ANDY, OPENING_BALANCE, NICOLE, OPENING_BALANCE);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        ProxyFactory proxyFactory = new ProxyFactory(new JdbcTransferDao(new JdbcAccountDao(dataSource), dataSource));
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        transferDao = (TransferDao) proxyFactory.getProxy();
+    }
+
+    @After
+    public void removeData() {
+        jdbcTemplate.update("DELETE FROM transfer_event WHERE account_from IN " +
+                "(SELECT account_id FROM account WHERE user_id IN (?, ?))", ANDY, NICOLE);
+        jdbcTemplate.update("DELETE FROM transfer WHERE account_from IN " +
+                "(SELECT account_id FROM account WHERE user_id IN (?, ?))", ANDY, NICOLE);
+        jdbcTemplate.update("DELETE FROM account WHERE user_id IN (?, ?)", ANDY, NICOLE);
+        jdbcTemplate.update("DELETE FROM tenmo_user WHERE user_id IN (?, ?)", ANDY, NICOLE);
+    }
+
+    @Test
+    public void send_to_an_unknown_payee_rolls_back_the_withdrawal() {
+        Assert.assertEquals(WithdrawalOutcome.NOT_FOUND,
+                transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, UNKNOWN_USER, new BigDecimal("10.00"))));
+        Assert.assertEquals(0, OPENING_BALANCE.compareTo(balanceOf(ANDY)));
+    }
+
+    @Test
+    public void refused_send_inside_a_batch_rolls_back_only_itself() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Assert.assertEquals(WithdrawalOutcome.NOT_FOUND,
+                    transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, UNKNOWN_USER, new BigDecimal("10.00"))));
+            Assert.assertEquals(WithdrawalOutcome.WITHDRAWN,
+                    transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("5.00"))));
+        });
+        Assert.assertEquals(0, new BigDecimal("995.00").compareTo(balanceOf(ANDY)));
+        Assert.assertEquals(0, new BigDecimal("1005.00").compareTo(balanceOf(NICOLE)));
+    }
+
+    private BigDecimal balanceOf(int userId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE user_id = ?", BigDecimal.class, userId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.techelevator.tenmo.dao;
+
+import org.junit.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.sql.SQLException;
+
+public class JdbcUserDaoTest {
+
+    private static SingleConnectionDataSource dataSource;
+    private JdbcUserDao userDao;
+
+    @BeforeClass
+    public static void setup() {
+        dataSource = new SingleConnectionDataSource();
+        dataSource.setUrl("jdbc:postgresql://localhost:5432/tenmo");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres1");
+        dataSource.setAutoCommit(false);
+    }
+
+    @Before
+    public void setupData() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (8001, 'andy_Test', 'andy')");
+        jdbcTemplate.update("INSERT INTO tenmo_user (user_id, username, password_hash) VALUES (8002, 'andyXtest', 'andy')");
+        userDao = new JdbcUserDao(jdbcTemplate);
+    }
+
+    @After
+    public void rollback() throws SQLException {
+        dataSource.getConnection().rollback();
+    }
+
+    @AfterClass
+    public static void closeDataSource() {
+        dataSource.destroy();
+    }
+
+    @Test
+    public void username_lookup_ignores_case() {
+        Assert.assertEquals(8001, userDao.findIdByUsername("ANDY_TEST"));
+        Assert.assertEquals(8001, userDao.findIdByUsername("andy_test"));
+        Assert.assertEquals("andy_Test", userDao.findByUsername("andy_test").getUsername());
+    }
+
+    @Test
+    public void underscore_and_percent_are_not_wildcards() {
+        Assert.assertEquals(8002, userDao.findIdByUsername("andyxtest"));
+        Assert.assertEquals(-1, userDao.findIdByUsername("andy%"));
+        Assert.assertEquals(8001, userDao.findByUsername("andy_test").getId().intValue());
+    }
+
+    @Test
+    public void find_by_username_carries_the_account_id() {
+        new JdbcTemplate(dataSource).update("INSERT INTO account (account_id, user_id, balance) VALUES (9001, 8001, 1000.00)");
+        Assert.assertEquals(9001, userDao.findByUsername("andy_test").getAccountId());
+    }
+
+    @Test(expected = UsernameNotFoundException.class)
+    public void unknown_username_is_not_found() {
+        userDao.findByUsername("andy%");
+    }
+
+    @Test(expected = org.springframework.dao.DuplicateKeyException.class)
+    public void usernames_differing_only_in_case_are_rejected() {
+        new JdbcTemplate(dataSource).update("INSERT INTO tenmo_user (username, password_hash) VALUES ('ANDY_TEST', 'x')");
+    }
+}
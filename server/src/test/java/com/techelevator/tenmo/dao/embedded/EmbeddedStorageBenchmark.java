@@ -0,0 +1,92 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import com.techelevator.tenmo.dao.JdbcAccountDao;
+import com.techelevator.tenmo.dao.JdbcTransferDao;
+import com.techelevator.tenmo.dao.JdbcUserDao;
+import com.techelevator.tenmo.dao.TransferDao;
+import com.techelevator.tenmo.dao.UserDao;
+import com.techelevator.tenmo.dao.memory.MemoryTransferDao;
+import com.techelevator.tenmo.dao.memory.MemoryUserDao;
+import com.techelevator.tenmo.model.Transfer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares durable sendTransfer throughput of the embedded engine with the JDBC engine on Postgres. Both run
+ * the same workload: random sends of 1.00 between a small set of freshly registered users.
+ *
+ *   EmbeddedStorageBenchmark [transfersPerThread] [threads] [jdbcUrl] [username] [password]
+ */
+public class EmbeddedStorageBenchmark {
+
+    private static final int USERS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        String url = args.length > 2 ? args[2] : "jdbc:postgresql://localhost:5432/tenmo";
+        String prefix = "bench" + System.currentTimeMillis() + "-";
+
+        Path directory = Files.createTempDirectory("embedded-benchmark");
+        EmbeddedStorage storage = new EmbeddedStorage(directory, 64 << 20, 0);
+        int[] embeddedUsers = register(new MemoryUserDao(storage.getStore()), prefix);
+        report("embedded", run(new MemoryTransferDao(storage.getStore()), embeddedUsers, perThread, threads), perThread * threads);
+        storage.close();
+
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(args.length > 3 ? args[3] : "postgres");
+            dataSource.setPassword(args.length > 4 ? args[4] : "postgres1");
+            dataSource.setMaximumPoolSize(threads);
+            int[] jdbcUsers = register(new JdbcUserDao(new JdbcTemplate(dataSource)), prefix);
+            TransferDao transferDao = new JdbcTransferDao(new JdbcAccountDao(dataSource), dataSource);
+            report("jdbc", run(transferDao, jdbcUsers, perThread, threads), perThread * threads);
+        }
+        System.out.println("embedded data in " + directory);
+    }
+
+    private static int[] register(UserDao userDao, String prefix) {
+        int[] userIds = new int[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userDao.create(prefix + i, "password");
+            userIds[i] = userDao.findIdByUsername(prefix + i);
+        }
+        return userIds;
+    }
+
+    private static long run(TransferDao transferDao, int[] userIds, int perThread, int threads) throws InterruptedException {
+        Runnable task = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perThread; i++) {
+                int from = random.nextInt(userIds.length);
+                // the JDBC engine leaves rejecting sends to yourself to the controller
+                int to = (from + 1 + random.nextInt(userIds.length - 1)) % userIds.length;
+                transferDao.sendTransfer(new Transfer(0, 2, 2, userIds[from], userIds[to], BigDecimal.ONE));
+            }
+        };
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(task));
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String engine, long nanos, int transfers) {
+        System.out.printf("%-10s %10.1f ms %10.0f transfers/s %8.1f us/transfer%n", engine, nanos / 1e6,
+                transfers / (nanos / 1e9), nanos / 1e3 / transfers);
+    }
+}
@@ -0,0 +1,196 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import com.techelevator.tenmo.dao.memory.MemoryAccountDao;
+import com.techelevator.tenmo.dao.memory.MemoryStore;
+import com.techelevator.tenmo.dao.memory.MemoryTransferDao;
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class EmbeddedStorageTest {
+
+    private static final int ANDY = 1001;
+    private static final int NICOLE = 1002;
+    private static final int ANDY_ACCOUNT = 2001;
+    private static final int WRITER_USERS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void state_is_restored_from_the_log_without_a_snapshot() {
+        Path directory = folder.getRoot().toPath();
+        EmbeddedStorage storage = new EmbeddedStorage(directory, 4096, 0);
+        MemoryTransferDao transferDao = new MemoryTransferDao(storage.getStore());
+        storage.getStore().createUser("andyTest", "andy", new BigDecimal("1000.00"));
+        storage.getStore().createUser("nicoleTest", "nicole", new BigDecimal("1000.00"));
+        transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("25.00")));
+        Assert.assertEquals(ApprovalOutcome.APPROVED, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(3002, 1, 2, 0, 0, null)));
+        // not closed: the process stops without a final snapshot
+
+        EmbeddedStorage reopened = new EmbeddedStorage(directory, 4096, 0);
+        MemoryStore store = reopened.getStore();
+        MemoryAccountDao accountDao = new MemoryAccountDao(store);
+        Assert.assertEquals(new BigDecimal("965.00"), accountDao.getBalance(ANDY));
+        Assert.assertEquals(new BigDecimal("1035.00"), accountDao.getBalance(NICOLE));
+        Assert.assertEquals("Approved", new MemoryTransferDao(store).viewTransferDetails(3002).getTransferStatusDesc());
+        Assert.assertEquals("andy", store.user("ANDYTEST").passwordHash);
+
+        Assert.assertNotNull(store.createUser("thirdTest", "third", new BigDecimal("1000.00")));
+        Assert.assertEquals(1003, store.user("thirdTest").userId);
+        new MemoryTransferDao(store).sendTransfer(new Transfer(0, 2, 2, NICOLE, ANDY, new BigDecimal("5.00")));
+        Assert.assertNotNull(store.transfer(3003));
+    }
+
+    @Test
+    public void snapshot_plus_later_log_restores_state_and_old_segments_are_dropped() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        EmbeddedStorage storage = new EmbeddedStorage(directory, 512, 0);
+        MemoryTransferDao transferDao = new MemoryTransferDao(storage.getStore());
+        storage.getStore().createUser("andyTest", "andy", new BigDecimal("1000.00"));
+        storage.getStore().createUser("nicoleTest", "nicole", new BigDecimal("1000.00"));
+        for (int i = 0; i < 50; i++) {
+            transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("1.00")));
+        }
+        storage.snapshot();
+        for (int i = 0; i < 50; i++) {
+            transferDao.sendTransfer(new Transfer(0, 2, 2, NICOLE, ANDY, new BigDecimal("2.00")));
+        }
+        storage.snapshot();
+        transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("3.00")));
+
+        Assert.assertEquals(2, files(directory, ".snap").size());
+        List<Path> segments = files(directory.resolve("wal"), ".wal");
+        Assert.assertFalse(segments.get(0).getFileName().toString().startsWith("00000000000000000000"));
+
+        MemoryStore store = new EmbeddedStorage(directory, 512, 0).getStore();
+        Assert.assertEquals(new BigDecimal("1047.00"), new MemoryAccountDao(store).getBalance(ANDY));
+        Assert.assertEquals(101, new MemoryTransferDao(store).viewTransfers(2001, 0).size());
+    }
+
+    @Test
+    public void unreadable_snapshot_falls_back_to_the_one_before() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        EmbeddedStorage storage = new EmbeddedStorage(directory, 4096, 0);
+        storage.getStore().createUser("andyTest", "andy", new BigDecimal("1000.00"));
+        storage.getStore().createUser("nicoleTest", "nicole", new BigDecimal("1000.00"));
+        storage.snapshot();
+        new MemoryTransferDao(storage.getStore()).sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10.00")));
+        storage.snapshot();
+
+        List<Path> snapshots = files(directory, ".snap");
+        Path newest = snapshots.get(snapshots.size() - 1);
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(newest, bytes);
+
+        MemoryStore store = new EmbeddedStorage(directory, 4096, 0).getStore();
+        Assert.assertEquals(new BigDecimal("990.00"), new MemoryAccountDao(store).getBalance(ANDY));
+    }
+
+    @Test
+    public void acknowledged_transfers_survive_the_process_being_killed() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Writer.class.getName(), directory.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        int[] acknowledged = new int[WRITER_USERS];
+        int acks = 0;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (acks < 3000 && (line = out.readLine()) != null) {
+                if (line.startsWith("ack ")) {
+                    acknowledged[Integer.parseInt(line.substring(4)) - ANDY]++;
+                    acks++;
+                }
+            }
+            writer.destroyForcibly();
+            Assert.assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(3000, acks);
+
+        MemoryStore store = new EmbeddedStorage(directory, 1 << 16, 0).getStore();
+        MemoryAccountDao accountDao = new MemoryAccountDao(store);
+        MemoryTransferDao transferDao = new MemoryTransferDao(store);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < WRITER_USERS; i++) {
+            int accountId = store.accountOfUser(ANDY + i).accountId;
+            BigDecimal expected = new BigDecimal("1000.00");
+            int sent = 0;
+            for (Transfer transfer : transferDao.viewTransfers(accountId, 0)) {
+                if (transfer.getAccountFromUsername().equals("user" + i)) {
+                    expected = expected.subtract(transfer.getAmount());
+                    sent++;
+                } else {
+                    expected = expected.add(transfer.getAmount());
+                }
+            }
+            Assert.assertTrue(sent >= acknowledged[i]);
+            Assert.assertEquals(expected, accountDao.getBalance(ANDY + i));
+            total = total.add(accountDao.getBalance(ANDY + i));
+        }
+        Assert.assertEquals(new BigDecimal("1000.00").multiply(BigDecimal.valueOf(WRITER_USERS)), total);
+    }
+
+    private static List<Path> files(Path directory, String suffix) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Sends transfers from four threads until it is killed, printing the sender of each one once it is durable.
+     */
+    public static class Writer {
+        public static void main(String[] args) throws Exception {
+            EmbeddedStorage storage = new EmbeddedStorage(new File(args[0]).toPath(), 1 << 16, 50);
+            MemoryStore store = storage.getStore();
+            for (int i = 0; i < WRITER_USERS; i++) {
+                store.createUser("user" + i, "x", new BigDecimal("1000.00"));
+            }
+            MemoryTransferDao transferDao = new MemoryTransferDao(store);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (true) {
+                        int from = ANDY + random.nextInt(WRITER_USERS);
+                        int to = ANDY + random.nextInt(WRITER_USERS);
+                        if (transferDao.sendTransfer(new Transfer(0, 2, 2, from, to, new BigDecimal(random.nextInt(1, 50))))
+                                == WithdrawalOutcome.WITHDRAWN) {
+                            synchronized (System.out) {
+                                System.out.println("ack " + from);
+                                System.out.flush();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+        }
+    }
+}
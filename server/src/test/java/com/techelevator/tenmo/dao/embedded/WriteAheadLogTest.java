@@ -0,0 +1,111 @@
+package com.techelevator.tenmo.dao.embedded;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class WriteAheadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entries_are_replayed_in_order_across_segments() {
+        Path directory = folder.getRoot().toPath();
+        WriteAheadLog log = new WriteAheadLog(directory, 64);
+        List<Long> ends = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ends.add(log.append(entry("entry-" + i)));
+        }
+        log.close();
+        Assert.assertTrue(folder.getRoot().list().length > 1);
+
+        WriteAheadLog reopened = new WriteAheadLog(directory, 64);
+        Assert.assertEquals(ends.get(9).longValue(), reopened.end());
+        Assert.assertEquals(Arrays.asList("entry-0", "entry-1", "entry-2", "entry-3", "entry-4", "entry-5", "entry-6",
+                "entry-7", "entry-8", "entry-9"), replay(reopened, 0));
+        Assert.assertEquals(Arrays.asList("entry-8", "entry-9"), replay(reopened, ends.get(7)));
+    }
+
+    @Test
+    public void torn_entry_ends_the_log_and_is_overwritten() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        WriteAheadLog log = new WriteAheadLog(directory, 4096);
+        log.append(entry("first"));
+        long second = log.append(entry("second"));
+        log.append(entry("third"));
+        log.close();
+        // the process died while the third entry's payload was only partly copied
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(String.format("%020d.wal", 0)).toFile(), "rw")) {
+            file.seek(second + 8 + 2);
+            file.write('X');
+        }
+
+        WriteAheadLog reopened = new WriteAheadLog(directory, 4096);
+        Assert.assertEquals(second, reopened.end());
+        Assert.assertEquals(Arrays.asList("first", "second"), replay(reopened, 0));
+        reopened.append(entry("fourth"));
+        reopened.close();
+        Assert.assertEquals(Arrays.asList("first", "second", "fourth"), replay(new WriteAheadLog(directory, 4096), 0));
+    }
+
+    @Test
+    public void segments_before_a_position_are_deleted_but_never_the_last() {
+        WriteAheadLog log = new WriteAheadLog(folder.getRoot().toPath(), 64);
+        long end = 0;
+        for (int i = 0; i < 10; i++) {
+            end = log.append(entry("entry-" + i));
+        }
+        log.deleteBefore(end);
+        Assert.assertEquals(1, folder.getRoot().list().length);
+        Assert.assertTrue(log.start() > 0);
+        // four entries fit in a segment
+        Assert.assertEquals(Arrays.asList("entry-8", "entry-9"), replay(log, log.start()));
+    }
+
+    @Test
+    public void concurrent_appenders_all_become_durable() throws Exception {
+        WriteAheadLog log = new WriteAheadLog(folder.getRoot().toPath(), 1 << 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    log.awaitDurable(log.append(entry(thread + "-" + i)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assert.assertEquals(800, replay(log, 0).size());
+    }
+
+    private static ByteBuffer entry(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> replay(WriteAheadLog log, long from) {
+        List<String> entries = new ArrayList<>();
+        log.replay(from, payload -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            entries.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return entries;
+    }
+}
@@ -0,0 +1,194 @@
+package com.techelevator.tenmo.dao.memory;
+
+import com.techelevator.tenmo.model.ApprovalOutcome;
+import com.techelevator.tenmo.model.PendingDecisionDTO;
+import com.techelevator.tenmo.model.PendingDecisionResultDTO;
+import com.techelevator.tenmo.model.Transfer;
+import com.techelevator.tenmo.model.WithdrawalOutcome;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MemoryTransferDaoTest {
+
+    // user and account IDs start where the schema's sequences do
+    private static final int ANDY = 1001;
+    private static final int NICOLE = 1002;
+    private static final int ANDY_ACCOUNT = 2001;
+    private static final int NICOLE_ACCOUNT = 2002;
+
+    private MemoryStore store;
+    private MemoryAccountDao accountDao;
+    private MemoryTransferDao transferDao;
+
+    @Before
+    public void setup() {
+        store = new MemoryStore();
+        accountDao = new MemoryAccountDao(store);
+        transferDao = new MemoryTransferDao(store);
+        store.createUser("andyTest", "andy", new BigDecimal("1000.00"));
+        store.createUser("nicoleTest", "nicole", new BigDecimal("1001.00"));
+    }
+
+    @Test
+    public void send_transfer_moves_money_and_records_the_transfer() {
+        Assert.assertEquals(WithdrawalOutcome.WITHDRAWN, transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10.00"))));
+        Assert.assertEquals(new BigDecimal("990.00"), accountDao.getBalance(ANDY));
+        Assert.assertEquals(new BigDecimal("1011.00"), accountDao.getBalanceByAccountId(NICOLE_ACCOUNT));
+
+        Transfer details = transferDao.viewTransferDetails(3001);
+        Assert.assertEquals("Send", details.getTransferTypeDesc());
+        Assert.assertEquals("Approved", details.getTransferStatusDesc());
+        Assert.assertEquals(ANDY_ACCOUNT, details.getAccountFrom());
+        Assert.assertEquals("nicoleTest", details.getAccountToUsername());
+    }
+
+    @Test
+    public void send_transfer_returns_false_when_transfer_incorrect() {
+        Assert.assertEquals(WithdrawalOutcome.INSUFFICIENT_FUNDS, transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10000.00"))));
+        Assert.assertEquals(WithdrawalOutcome.NOT_FOUND, transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, ANDY, new BigDecimal("10.00"))));
+        Assert.assertEquals(WithdrawalOutcome.NOT_FOUND, transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, 9999, new BigDecimal("10.00"))));
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(ANDY));
+        Assert.assertTrue(transferDao.viewTransfers("andyTest").isEmpty());
+    }
+
+    @Test
+    public void history_lists_both_directions_in_id_order_and_since() {
+        transferDao.sendTransfer(new Transfer(0, 2, 2, ANDY, NICOLE, new BigDecimal("10.00")));
+        transferDao.sendTransfer(new Transfer(0, 2, 2, NICOLE, ANDY, new BigDecimal("15.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("10.00")));
+
+        List<Transfer> history = transferDao.viewTransfers(NICOLE_ACCOUNT, 0);
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals("andyTest", history.get(0).getAccountFromUsername());
+        Assert.assertEquals("andyTest", history.get(1).getAccountToUsername());
+        Assert.assertEquals(Arrays.asList(3002, 3003), idsOf(transferDao.viewTransfers("andyTest", 3001)));
+        Assert.assertTrue(transferDao.viewTransfers(9999, 0).isEmpty());
+    }
+
+    @Test
+    public void pending_requests_are_listed_for_the_payer_only() {
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("10.00")));
+        List<Transfer> pending = transferDao.viewPendingRequests("andyTest");
+        Assert.assertEquals(1, pending.size());
+        Assert.assertEquals("nicoleTest", pending.get(0).getUsername());
+        Assert.assertEquals(new BigDecimal("10.00"), pending.get(0).getAmount());
+        Assert.assertTrue(transferDao.viewPendingRequests(NICOLE_ACCOUNT).isEmpty());
+    }
+
+    @Test
+    public void update_pending_transfer_reports_each_outcome() {
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("10.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("5000.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("20.00")));
+
+        Assert.assertEquals(ApprovalOutcome.APPROVED, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(3001, 1, 2, 0, 0, null)));
+        Assert.assertEquals(ApprovalOutcome.ALREADY_RESOLVED, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(3001, 1, 2, 0, 0, null)));
+        Assert.assertEquals(ApprovalOutcome.INSUFFICIENT_FUNDS, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(3002, 1, 2, 0, 0, null)));
+        Assert.assertEquals(ApprovalOutcome.REJECTED, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(3003, 1, 3, 0, 0, null)));
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, transferDao.updatePendingTransfer(ANDY_ACCOUNT, new Transfer(9999, 1, 2, 0, 0, null)));
+
+        Assert.assertEquals(new BigDecimal("990.00"), accountDao.getBalance(ANDY));
+        Assert.assertEquals(new BigDecimal("1011.00"), accountDao.getBalance(NICOLE));
+        Assert.assertEquals("Rejected", transferDao.viewTransferDetails(3002).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfer_refuses_anyone_but_the_payer() {
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("10.00")));
+
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, transferDao.updatePendingTransfer(NICOLE_ACCOUNT, new Transfer(3001, 1, 2, 0, 0, null)));
+        Assert.assertEquals(new BigDecimal("1000.00"), accountDao.getBalance(ANDY));
+        Assert.assertEquals("Pending", transferDao.viewTransferDetails(3001).getTransferStatusDesc());
+    }
+
+    @Test
+    public void update_pending_transfers_applies_approvals_in_id_order_against_running_balance() {
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("600.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("600.00")));
+        transferDao.requestTransfer(new Transfer(0, 1, 1, ANDY, NICOLE, new BigDecimal("300.00")));
+
+        List<PendingDecisionResultDTO> results = transferDao.updatePendingTransfers(ANDY_ACCOUNT, Arrays.asList(
+                new PendingDecisionDTO(3003, 2), new PendingDecisionDTO(3002, 2), new PendingDecisionDTO(3001, 2),
+                new PendingDecisionDTO(3001, 3), new PendingDecisionDTO(9999, 2)));
+        Assert.assertEquals(ApprovalOutcome.APPROVED, results.get(0).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.INSUFFICIENT_FUNDS, results.get(1).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.APPROVED, results.get(2).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.ALREADY_RESOLVED, results.get(3).getOutcome());
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, results.get(4).getOutcome());
+        Assert.assertEquals(new BigDecimal("100.00"), accountDao.getBalance(ANDY));
+
+        List<PendingDecisionResultDTO> notPayer = transferDao.updatePendingTransfers("nicoleTest",
+                Arrays.asList(new PendingDecisionDTO(3002, 2)));
+        Assert.assertEquals(ApprovalOutcome.NOT_FOUND, notPayer.get(0).getOutcome());
+    }
+
+    @Test
+    public void concurrent_transfers_never_create_or_lose_money() throws Exception {
+        int users = 20;
+        for (int i = 2; i < users; i++) {
+            store.createUser("user" + i, "x", new BigDecimal("1000.00"));
+        }
+        BigDecimal before = totalBalance(users);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2000; i++) {
+                    int from = ANDY + random.nextInt(users);
+                    int to = ANDY + random.nextInt(users);
+                    BigDecimal amount = new BigDecimal(random.nextInt(1, 200));
+                    if (random.nextBoolean()) {
+                        transferDao.sendTransfer(new Transfer(0, 2, 2, from, to, amount));
+                    } else if (transferDao.requestTransfer(new Transfer(0, 1, 1, from, to, amount))) {
+                        List<Transfer> pending = transferDao.viewPendingRequests(store.accountOfUser(from).accountId);
+                        if (!pending.isEmpty()) {
+                            transferDao.updatePendingTransfers(store.accountOfUser(from).accountId,
+                                    Arrays.asList(new PendingDecisionDTO(pending.get(0).getTransferId(), 2)));
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(before, totalBalance(users));
+        for (int i = 0; i < users; i++) {
+            Assert.assertTrue(accountDao.getBalance(ANDY + i).signum() >= 0);
+            List<Integer> ids = idsOf(transferDao.viewTransfers(store.accountOfUser(ANDY + i).accountId, 0));
+            List<Integer> sorted = new ArrayList<>(ids);
+            sorted.sort(null);
+            Assert.assertEquals(sorted, ids);
+        }
+    }
+
+    private BigDecimal totalBalance(int users) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < users; i++) {
+            total = total.add(accountDao.getBalance(ANDY + i));
+        }
+        return total;
+    }
+
+    private static List<Integer> idsOf(List<Transfer> transfers) {
+        List<Integer> ids = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            ids.add(transfer.getTransferId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.techelevator.tenmo.dao.memory;
+
+import com.techelevator.tenmo.model.User;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class MemoryUserDaoTest {
+
+    private MemoryStore store;
+    private MemoryUserDao userDao;
+
+    @Before
+    public void setup() {
+        store = new MemoryStore();
+        userDao = new MemoryUserDao(store);
+        store.createUser("andy_Test", "andy", new BigDecimal("1000.00"));
+        store.createUser("nicoleTest", "nicole", new BigDecimal("1001.00"));
+    }
+
+    @Test
+    public void users_get_ids_and_accounts_in_creation_order() {
+        List<User> users = userDao.findAll();
+        Assert.assertEquals(2, users.size());
+        Assert.assertEquals(1001L, users.get(0).getId().longValue());
+        Assert.assertEquals("nicoleTest", users.get(1).getUsername());
+        Assert.assertEquals(2002, userDao.findByUsername("nicoleTest").getAccountId());
+    }
+
+    @Test
+    public void username_lookup_ignores_case() {
+        Assert.assertEquals(1001, userDao.findIdByUsername("ANDY_TEST"));
+        Assert.assertEquals("andy_Test", userDao.findByUsername("andy_test").getUsername());
+        Assert.assertEquals(-1, userDao.findIdByUsername("andy%"));
+    }
+
+    @Test
+    public void usernames_differing_only_in_case_are_rejected() {
+        Assert.assertFalse(userDao.create("ANDY_TEST", "password"));
+        Assert.assertTrue(userDao.create("andy2", "password"));
+        Assert.assertEquals(new BigDecimal("1000.00"), new MemoryAccountDao(store).getBalance(userDao.findIdByUsername("andy2")));
+    }
+
+    @Test(expected = UsernameNotFoundException.class)
+    public void unknown_username_is_not_found() {
+        userDao.findByUsername("nobody");
+    }
+}
@@ -0,0 +1,114 @@
+package com.techelevator.tenmo.events;
+
+import com.techelevator.tenmo.model.TransferEvent;
+import com.techelevator.tenmo.model.TransferEventType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class TransferEventLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void events_are_read_back_by_offset_across_segments() throws Exception {
+        TransferEventLog log = new TransferEventLog(folder.getRoot().toPath(), 4);
+        Assert.assertEquals(10, log.append(events(1, 10)));
+
+        List<TransferEvent> read = log.read(3, 5);
+        Assert.assertEquals(5, read.size());
+        Assert.assertEquals(4, read.get(0).getEventId());
+        Assert.assertEquals(8, read.get(4).getEventId());
+        Assert.assertEquals(TransferEventType.SENT, read.get(1).getType());
+        Assert.assertEquals(new BigDecimal("12.50"), read.get(1).getAmount());
+        Assert.assertEquals(2, log.read(8, 100).size());
+        Assert.assertTrue(log.read(10, 100).isEmpty());
+        Assert.assertEquals(3, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void reopened_log_continues_after_the_last_event() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransferEventLog log = new TransferEventLog(directory, 4);
+        log.append(events(1, 6));
+        log.close();
+
+        TransferEventLog reopened = new TransferEventLog(directory, 4);
+        Assert.assertEquals(6, reopened.endOffset());
+        reopened.append(events(7, 1));
+        Assert.assertEquals(7, reopened.read(6, 1).get(0).getEventId());
+        Assert.assertEquals(1, reopened.read(0, 1).get(0).getEventId());
+    }
+
+    @Test
+    public void recovery_stops_at_a_torn_record() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransferEventLog log = new TransferEventLog(directory, 8);
+        log.append(events(1, 5));
+        log.close();
+        // half of the fourth record reached the disk
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(String.format("%020d.log", 0)).toFile(), "rw")) {
+            file.seek(3 * TransferEventLog.RECORD_SIZE + 8);
+            file.writeInt(123456);
+        }
+
+        TransferEventLog reopened = new TransferEventLog(directory, 8);
+        Assert.assertEquals(3, reopened.endOffset());
+        reopened.append(events(4, 1));
+        Assert.assertEquals(4, reopened.endOffset());
+        Assert.assertEquals(4, reopened.read(3, 10).get(0).getEventId());
+
+        // the cleared fifth record must not come back either
+        reopened.close();
+        Assert.assertEquals(4, new TransferEventLog(directory, 8).endOffset());
+    }
+
+    @Test
+    public void records_store_the_fixed_type_code() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        TransferEventLog log = new TransferEventLog(directory, 4);
+        log.append(events(2, 1));
+        log.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(String.format("%020d.log", 0)).toFile(), "r")) {
+            file.seek(12);
+            Assert.assertEquals(TransferEventType.APPROVED.getCode(), file.readInt());
+        }
+        // codes written by earlier versions, which stored the ordinal, keep their meaning
+        Assert.assertEquals(TransferEventType.REQUESTED, TransferEventType.fromCode(0));
+        Assert.assertEquals(TransferEventType.SENT, TransferEventType.fromCode(1));
+        Assert.assertEquals(TransferEventType.APPROVED, TransferEventType.fromCode(2));
+        Assert.assertEquals(TransferEventType.REJECTED, TransferEventType.fromCode(3));
+    }
+
+    @Test
+    public void waiting_reader_is_woken_by_an_append() throws Exception {
+        TransferEventLog log = new TransferEventLog(folder.getRoot().toPath(), 4);
+        Assert.assertEquals(0, log.awaitEnd(0, 10));
+
+        CompletableFuture<Long> end = CompletableFuture.supplyAsync(() -> log.awaitEnd(0, 10000));
+        Thread.sleep(50);
+        log.append(events(1, 2));
+        Assert.assertEquals(Long.valueOf(2), end.get());
+    }
+
+    private static List<TransferEvent> events(long firstId, int count) {
+        List<TransferEvent> events = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            TransferEventType type = Arrays.asList(TransferEventType.values()).get((int) (id % 4));
+            events.add(new TransferEvent(id, 7000 + (int) id, type, 9001, 9002,
+                    new BigDecimal("10.00").add(new BigDecimal("2.50").multiply(BigDecimal.valueOf(id - 4))),
+                    1600000000000L + id));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,98 @@
+package com.techelevator.tenmo.events;
+
+import com.techelevator.tenmo.dao.TransferVersions;
+import com.techelevator.tenmo.model.TransferEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Two relays on one database, standing in for two nodes. Relaying commits, so the events use their own
+ * transfer IDs and are removed afterwards.
+ */
+public class TransferEventRelayTest {
+
+    private static final int FIRST_TRANSFER = 8141;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransferEventLog firstLog;
+    private TransferEventLog secondLog;
+    private TransferEventRelay first;
+    private TransferEventRelay second;
+
+    @Before
+    public void setup() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        removeData();
+        firstLog = new TransferEventLog(folder.newFolder("first").toPath(), 64);
+        secondLog = new TransferEventLog(folder.newFolder("second").toPath(), 64);
+        first = new TransferEventRelay(firstLog, new TransferVersions(), dataSource, 200, 500);
+        second = new TransferEventRelay(secondLog, new TransferVersions(), dataSource, 200, 500);
+    }
+
+    @After
+    public void removeData() {
+        if (first != null) {
+            first.shutdown();
+            second.shutdown();
+        }
+        jdbcTemplate.update("DELETE FROM transfer_event WHERE transfer_id BETWEEN ? AND ?", FIRST_TRANSFER, FIRST_TRANSFER + 8);
+    }
+
+    @Test
+    public void only_the_leader_relays_until_it_stops() {
+        insertEvent(FIRST_TRANSFER);
+        insertEvent(FIRST_TRANSFER + 1);
+        first.relay();
+        Assert.assertTrue(first.isLeader());
+
+        insertEvent(FIRST_TRANSFER + 2);
+        Assert.assertEquals(0, second.relay());
+        Assert.assertFalse(second.isLeader());
+        first.relay();
+        Assert.assertEquals(listOf(FIRST_TRANSFER, FIRST_TRANSFER + 1, FIRST_TRANSFER + 2), transferIds(firstLog));
+
+        first.shutdown();
+        insertEvent(FIRST_TRANSFER + 3);
+        second.relay();
+        Assert.assertTrue(second.isLeader());
+        Assert.assertEquals(listOf(FIRST_TRANSFER + 3), transferIds(secondLog));
+    }
+
+    private void insertEvent(int transferId) {
+        jdbcTemplate.update("INSERT INTO transfer_event (transfer_id, event_type, account_from, account_to, amount) " +
+                "VALUES (?, 'SENT', 9001, 9002, 10.00)", transferId);
+    }
+
+    // ours only; anything else found in the outbox is relayed as well
+    private static List<Integer> transferIds(TransferEventLog log) {
+        List<Integer> ids = new ArrayList<>();
+        for (TransferEvent event : log.read(0, 1000)) {
+            if (event.getTransferId() >= FIRST_TRANSFER && event.getTransferId() <= FIRST_TRANSFER + 8) {
+                ids.add(event.getTransferId());
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> listOf(int... transferIds) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id : transferIds) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,23 @@
+package com.techelevator.tenmo.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserTest {
+
+    @Test
+    public void serialized_user_leaves_out_the_password_hash() throws Exception {
+        User user = new User();
+        user.setId(1001L);
+        user.setUsername("andyTest");
+        user.setPassword("$2a$10$hash");
+        user.setAuthorities("USER");
+
+        String json = new ObjectMapper().writeValueAsString(user);
+
+        Assert.assertTrue(json, json.startsWith("{\"id\":1001,\"username\":\"andyTest\""));
+        Assert.assertFalse(json, json.contains("password"));
+        Assert.assertFalse(json, json.contains("$2a$"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.techelevator.tenmo.reporting;
+
+import com.techelevator.tenmo.model.ApprovalRatesDTO;
+import com.techelevator.tenmo.model.DailyVolumeDTO;
+import com.techelevator.tenmo.model.UserVolumeDTO;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class ReportQueriesTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 10, 1);
+
+    private final ReportQueries queries = new ReportQueries(4);
+
+    @After
+    public void shutdown() {
+        queries.shutdown();
+    }
+
+    @Test
+    public void daily_volume_counts_only_completed_transfers_in_range() {
+        ReportingSnapshot snapshot = users()
+                .addTransfer(3001, 2, 2, 2001, 2002, new BigDecimal("10.00"), START)
+                .addTransfer(3002, 1, 2, 2002, 2003, new BigDecimal("2.50"), START)
+                .addTransfer(3003, 1, 1, 2001, 2003, new BigDecimal("99.00"), START)
+                .addTransfer(3004, 1, 3, 2001, 2003, new BigDecimal("99.00"), START.plusDays(1))
+                .addTransfer(3005, 2, 2, 2003, 2001, new BigDecimal("7.00"), START.plusDays(2))
+                .addTransfer(3006, 2, 2, 2003, 2001, new BigDecimal("7.00"), START.plusDays(5))
+                .build(1);
+
+        List<DailyVolumeDTO> volume = queries.dailyVolume(snapshot, START, START.plusDays(2));
+        Assert.assertEquals(3, volume.size());
+        Assert.assertEquals(START, volume.get(0).getDate());
+        Assert.assertEquals(2, volume.get(0).getTransfers());
+        Assert.assertEquals(new BigDecimal("12.50"), volume.get(0).getAmount());
+        Assert.assertEquals(0, volume.get(1).getTransfers());
+        Assert.assertEquals(new BigDecimal("0.00"), volume.get(1).getAmount());
+        Assert.assertEquals(new BigDecimal("7.00"), volume.get(2).getAmount());
+    }
+
+    @Test
+    public void parallel_scans_match_a_sequential_count() {
+        ReportingSnapshot.Builder builder = users();
+        long[] sentCents = new long[3];
+        long approvedRequests = 0;
+        long resolvedRequests = 0;
+        int rows = ParallelScan.LEAF_ROWS * 5 + 123;
+        for (int i = 0; i < rows; i++) {
+            int from = i % 3;
+            int to = (i + 1) % 3;
+            int type = i % 4 == 0 ? 1 : 2;
+            int status = type == 1 ? 1 + i % 3 : 2;
+            long cents = 100 + i % 997;
+            builder.addTransfer(3001 + i, type, status, 2001 + from, 2001 + to, BigDecimal.valueOf(cents, 2),
+                    START.plusDays(i % 30));
+            if (status == 2) {
+                sentCents[from] += cents;
+            }
+            if (type == 1 && status == 2) {
+                approvedRequests++;
+            }
+            if (type == 1 && status != 1) {
+                resolvedRequests++;
+            }
+        }
+        ReportingSnapshot snapshot = builder.build(1);
+
+        List<UserVolumeDTO> senders = queries.topSenders(snapshot, START, START.plusDays(29), 3);
+        Assert.assertEquals(3, senders.size());
+        for (UserVolumeDTO sender : senders) {
+            int user = sender.getUsername().charAt(0) - 'a';
+            Assert.assertEquals(BigDecimal.valueOf(sentCents[user], 2), sender.getAmount());
+        }
+        Assert.assertTrue(senders.get(0).getAmount().compareTo(senders.get(1).getAmount()) >= 0);
+        Assert.assertTrue(senders.get(1).getAmount().compareTo(senders.get(2).getAmount()) >= 0);
+
+        ApprovalRatesDTO rates = queries.approvalRates(snapshot, START, START.plusDays(29));
+        Assert.assertEquals(approvedRequests, rates.getApproved());
+        Assert.assertEquals(resolvedRequests, rates.getApproved() + rates.getRejected());
+        Assert.assertEquals((double) approvedRequests / resolvedRequests, rates.getApprovalRate(), 1e-9);
+    }
+
+    @Test
+    public void top_receivers_are_limited_and_ranked_by_amount() {
+        ReportingSnapshot snapshot = users()
+                .addTransfer(3001, 2, 2, 2001, 2002, new BigDecimal("10.00"), START)
+                .addTransfer(3002, 2, 2, 2001, 2003, new BigDecimal("30.00"), START)
+                .addTransfer(3003, 2, 2, 2002, 2003, new BigDecimal("5.00"), START)
+                .build(1);
+
+        List<UserVolumeDTO> receivers = queries.topReceivers(snapshot, START, START, 1);
+        Assert.assertEquals(1, receivers.size());
+        Assert.assertEquals("carol", receivers.get(0).getUsername());
+        Assert.assertEquals(2, receivers.get(0).getTransfers());
+        Assert.assertEquals(new BigDecimal("35.00"), receivers.get(0).getAmount());
+    }
+
+    private static ReportingSnapshot.Builder users() {
+        return new ReportingSnapshot.Builder()
+                .addUser(1001, "alice").addUser(1002, "bob").addUser(1003, "carol")
+                .addAccount(2001, 1001).addAccount(2002, 1002).addAccount(2003, 1003);
+    }
+}
@@ -0,0 +1,108 @@
+package com.techelevator.tenmo.security.jwt;
+
+import com.techelevator.tenmo.security.Authorities;
+import com.techelevator.tenmo.security.TenmoAuthentication;
+import com.techelevator.tenmo.security.TenmoPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import javax.servlet.FilterChain;
+import java.lang.management.ManagementFactory;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Measures time and heap allocated per call for the JWT authentication path: the previous approach (parse the
+ * token twice, split and stream the auth claim into new authorities, Spring's {@code User} and
+ * {@code UsernamePasswordAuthenticationToken}) against the current {@link JWTFilter}, and the authority part on
+ * its own. Each case is warmed up before it is measured.
+ *
+ *   JwtFilterBenchmark [iterations]
+ */
+public class JwtFilterBenchmark {
+
+    private static final String SECRET =
+            "ZmQ0ZGI5NjQ0MDQwY2I4MjMxY2Y3ZmI3MjdhN2ZmMjNhODViOTg1ZGE0NTBjMGM4NDA5NzYxMjdjOWMwYWRmZTBlZjlhNGY3ZTg4Y2U3YTE1ODVkZDU5Y2Y3OGYwZWE1NzUzNWQ2YjFjZDc0NGMxZWU2MmQ3MjY1NzJmNTE0MzI=";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 3600, 3600);
+        tokenProvider.afterPropertiesSet();
+        TenmoPrincipal user = new TenmoPrincipal("andyTest", "", 8001, 9001, Authorities.fromClaim("ROLE_USER"));
+        String token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken(user, "", user.getAuthorities()), false);
+
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        run("before: filter path", iterations, () -> {
+            // validateToken and getAuthentication each built a parser and verified the signature
+            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            Collection<? extends GrantedAuthority> authorities = Arrays.stream(claims.get("auth").toString().split(","))
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
+            User principal = new User(claims.getSubject(), "", authorities);
+            return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        });
+
+        JWTFilter filter = new JWTFilter(tokenProvider);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account/balance");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> sink = SecurityContextHolder.getContext().getAuthentication();
+        run("after: JWTFilter", iterations, () -> {
+            filter.doFilter(request, response, chain);
+            SecurityContextHolder.clearContext();
+            return sink;
+        });
+
+        run("before: authorities", iterations * 10, () -> Arrays.stream("ROLE_USER".split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList()));
+        run("after: authorities", iterations * 10, () -> Authorities.fromClaim("ROLE_USER"));
+        run("before: principal", iterations * 10, () -> {
+            Collection<GrantedAuthority> authorities = Authorities.fromClaim("ROLE_USER");
+            return new UsernamePasswordAuthenticationToken(new User("andyTest", "", authorities), token, authorities);
+        });
+        run("after: principal", iterations * 10, () -> tokenAuthentication(token));
+    }
+
+    private static Authentication tokenAuthentication(String token) {
+        return new TenmoAuthentication(
+                new TenmoPrincipal("andyTest", "", 8001, 9001, Authorities.fromClaim("ROLE_USER")), token);
+    }
+
+    private static void run(String name, int iterations, Case benchmark) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            sink = benchmark.call();
+        }
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = benchmark.call();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%-24s %10.0f ns/op %10.0f B/op%n", name, (double) nanos / iterations, (double) allocated / iterations);
+    }
+
+    private interface Case {
+        Object call() throws Exception;
+    }
+}
@@ -0,0 +1,83 @@
+package com.techelevator.tenmo.security.jwt;
+
+import com.techelevator.tenmo.security.Authorities;
+import com.techelevator.tenmo.security.TenmoPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+public class TokenProviderTest {
+
+    private static final String SECRET =
+            "ZmQ0ZGI5NjQ0MDQwY2I4MjMxY2Y3ZmI3MjdhN2ZmMjNhODViOTg1ZGE0NTBjMGM4NDA5NzYxMjdjOWMwYWRmZTBlZjlhNGY3ZTg4Y2U3YTE1ODVkZDU5Y2Y3OGYwZWE1NzUzNWQ2YjFjZDc0NGMxZWU2MmQ3MjY1NzJmNTE0MzI=";
+
+    private TokenProvider tokenProvider;
+
+    @Before
+    public void setup() {
+        tokenProvider = new TokenProvider(SECRET, 60, 60);
+        tokenProvider.afterPropertiesSet();
+    }
+
+    @Test
+    public void token_carries_user_and_account_ids() {
+        TenmoPrincipal principal = new TenmoPrincipal("andyTest", "", 8001, 9001,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.createToken(
+                new UsernamePasswordAuthenticationToken(principal, "", principal.getAuthorities()), false);
+
+        Assert.assertTrue(tokenProvider.validateToken(token));
+        Authentication authentication = tokenProvider.getAuthentication(token);
+        TenmoPrincipal read = (TenmoPrincipal) authentication.getPrincipal();
+        Assert.assertEquals("andyTest", read.getUsername());
+        Assert.assertEquals(8001, read.getUserId());
+        Assert.assertEquals(9001, read.getAccountId());
+        Assert.assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    public void token_without_ids_is_rejected() {
+        String token = Jwts.builder()
+                .setSubject("andyTest")
+                .claim("auth", "ROLE_USER")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS512)
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .compact();
+        Assert.assertFalse(tokenProvider.validateToken(token));
+        Assert.assertNull(tokenProvider.authenticate(token));
+    }
+
+    @Test
+    public void requests_share_the_authorities_of_a_claim() {
+        TenmoPrincipal principal = new TenmoPrincipal("andyTest", "", 8001, 9001, Authorities.fromClaim("ROLE_USER"));
+        String token = tokenProvider.createToken(
+                new UsernamePasswordAuthenticationToken(principal, "", principal.getAuthorities()), false);
+
+        Authentication first = tokenProvider.authenticate(token);
+        Authentication second = tokenProvider.authenticate(token);
+        Assert.assertTrue(first.isAuthenticated());
+        Assert.assertEquals("andyTest", first.getName());
+        Assert.assertSame(first.getAuthorities(), second.getAuthorities());
+        Assert.assertSame(Authorities.USER, first.getAuthorities().iterator().next());
+        Assert.assertNull(tokenProvider.authenticate(token + "x"));
+    }
+
+    @Test
+    public void claims_with_several_roles_round_trip() {
+        Assert.assertEquals(Arrays.asList(Authorities.USER, Authorities.ADMIN),
+                Authorities.fromClaim(Authorities.toClaim(Arrays.asList(Authorities.USER, Authorities.ADMIN))));
+        Assert.assertSame(Authorities.fromClaim("ROLE_USER,ROLE_ADMIN"), Authorities.fromClaim("ROLE_USER,ROLE_ADMIN"));
+        Assert.assertTrue(Authorities.fromClaim("").isEmpty());
+    }
+}
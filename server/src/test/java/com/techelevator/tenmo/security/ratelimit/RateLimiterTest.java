@@ -0,0 +1,126 @@
+package com.techelevator.tenmo.security.ratelimit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private LocalRateLimitStore store;
+    private RateLimitFilter filter;
+    private RateLimiter rateLimiter;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        store = new LocalRateLimitStore(now::get, TimeUnit.HOURS.toNanos(1));
+        RateLimitProperties.Route send = new RateLimitProperties.Route();
+        send.setPath("/transfer/send");
+        send.setMethod("POST");
+        send.setCapacity(3);
+        send.setRefillPerSecond(1);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(Arrays.asList(send));
+        ObjectProvider<RateLimitStore> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(store);
+        rateLimiter = new RateLimiter(properties, provider);
+        filter = new RateLimitFilter(rateLimiter);
+    }
+
+    @After
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void bucket_allows_burst_up_to_capacity_then_refills_over_time() {
+        Assert.assertEquals(0, store.tryAcquire("k", SECOND, 3));
+        Assert.assertEquals(0, store.tryAcquire("k", SECOND, 3));
+        Assert.assertEquals(0, store.tryAcquire("k", SECOND, 3));
+        Assert.assertEquals(SECOND, store.tryAcquire("k", SECOND, 3));
+
+        now.addAndGet(SECOND / 2);
+        Assert.assertEquals(SECOND / 2, store.tryAcquire("k", SECOND, 3));
+        now.addAndGet(SECOND / 2);
+        Assert.assertEquals(0, store.tryAcquire("k", SECOND, 3));
+        Assert.assertEquals(0, store.tryAcquire("other", SECOND, 3));
+    }
+
+    @Test
+    public void sweep_drops_only_buckets_that_have_refilled() {
+        store.tryAcquire("busy", SECOND, 3);
+        store.tryAcquire("busy", SECOND, 3);
+        store.tryAcquire("idle", SECOND, 3);
+        now.addAndGet(SECOND);
+        store.sweep();
+        Assert.assertEquals(1, store.size());
+        now.addAndGet(SECOND);
+        store.sweep();
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void filter_returns_429_with_retry_after_once_the_principal_is_over_the_limit() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("andyTest", null, Collections.emptyList()));
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = post("/transfer/send");
+            Assert.assertEquals(200, response.getStatus());
+        }
+        MockHttpServletResponse throttled = post("/transfer/send");
+        Assert.assertEquals(RateLimitFilter.SC_TOO_MANY_REQUESTS, throttled.getStatus());
+        Assert.assertEquals("1", throttled.getHeader("Retry-After"));
+
+        Assert.assertEquals(200, post("/transfer/history").getStatus());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("nicoleTest", null, Collections.emptyList()));
+        Assert.assertEquals(200, post("/transfer/send").getStatus());
+
+        Assert.assertEquals(4, rateLimiter.getStats().getRoutes().get(0).getAllowed());
+        Assert.assertEquals(1, rateLimiter.getStats().getRoutes().get(0).getThrottled());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void routes_without_a_positive_refill_rate_are_refused_at_startup() {
+        for (double refillPerSecond : new double[] {0, -1, Double.NaN}) {
+            RateLimitProperties.Route route = new RateLimitProperties.Route();
+            route.setPath("/transfer/send");
+            route.setRefillPerSecond(refillPerSecond);
+            RateLimitProperties properties = new RateLimitProperties();
+            properties.setRoutes(Arrays.asList(route));
+            try {
+                new RateLimiter(properties, mock(ObjectProvider.class));
+                Assert.fail("accepted refill-per-second " + refillPerSecond);
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("/transfer/send"));
+            }
+        }
+    }
+
+    private MockHttpServletResponse post(String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
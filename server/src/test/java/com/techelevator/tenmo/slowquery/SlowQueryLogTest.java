@@ -0,0 +1,94 @@
+package com.techelevator.tenmo.slowquery;
+
+import com.techelevator.tenmo.model.SlowQueryDTO;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+public class SlowQueryLogTest {
+
+    private static final String SLOW_READ = "SELECT ?::int + 1 FROM pg_sleep(0.05)";
+    private static final String SLOW_WRITE = "UPDATE account SET balance = balance + 0 " +
+            "WHERE user_id = ? AND EXISTS (SELECT 1 FROM pg_sleep(0.05))";
+
+    private SlowQueryLog slowQueryLog;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/tenmo", "postgres", "postgres1");
+        slowQueryLog = new SlowQueryLog(() -> target, 20, 300, 5000, false, 500);
+        jdbcTemplate = new JdbcTemplate(new SlowQueryDataSource(target, () -> slowQueryLog));
+    }
+
+    @After
+    public void shutdown() {
+        slowQueryLog.shutdown();
+    }
+
+    @Test
+    public void fingerprints_leave_out_values() {
+        Assert.assertEquals("select * from transfer where amount > ? and note = ? and transfer_id in (?...)",
+                SqlFingerprint.of("SELECT *\n  FROM transfer WHERE amount > 10.50 AND note = 'it''s' AND transfer_id IN (7, 8,9)"));
+        Assert.assertEquals("select balance from account where user_id = ?",
+                SqlFingerprint.of("SELECT balance FROM account WHERE user_id = ?"));
+        Assert.assertEquals("select seq_transfer_id from t1", SqlFingerprint.of("SELECT seq_transfer_id FROM t1"));
+    }
+
+    @Test
+    public void slow_dao_reads_are_grouped_and_explained_with_analyze() throws Exception {
+        String outer = SlowQueryDataSource.enterDao("JdbcAccountDao.getBalance");
+        try {
+            jdbcTemplate.queryForObject(SLOW_READ, Integer.class, 1);
+            jdbcTemplate.queryForObject(SLOW_READ, Integer.class, 2);
+        } finally {
+            SlowQueryDataSource.exitDao(outer);
+        }
+
+        SlowQueryDTO slowQuery = awaitPlan();
+        Assert.assertEquals("select ?::int + ? from pg_sleep(?)", slowQuery.getFingerprint());
+        Assert.assertEquals("JdbcAccountDao.getBalance", slowQuery.getDaoMethod());
+        Assert.assertEquals(2, slowQuery.getCount());
+        Assert.assertTrue(slowQuery.getMaxMillis() >= 50);
+        Assert.assertTrue(slowQuery.getPlan(), slowQuery.getPlan().contains("actual time"));
+        Assert.assertTrue(slowQuery.getPlan(), slowQuery.getPlan().contains("Function Scan on pg_sleep"));
+    }
+
+    @Test
+    public void slow_dao_writes_are_explained_without_running_them() throws Exception {
+        String outer = SlowQueryDataSource.enterDao("JdbcAccountDao.depositBucks");
+        try {
+            jdbcTemplate.update(SLOW_WRITE, 99999);
+        } finally {
+            SlowQueryDataSource.exitDao(outer);
+        }
+
+        SlowQueryDTO slowQuery = awaitPlan();
+        Assert.assertTrue(slowQuery.getPlan(), slowQuery.getPlan().startsWith("Update on account"));
+        Assert.assertFalse(slowQuery.getPlan(), slowQuery.getPlan().contains("actual time"));
+        Assert.assertTrue(slowQuery.getPlan(), slowQuery.getPlan().contains("user_id = ?"));
+        Assert.assertFalse("bind values are redacted from the plan", slowQuery.getPlan().contains("99999"));
+    }
+
+    @Test
+    public void statements_outside_a_dao_are_not_timed() {
+        jdbcTemplate.queryForObject(SLOW_READ, Integer.class, 1);
+        Assert.assertTrue(slowQueryLog.getSlowQueries(10).isEmpty());
+    }
+
+    private SlowQueryDTO awaitPlan() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<SlowQueryDTO> slowQueries = slowQueryLog.getSlowQueries(10);
+            if (slowQueries.size() == 1 && slowQueries.get(0).getPlan() != null) {
+                return slowQueries.get(0);
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("no plan captured: " + slowQueryLog.getSlowQueries(10).size() + " slow queries");
+    }
+}
@@ -0,0 +1,111 @@
+package com.techelevator.tenmo.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TracingTest {
+
+    @After
+    public void endTrace() {
+        Tracing.end();
+    }
+
+    @Test
+    public void spans_nest_under_the_span_that_was_open() {
+        Tracing.begin("t1", "POST /transfer/send");
+        try (Span controller = Tracing.start("TransferController.sendTransfer")) {
+            try (Span dao = Tracing.start("JdbcTransferDao.sendTransfer")) {
+                Tracing.start("sql", "UPDATE account").close();
+            }
+        }
+        Tracing.start("left open");
+        Trace trace = Tracing.end();
+
+        List<Span> spans = trace.getSpans();
+        Assert.assertEquals(4, spans.size());
+        Assert.assertEquals(0, spans.get(0).getParentId());
+        Assert.assertEquals(spans.get(0).getId(), spans.get(1).getParentId());
+        Assert.assertEquals(spans.get(1).getId(), spans.get(2).getParentId());
+        Assert.assertEquals(0, spans.get(3).getParentId());
+        Assert.assertFalse("end closes what is still open", spans.get(3).isOpen());
+        Assert.assertFalse(Tracing.isActive());
+        Assert.assertSame(Span.NONE, Tracing.start("after the request"));
+    }
+
+    @Test
+    public void data_source_records_statements_only_inside_a_trace() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT balance FROM account WHERE user_id = ?")).thenReturn(statement);
+        when(statement.executeUpdate()).thenThrow(new SQLException("ck_account_balance_not_negative"));
+        TracingDataSource dataSource = new TracingDataSource(target);
+
+        Assert.assertSame(connection, dataSource.getConnection());
+
+        Tracing.begin("t2", "GET /account/balance");
+        Connection traced = dataSource.getConnection();
+        PreparedStatement prepared = traced.prepareStatement("SELECT balance FROM account WHERE user_id = ?");
+        prepared.executeQuery();
+        try {
+            prepared.executeUpdate();
+            Assert.fail("expected the statement's exception");
+        } catch (SQLException e) {
+            Assert.assertEquals("ck_account_balance_not_negative", e.getMessage());
+        }
+        traced.commit();
+        List<Span> spans = Tracing.end().getSpans();
+
+        Assert.assertEquals(4, spans.size());
+        Assert.assertEquals("connection", spans.get(0).getName());
+        Assert.assertEquals("sql", spans.get(1).getName());
+        Assert.assertEquals("SELECT balance FROM account WHERE user_id = ?", spans.get(1).getDetail());
+        Assert.assertEquals("SQLException", spans.get(2).getError());
+        Assert.assertEquals("commit", spans.get(3).getName());
+    }
+
+    @Test
+    public void collector_keeps_slow_and_failed_requests_and_drops_the_rest() throws Exception {
+        TraceCollector collector = new TraceCollector(new ObjectMapper(), 50, 0, 2, (Path) null);
+
+        Trace fast = finished("fast", 0);
+        Trace slow = finished("slow", 60);
+        Trace failed = finished("failed", 0);
+        failed.setStatus(500);
+
+        Assert.assertFalse(collector.offer(fast));
+        Assert.assertTrue(collector.offer(slow));
+        Assert.assertTrue(collector.offer(failed));
+        Assert.assertEquals("slow", slow.getKeptBecause());
+        Assert.assertEquals("error", failed.getKeptBecause());
+        Assert.assertEquals(1, collector.getDropped());
+        List<Trace> traces = collector.getTraces(0, 10);
+        Assert.assertEquals(2, traces.size());
+        Assert.assertSame(failed, traces.get(0));
+        Assert.assertEquals(List.of(slow), collector.getTraces(50, 10));
+
+        Assert.assertTrue(collector.offer(finished("slower", 70)));
+        Assert.assertEquals("only the most recent are kept", 2, collector.getTraces(0, 10).size());
+    }
+
+    private static Trace finished(String traceId, long millis) throws InterruptedException {
+        Tracing.begin(traceId, "GET /transfer/history");
+        Thread.sleep(millis);
+        Trace trace = Tracing.end();
+        trace.setStatus(200);
+        return trace;
+    }
+}
@@ -1,7 +1,7 @@
 BEGIN TRANSACTION;
 
-DROP TABLE IF EXISTS transfer, account, tenmo_user, transfer_type, transfer_status;
-DROP SEQUENCE IF EXISTS seq_user_id, seq_account_id, seq_transfer_id;
+DROP TABLE IF EXISTS transfer_event, transfer, account, tenmo_user, transfer_type, transfer_status;
+DROP SEQUENCE IF EXISTS seq_user_id, seq_account_id, seq_transfer_id, seq_transfer_event_id;
 
 
 CREATE TABLE transfer_type (
@@ -25,10 +25,12 @@ CREATE TABLE tenmo_user (
 	user_id int NOT NULL DEFAULT nextval('seq_user_id'),
 	username varchar(50) NOT NULL,
 	password_hash varchar(200) NOT NULL,
-	CONSTRAINT PK_tenmo_user PRIMARY KEY (user_id),
-	CONSTRAINT UQ_username UNIQUE (username)
+	CONSTRAINT PK_tenmo_user PRIMARY KEY (user_id)
 );
 
+-- usernames are unique and looked up ignoring case; queries must compare lower(username) to use this index
+CREATE UNIQUE INDEX UQ_username_lower ON tenmo_user (lower(username));
+
 CREATE SEQUENCE seq_account_id
   INCREMENT BY 1
   START WITH 2001
@@ -39,7 +41,9 @@ CREATE TABLE account (
 	user_id int NOT NULL,
 	balance decimal(13, 2) NOT NULL,
 	CONSTRAINT PK_account PRIMARY KEY (account_id),
-	CONSTRAINT FK_account_tenmo_user FOREIGN KEY (user_id) REFERENCES tenmo_user (user_id)
+	CONSTRAINT FK_account_tenmo_user FOREIGN KEY (user_id) REFERENCES tenmo_user (user_id),
+	CONSTRAINT UQ_account_user_id UNIQUE (user_id),
+	CONSTRAINT CK_account_balance_not_negative CHECK (balance >= 0)
 );
 
 CREATE SEQUENCE seq_transfer_id
@@ -54,6 +58,8 @@ CREATE TABLE transfer (
 	account_from int NOT NULL,
 	account_to int NOT NULL,
 	amount decimal(13, 2) NOT NULL,
+	created_at timestamp NOT NULL DEFAULT now(),
+	resolved_at timestamp,
 	CONSTRAINT PK_transfer PRIMARY KEY (transfer_id),
 	CONSTRAINT FK_transfer_account_from FOREIGN KEY (account_from) REFERENCES account (account_id),
 	CONSTRAINT FK_transfer_account_to FOREIGN KEY (account_to) REFERENCES account (account_id),
@@ -64,6 +70,26 @@ CREATE TABLE transfer (
 );
 
 
+CREATE SEQUENCE seq_transfer_event_id
+  INCREMENT BY 1
+  START WITH 1
+  NO MAXVALUE;
+
+-- transactional outbox: written in the same statement or transaction as the transfer change it describes,
+-- moved to the server's event log by the relay and then deleted
+CREATE TABLE transfer_event (
+	event_id bigint NOT NULL DEFAULT nextval('seq_transfer_event_id'),
+	transfer_id int NOT NULL,
+	event_type varchar(10) NOT NULL,
+	account_from int NOT NULL,
+	account_to int NOT NULL,
+	amount decimal(13, 2) NOT NULL,
+	created_at timestamp NOT NULL DEFAULT now(),
+	CONSTRAINT PK_transfer_event PRIMARY KEY (event_id),
+	CONSTRAINT CK_transfer_event_type CHECK (event_type IN ('REQUESTED', 'SENT', 'APPROVED', 'REJECTED'))
+);
+
+
 INSERT INTO transfer_status (transfer_status_desc) VALUES ('Pending');
 INSERT INTO transfer_status (transfer_status_desc) VALUES ('Approved');
 INSERT INTO transfer_status (transfer_status_desc) VALUES ('Rejected');